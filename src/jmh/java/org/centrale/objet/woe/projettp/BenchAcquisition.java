@@ -0,0 +1,116 @@
+package org.centrale.objet.woe.projettp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Acquisition des cibles de tous les attaquants d'une carte peuplée à
+ * {@value #DENSITE} : directement dans la grille, puis par tuiles relevées
+ * avec la sélection scalaire et la sélection vectorielle de
+ * {@link AcquisitionCibles}. Le relevé de chaque tuile est compté dans le
+ * temps. La JVM est lancée avec le module incubateur de l'API vectorielle ;
+ * la voie {@code vectoriel} n'est mesurée que si le noyau a été compilé
+ * ({@code mvn -P jmh,vectoriel package}), sinon elle retombe sur la voie
+ * scalaire.
+ *
+ * @author srodr
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class BenchAcquisition {
+
+    /**
+     * Côté de la carte
+     */
+    private static final int TAILLE = 256;
+
+    /**
+     * Proportion de cases occupées
+     */
+    private static final double DENSITE = 0.3;
+
+    @Param({"1", "2", "4", "8"})
+    public int portee;
+
+    @Param({"grille", "scalaire", "vectoriel"})
+    public String voie;
+
+    private GrilleOccupation grille;
+    private AcquisitionCibles releve;
+    private List<Creature> cibles;
+    private int cote;
+
+    @Setup(Level.Trial)
+    public void preparer() {
+        ServiceAleatoire alea = new ServiceAleatoire(MondesBench.GRAINE);
+        SplittableRandom rand = new SplittableRandom(MondesBench.GRAINE);
+        ReserveCreatures reserve = new ReserveCreatures(TAILLE * TAILLE);
+        grille = new GrilleOccupation(TAILLE);
+        long id = 1;
+        for (int y = 0; y < TAILLE; y++) {
+            for (int x = 0; x < TAILLE; x++) {
+                if (rand.nextDouble() < DENSITE) {
+                    Guerrier g = new Guerrier("Guerrier " + id, true, 100, 30, 10, 70, 40, Point2D.of(x, y), portee, 3);
+                    g.enregistrer(id, alea.flux(id));
+                    reserve.inscrire(g);
+                    grille.placer(g);
+                    id++;
+                }
+            }
+        }
+        releve = new AcquisitionCibles("vectoriel".equals(voie));
+        cibles = new ArrayList<>();
+        cote = Math.max(2 * portee + 1, 16);
+    }
+
+    @Benchmark
+    public long acquerir() {
+        long total = 0;
+        for (int ty = 0; ty < TAILLE; ty += cote) {
+            for (int tx = 0; tx < TAILLE; tx += cote) {
+                boolean parReleve = !"grille".equals(voie);
+                if (parReleve) {
+                    releve.preparer(grille, tx - portee, ty - portee, tx + cote - 1 + portee, ty + cote - 1 + portee);
+                }
+                for (int y = ty; y < Math.min(TAILLE, ty + cote); y++) {
+                    for (int x = tx; x < Math.min(TAILLE, tx + cote); x++) {
+                        Creature c = grille.getCreature(x, y);
+                        if (c == null) {
+                            continue;
+                        }
+                        cibles.clear();
+                        if (parReleve) {
+                            releve.ciblesDansCarre(x, y, portee, c, cibles);
+                        } else {
+                            grille.creaturesDansZone(FormeZone.CARRE, x, y, portee, Creature.class, cibles);
+                            cibles.remove(c);
+                        }
+                        total += cibles.size();
+                    }
+                }
+                if (parReleve) {
+                    releve.oublier();
+                }
+            }
+        }
+        return total;
+    }
+}
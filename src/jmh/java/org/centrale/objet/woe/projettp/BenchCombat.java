@@ -0,0 +1,95 @@
+package org.centrale.objet.woe.projettp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Résolution des combats : chaque guerrier attaque le loup placé à sa
+ * droite. Les loups ont assez de points de vie pour ne jamais mourir pendant
+ * une itération, afin que chaque appel fasse le même travail. Les mêmes
+ * paires sont résolues une à une, puis en un seul lot par le
+ * {@link ResolveurCombat}, sur les colonnes de la réserve.
+ *
+ * @author srodr
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BenchCombat {
+
+    @Param({"100", "1000", "10000", "100000", "1000000"})
+    public int population;
+
+    private GrilleOccupation grille;
+    private List<Creature> creatures;
+    private Guerrier[] attaquants;
+    private Loup[] defenseurs;
+    private ReserveCreatures reserve;
+    private int[] emplacementsAttaquants;
+    private int[] emplacementsDefenseurs;
+    private SplittableRandom[] aleas;
+
+    @Setup(Level.Iteration)
+    public void preparer() {
+        int taille = MondesBench.taille(population);
+        ServiceAleatoire alea = new ServiceAleatoire(MondesBench.GRAINE);
+        reserve = new ReserveCreatures(population);
+        grille = new GrilleOccupation(taille);
+        creatures = new ArrayList<>(population);
+        int nbPaires = population / 2;
+        attaquants = new Guerrier[nbPaires];
+        defenseurs = new Loup[nbPaires];
+        emplacementsAttaquants = new int[nbPaires];
+        emplacementsDefenseurs = new int[nbPaires];
+        aleas = new SplittableRandom[nbPaires];
+        for (int i = 0; i < nbPaires; i++) {
+            int x = (2 * i) % (taille - 1);
+            int y = (2 * i) / (taille - 1);
+            attaquants[i] = new Guerrier("Guerrier " + i, true, 100, 30, 10, 70, 40, Point2D.of(x, y), 1, 3);
+            defenseurs[i] = new Loup("Loup " + i, true, Integer.MAX_VALUE / 2, 20, 10, 50, 50,
+                    Point2D.of(x + 1, y), 1, 4, Monstre.Dangerosite.MOYENNE);
+            attaquants[i].enregistrer(2L * i + 1, alea.flux(2L * i + 1));
+            defenseurs[i].enregistrer(2L * i + 2, alea.flux(2L * i + 2));
+            for (Creature c : new Creature[]{attaquants[i], defenseurs[i]}) {
+                reserve.inscrire(c);
+                grille.placer(c);
+                creatures.add(c);
+            }
+            emplacementsAttaquants[i] = attaquants[i].getIndice();
+            emplacementsDefenseurs[i] = defenseurs[i].getIndice();
+            aleas[i] = attaquants[i].getAlea();
+        }
+    }
+
+    @Benchmark
+    public long combattre() {
+        for (int i = 0; i < attaquants.length; i++) {
+            attaquants[i].combattre(defenseurs[i], grille, creatures);
+        }
+        return defenseurs.length == 0 ? 0 : defenseurs[0].getPtVie();
+    }
+
+    @Benchmark
+    public long combattreParLot() {
+        ResolveurCombat.resoudre(reserve, emplacementsAttaquants, emplacementsDefenseurs, aleas.length, aleas,
+                grille.getCommandes(), null);
+        return defenseurs.length == 0 ? 0 : defenseurs[0].getPtVie();
+    }
+}
@@ -0,0 +1,102 @@
+package org.centrale.objet.woe.projettp;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Tests de portée d'une origine contre {@value #NB_CASES} cases : l'ancienne
+ * distance flottante comparée à {@code portee * √2}, la distance entière au
+ * carré case par case, puis les noyaux en lot de {@link Point2D}. Les temps
+ * sont donnés par case.
+ *
+ * @author srodr
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BenchDistances {
+
+    /**
+     * Nombre de cases testées par appel
+     */
+    private static final int NB_CASES = 4096;
+
+    /**
+     * Portée testée
+     */
+    private static final int PORTEE = 2;
+
+    private Point2D origine;
+    private Point2D[] points;
+    private int[] xs;
+    private int[] ys;
+    private int[] indices;
+
+    @Setup(Level.Trial)
+    public void preparer() {
+        SplittableRandom rand = new SplittableRandom(MondesBench.GRAINE);
+        int taille = 16;
+        origine = Point2D.of(taille / 2, taille / 2);
+        points = new Point2D[NB_CASES];
+        xs = new int[NB_CASES];
+        ys = new int[NB_CASES];
+        indices = new int[NB_CASES];
+        for (int i = 0; i < NB_CASES; i++) {
+            xs[i] = rand.nextInt(taille);
+            ys[i] = rand.nextInt(taille);
+            points[i] = Point2D.of(xs[i], ys[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NB_CASES)
+    public int distanceFlottante() {
+        int n = 0;
+        for (Point2D p : points) {
+            if (origine.distance(p) <= PORTEE * Math.sqrt(2)) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NB_CASES)
+    public int distanceCarree() {
+        int n = 0;
+        for (Point2D p : points) {
+            if (origine.distanceCarree(p) <= 2 * PORTEE * PORTEE) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NB_CASES)
+    public int selectionnerDansRayon() {
+        return Point2D.selectionnerDansRayon(origine.getX(), origine.getY(), xs, ys, NB_CASES,
+                2 * PORTEE * PORTEE, indices);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NB_CASES)
+    public int selectionnerDansCarre() {
+        return Point2D.selectionnerDansCarre(origine.getX(), origine.getY(), xs, ys, NB_CASES, PORTEE, indices);
+    }
+}
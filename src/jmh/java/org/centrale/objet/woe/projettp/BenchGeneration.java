@@ -0,0 +1,49 @@
+package org.centrale.objet.woe.projettp;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Génération des créatures d'un monde vide (placement sur la grille et
+ * inscription dans la réserve compris).
+ *
+ * @author srodr
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class BenchGeneration {
+
+    @Param({"100", "1000", "10000", "100000", "1000000"})
+    public int population;
+
+    private World monde;
+
+    /**
+     * Chaque appel part d'un monde neuf, créé hors de la mesure.
+     */
+    @Setup(Level.Invocation)
+    public void preparer() {
+        monde = new World(MondesBench.GRAINE, MondesBench.taille(population));
+    }
+
+    @Benchmark
+    public World genererCreatures() {
+        monde.creerMondeAlea(population, 0);
+        return monde;
+    }
+}
@@ -0,0 +1,117 @@
+package org.centrale.objet.woe.projettp;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Recherches dans la grille d'occupation : case occupée, voisins immédiats,
+ * plus proches voisins, et l'ancien {@code HashSet<Point2D>} comme
+ * référence. Chaque appel traite {@value #NB_REQUETES} cases tirées à
+ * l'avance ; les temps sont donnés par requête.
+ *
+ * @author srodr
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BenchGrille {
+
+    /**
+     * Nombre de cases interrogées par appel
+     */
+    private static final int NB_REQUETES = 4096;
+
+    @Param({"100", "1000", "10000", "100000", "1000000"})
+    public int population;
+
+    private GrilleOccupation grille;
+    private Set<Point2D> anciennesPositions;
+    private int[] xs;
+    private int[] ys;
+    private List<Creature> voisins;
+    private int taille;
+
+    @Setup(Level.Trial)
+    public void preparer() {
+        World monde = MondesBench.monde(population);
+        grille = monde.getGrille();
+        taille = monde.TAILLE_MONDE;
+        anciennesPositions = new HashSet<>();
+        for (Creature c : monde.ListCreature) {
+            anciennesPositions.add(new Point2D(c.getPos().getX(), c.getPos().getY()));
+        }
+        SplittableRandom rand = new SplittableRandom(MondesBench.GRAINE);
+        xs = new int[NB_REQUETES];
+        ys = new int[NB_REQUETES];
+        for (int i = 0; i < NB_REQUETES; i++) {
+            xs[i] = rand.nextInt(taille);
+            ys[i] = rand.nextInt(taille);
+        }
+        voisins = new ArrayList<>();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NB_REQUETES)
+    public int estOccupee() {
+        int n = 0;
+        for (int i = 0; i < NB_REQUETES; i++) {
+            if (grille.estOccupee(xs[i], ys[i])) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NB_REQUETES)
+    public int hashSetContains() {
+        int n = 0;
+        for (int i = 0; i < NB_REQUETES; i++) {
+            if (anciennesPositions.contains(new Point2D(xs[i], ys[i]))) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NB_REQUETES)
+    public void creaturesDansCarre(Blackhole bh) {
+        for (int i = 0; i < NB_REQUETES; i++) {
+            voisins.clear();
+            grille.creaturesDansCarre(xs[i], ys[i], 1, voisins);
+            bh.consume(voisins.size());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NB_REQUETES)
+    public void kPlusProches(Blackhole bh) {
+        for (int i = 0; i < NB_REQUETES; i++) {
+            voisins.clear();
+            grille.kPlusProches(xs[i], ys[i], 8, taille, voisins);
+            bh.consume(voisins.size());
+        }
+    }
+}
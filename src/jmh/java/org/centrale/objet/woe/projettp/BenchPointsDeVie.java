@@ -0,0 +1,86 @@
+package org.centrale.objet.woe.projettp;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Somme des points de vie de toutes les créatures : ce que mesurait
+ * {@code World.creationLabDeMondePourComparerDesTemps}, cette fois avec
+ * préchauffage, plusieurs JVM et sans affichage dans la mesure.
+ * <p>
+ * L'accès indexé n'est mesuré que sur {@link ArrayList} : sur une
+ * {@link LinkedList} il est quadratique et ne termine pas à un million de
+ * créatures.
+ * </p>
+ *
+ * @author srodr
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BenchPointsDeVie {
+
+    @Param({"100", "1000", "10000", "100000", "1000000"})
+    public int population;
+
+    private List<Creature> tableau;
+    private List<Creature> chainee;
+    private ReserveCreatures reserve;
+
+    @Setup(Level.Trial)
+    public void preparer() {
+        World monde = MondesBench.monde(population);
+        tableau = new ArrayList<>(monde.ListCreature);
+        chainee = new LinkedList<>(monde.ListCreature);
+        reserve = monde.getReserve();
+    }
+
+    @Benchmark
+    public long parIndiceArrayList() {
+        long total = 0;
+        for (int i = 0; i < tableau.size(); i++) {
+            total += tableau.get(i).getPtVie();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long parIterateurArrayList() {
+        long total = 0;
+        for (Creature c : tableau) {
+            total += c.getPtVie();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long parIterateurLinkedList() {
+        long total = 0;
+        for (Creature c : chainee) {
+            total += c.getPtVie();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long parColonneReserve() {
+        return reserve.sommePtVie();
+    }
+}
@@ -0,0 +1,53 @@
+package org.centrale.objet.woe.projettp;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Un tour complet sans joueur ni affichage : analyses de tous les éléments,
+ * en série ou sur plusieurs threads, puis résolution des déplacements.
+ * <p>
+ * Le monde est régénéré à chaque itération pour que la population mesurée
+ * reste proche de la population annoncée malgré les morts.
+ * </p>
+ *
+ * @author srodr
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BenchTour {
+
+    @Param({"100", "1000", "10000", "100000", "1000000"})
+    public int population;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private World monde;
+
+    @Setup(Level.Iteration)
+    public void preparer() {
+        monde = MondesBench.monde(population);
+        monde.setParallelisme(threads);
+    }
+
+    @Benchmark
+    public int tour() {
+        return monde.executerTour(null);
+    }
+}
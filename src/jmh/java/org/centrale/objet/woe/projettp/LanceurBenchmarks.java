@@ -0,0 +1,33 @@
+package org.centrale.objet.woe.projettp;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Point d'entrée de {@code benchmarks.jar} : accepte les mêmes options que
+ * JMH (filtre de benchmarks, {@code -p population=1000}, etc.) et active
+ * toujours le profileur du ramasse-miettes, pour voir les allocations par
+ * opération à côté des temps.
+ *
+ * @author srodr
+ */
+public class LanceurBenchmarks {
+
+    /**
+     * @param args options JMH
+     * @throws RunnerException si un benchmark échoue
+     * @throws CommandLineOptionException si les options sont invalides
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,40 @@
+package org.centrale.objet.woe.projettp;
+
+/**
+ * Outils communs aux benchmarks : construction de mondes peuplés de façon
+ * reproductible.
+ *
+ * @author srodr
+ */
+final class MondesBench {
+
+    /**
+     * Graine de tous les mondes des benchmarks
+     */
+    static final long GRAINE = 42L;
+
+    private MondesBench() {
+    }
+
+    /**
+     * Côté d'un monde dont un quart des cases accueille une créature.
+     *
+     * @param population nombre de créatures
+     * @return dimension du monde
+     */
+    static int taille(int population) {
+        return Math.max(10, (int) Math.ceil(Math.sqrt(4.0 * population)));
+    }
+
+    /**
+     * Crée un monde peuplé de créatures et d'un objet pour quatre créatures.
+     *
+     * @param population nombre de créatures
+     * @return le monde généré
+     */
+    static World monde(int population) {
+        World monde = new World(GRAINE, taille(population));
+        monde.creerMondeAlea(population, population / 4);
+        return monde;
+    }
+}
@@ -0,0 +1,287 @@
+package org.centrale.objet.woe.projettp;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * La classe {@code AcquisitionCibles} trouve, pour chaque attaquant d'une
+ * tuile, les créatures à sa portée d'attaque.
+ * <p>
+ * Avant de traiter une tuile, le {@link MoteurTuiles} relève une fois les
+ * créatures vivantes de la tuile élargie de la portée maximale
+ * ({@link #preparer}) : leurs coordonnées sont rangées dans deux tableaux
+ * d'entiers, ligne par ligne, avec le début de chaque ligne. Pendant les
+ * analyses, la grille ne change pas (dégâts et déplacements sont différés),
+ * ce relevé reste donc exact. Les cibles d'un attaquant
+ * ({@link #ciblesDansCarre}) sont alors sélectionnées parmi les lignes de
+ * son carré de portée, sans relire la grille case par case.
+ * </p>
+ *
+ * <p>
+ * Si le programme a été compilé avec le profil Maven {@code vectoriel} et que
+ * le module {@code jdk.incubator.vector} est chargé (option
+ * {@code --add-modules jdk.incubator.vector}), la sélection compare des blocs
+ * entiers de coordonnées aux bornes du carré ({@code SelectionVectorielle},
+ * chargée par son nom) ; sinon, elle utilise le noyau scalaire de
+ * {@link Point2D}. Les deux voies
+ * retiennent les mêmes créatures, dans l'ordre où la grille les donnerait
+ * (ligne par ligne), si bien que les tirages qui en dépendent ne changent
+ * pas.
+ * </p>
+ *
+ * <p>
+ * Chaque thread du moteur a son propre relevé ({@link #ciblesAPortee}) ; une
+ * analyse faite hors d'une tuile relevée interroge la grille directement.
+ * </p>
+ *
+ * @author srodr
+ */
+public final class AcquisitionCibles {
+
+    // ================= NOYAU =================
+    /**
+     * Sélection des indices situés dans un carré de Chebyshev, avec la
+     * signature de
+     * {@link Point2D#selectionnerDansCarre(int, int, int[], int[], int, int, int, int[])}.
+     */
+    @FunctionalInterface
+    interface NoyauSelection {
+
+        int selectionnerDansCarre(int ox, int oy, int[] xs, int[] ys, int debut, int fin, int rayon, int[] indices);
+    }
+
+    // ================= ATTRIBUTS =================
+    /**
+     * Nom du noyau vectoriel, compilé seulement avec le profil
+     * {@code vectoriel}
+     */
+    private static final String CLASSE_VECTORIELLE = "org.centrale.objet.woe.projettp.SelectionVectorielle";
+
+    private static final NoyauSelection SCALAIRE = Point2D::selectionnerDansCarre;
+
+    /**
+     * Noyau vectoriel, ou {@code null} s'il n'est pas utilisable
+     */
+    private static final NoyauSelection VECTORIEL = chargerVectoriel();
+
+    /**
+     * {@code true} si le noyau vectoriel est compilé, que le module
+     * {@code jdk.incubator.vector} est chargé et que la propriété
+     * {@code woe.scalaire} n'est pas activée
+     */
+    public static final boolean VECTORIEL_DISPONIBLE = VECTORIEL != null;
+
+    /**
+     * Relevé propre à chaque thread
+     */
+    private static final ThreadLocal<AcquisitionCibles> RELEVE = ThreadLocal.withInitial(AcquisitionCibles::new);
+
+    /**
+     * Noyau de sélection : par blocs vectoriels ou case par case
+     */
+    private final NoyauSelection noyau;
+
+    /**
+     * Fenêtre relevée (bornes incluses), vide si {@code x1 < x0}
+     */
+    private int x0;
+    private int y0;
+    private int x1 = -1;
+    private int y1 = -1;
+
+    /**
+     * Nombre de créatures relevées
+     */
+    private int nb;
+
+    private int[] xs = new int[64];
+    private int[] ys = new int[64];
+    private Creature[] candidats = new Creature[64];
+
+    /**
+     * Indice de la première créature de chaque ligne de la fenêtre (une
+     * entrée de plus que de lignes)
+     */
+    private int[] debutLigne = new int[1];
+
+    /**
+     * Indices retenus par la dernière sélection
+     */
+    private int[] retenus = new int[64];
+
+    // ================= CONSTRUCTEURS =================
+    /**
+     * Construit un relevé vide, vectoriel si le module est disponible.
+     */
+    public AcquisitionCibles() {
+        this(VECTORIEL_DISPONIBLE);
+    }
+
+    /**
+     * Construit un relevé vide en choisissant la voie de sélection (bancs
+     * d'essai).
+     *
+     * @param vectoriel {@code true} pour la voie vectorielle, ignoré si le
+     * module n'est pas disponible
+     */
+    AcquisitionCibles(boolean vectoriel) {
+        this.noyau = vectoriel && VECTORIEL_DISPONIBLE ? VECTORIEL : SCALAIRE;
+    }
+
+    /**
+     * Charge le noyau vectoriel s'il a été compilé et que la JVM a chargé le
+     * module incubateur.
+     *
+     * @return le noyau, ou {@code null} pour s'en tenir à la voie scalaire
+     */
+    private static NoyauSelection chargerVectoriel() {
+        if (Boolean.getBoolean("woe.scalaire") || ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            return (NoyauSelection) Class.forName(CLASSE_VECTORIELLE).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null; // compilé sans le profil vectoriel
+        }
+    }
+
+    // ================= RELEVÉ =================
+    /**
+     * Relève les créatures vivantes d'une fenêtre de la grille, ligne par
+     * ligne.
+     *
+     * @param grille grille d'occupation du monde
+     * @param xMin abscisse minimale de la fenêtre
+     * @param yMin ordonnée minimale de la fenêtre
+     * @param xMax abscisse maximale de la fenêtre (incluse)
+     * @param yMax ordonnée maximale de la fenêtre (incluse)
+     */
+    public void preparer(GrilleOccupation grille, int xMin, int yMin, int xMax, int yMax) {
+        oublier();
+        x0 = Math.max(0, xMin);
+        y0 = Math.max(0, yMin);
+        x1 = Math.min(grille.getTaille() - 1, xMax);
+        y1 = Math.min(grille.getTaille() - 1, yMax);
+        int nbLignes = Math.max(0, y1 - y0 + 1);
+        if (debutLigne.length < nbLignes + 1) {
+            debutLigne = new int[nbLignes + 1];
+        }
+        for (int y = y0; y <= y1; y++) {
+            debutLigne[y - y0] = nb;
+            for (int x = x0; x <= x1; x++) {
+                Creature c = grille.getCreature(x, y);
+                if (c != null && c.isEtat()) {
+                    ajouter(c, x, y);
+                }
+            }
+        }
+        debutLigne[nbLignes] = nb;
+    }
+
+    /**
+     * Oublie le relevé en cours (fin de la tuile).
+     */
+    public void oublier() {
+        Arrays.fill(candidats, 0, nb, null);
+        nb = 0;
+        x1 = x0 - 1;
+        y1 = y0 - 1;
+    }
+
+    /**
+     * Indique si le carré de portée d'un attaquant, limité au monde, est
+     * entièrement relevé.
+     *
+     * @param cx abscisse de l'attaquant
+     * @param cy ordonnée de l'attaquant
+     * @param rayon portée d'attaque
+     * @param taille dimension du monde
+     * @return {@code true} si {@link #ciblesDansCarre} peut répondre
+     */
+    public boolean couvre(int cx, int cy, int rayon, int taille) {
+        return Math.max(0, cx - rayon) >= x0 && Math.min(taille - 1, cx + rayon) <= x1
+                && Math.max(0, cy - rayon) >= y0 && Math.min(taille - 1, cy + rayon) <= y1;
+    }
+
+    // ================= SÉLECTION =================
+    /**
+     * Ajoute à {@code resultat} les créatures relevées situées dans le carré
+     * de Chebyshev de demi-côté {@code rayon} autour de {@code (cx, cy)},
+     * ligne par ligne, en omettant l'attaquant lui-même. Le carré doit être
+     * couvert par le relevé ({@link #couvre}).
+     *
+     * @param cx abscisse de l'attaquant
+     * @param cy ordonnée de l'attaquant
+     * @param rayon portée d'attaque
+     * @param soi attaquant, exclu des cibles
+     * @param resultat liste recevant les cibles
+     * @return le nombre de cibles ajoutées
+     */
+    public int ciblesDansCarre(int cx, int cy, int rayon, Creature soi, List<? super Creature> resultat) {
+        int debut = debutLigne[Math.max(y0, cy - rayon) - y0];
+        int fin = debutLigne[Math.min(y1, cy + rayon) - y0 + 1];
+        if (retenus.length < fin - debut) {
+            retenus = new int[Math.max(fin - debut, 2 * retenus.length)];
+        }
+        int k = noyau.selectionnerDansCarre(cx, cy, xs, ys, debut, fin, rayon, retenus);
+        int ajoutees = 0;
+        for (int i = 0; i < k; i++) {
+            Creature c = candidats[retenus[i]];
+            if (c != soi) {
+                resultat.add(c);
+                ajoutees++;
+            }
+        }
+        return ajoutees;
+    }
+
+    /**
+     * Retourne les créatures vivantes à portée d'attaque d'une créature
+     * (carré de Chebyshev de demi-côté {@code distAttMax}, elle-même exclue),
+     * dans le tampon de zone du thread ({@link GrilleOccupation#tamponZone()}).
+     * <p>
+     * Le relevé de la tuile en cours est utilisé s'il couvre le carré ; sinon
+     * la grille est interrogée directement. Le résultat est le même.
+     * </p>
+     *
+     * @param grille grille d'occupation du monde
+     * @param attaquant créature qui cherche ses cibles
+     * @return les cibles, à exploiter avant la prochaine requête du thread
+     */
+    public static List<Creature> ciblesAPortee(GrilleOccupation grille, Creature attaquant) {
+        List<Creature> cibles = GrilleOccupation.tamponZone();
+        int cx = attaquant.getPos().getX();
+        int cy = attaquant.getPos().getY();
+        int rayon = attaquant.getDistAttMax();
+        AcquisitionCibles releve = RELEVE.get();
+        if (releve.couvre(cx, cy, rayon, grille.getTaille())) {
+            releve.ciblesDansCarre(cx, cy, rayon, attaquant, cibles);
+        } else {
+            grille.creaturesDansZone(FormeZone.CARRE, cx, cy, rayon, Creature.class, cibles);
+            cibles.remove(attaquant);
+        }
+        return cibles;
+    }
+
+    /**
+     * @return le relevé du thread appelant
+     */
+    static AcquisitionCibles releve() {
+        return RELEVE.get();
+    }
+
+    /**
+     * Ajoute une créature au relevé, en agrandissant les colonnes au besoin.
+     */
+    private void ajouter(Creature c, int x, int y) {
+        if (nb == xs.length) {
+            int capacite = 2 * nb;
+            xs = Arrays.copyOf(xs, capacite);
+            ys = Arrays.copyOf(ys, capacite);
+            candidats = Arrays.copyOf(candidats, capacite);
+        }
+        xs[nb] = x;
+        ys[nb] = y;
+        candidats[nb++] = c;
+    }
+}
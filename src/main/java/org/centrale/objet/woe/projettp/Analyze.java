@@ -4,8 +4,8 @@
  */
 package org.centrale.objet.woe.projettp;
 
+import java.util.Collection;
 import java.util.List;
-import java.util.Set;
 
 /**
  *
@@ -13,6 +13,6 @@ import java.util.Set;
  */
 public interface Analyze {
     
-    public void analyzer(Set<Point2D> positionWorld, List<Creature> creatures, List<Objet> objets, int tailleMonde);
+    public void analyzer(GrilleOccupation grille, List<Creature> creatures, Collection<Objet> objets, int tailleMonde);
     
 }
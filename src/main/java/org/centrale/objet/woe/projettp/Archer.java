@@ -5,8 +5,6 @@
 package org.centrale.objet.woe.projettp;
 
 import java.util.List;
-import java.util.Random;
-import java.util.Set;
 
 /**
  * La classe {@code Archer} représente un personnage spécialisé dans l’attaque à
@@ -89,123 +87,34 @@ public class Archer extends Personnage implements Combattant {
     /**
      * Permet à l’archer d’attaquer une créature cible.
      * <p>
-     * Vérifie d’abord si la cible est à portée et vivante, puis lance un jet
-     * d’attaque. La défense de la cible est également prise en compte pour
-     * déterminer les dégâts subis. Si la créature meurt, elle est retirée du
-     * monde.
+     * Sur une case voisine, l’archer frappe au corps à corps (10 points de
+     * dégâts, coup parable). Plus loin et dans sa portée, il tire une flèche,
+     * que la cible ne peut pas parer. L’échange est résolu par le
+     * {@link ResolveurCombat}.
      * </p>
      *
      * @param c La créature ciblée
-     * @param positionWorld L’ensemble des positions occupées dans le monde
+     * @param grille La grille d’occupation du monde
      */
     
     @Override
-    public void combattre(Creature c, Set<Point2D> positionWorld, List<Creature> creatures) {
-        // Quitter si aucune flèche restante ou si la cible est déjà morte
+    public void combattre(Creature c, GrilleOccupation grille, List<Creature> creatures) {
+        // Quitter si l’archer ou la cible est déjà mort
         if (!this.isEtat() || !c.isEtat()) {
             return;
         }
 
-        // Vérifie si la cible est à portée d’attaque et est encore en vie
-        if (this.getPos().distance(c.getPos()) <= (Math.sqrt(2))) {
-
-            System.out.println();
-            System.out.println("=============COMBAT CORPS A CORPS=============");
-            System.out.println("Attaquant : " + this.getNom());
+        if (this.getPos().distanceChebyshev(c.getPos()) <= 1) {
+            // Corps à corps : case voisine
             this.setDegAtt(10);
-            System.out.println("Pt attaque corp a corp : " + this.getDegAtt());
-            System.out.println("Defenseur : " + c.getNom());
-            System.out.println("==========================");
-            System.out.println();
-
-            if (jeuDeAtt()) {
-                System.out.println("Attaque reussie");
-
-                if (jeuDeDe(c)) {
-                    System.out.println("Defense reussie");
-
-                    if (c.getPtPar() <= 0) {
-                        int e_vie = c.getPtVie() - this.getDegAtt();
-                        c.setPtVie(e_vie);
-                    } else {
-                        int e_def = c.getPtPar() - this.getDegAtt();
-                        if (e_def <= 0) {
-                            c.setPtPar(0);
-                            int e_vie = c.getPtVie() + e_def;
-                            c.setPtVie(e_vie);
-                        } else {
-                            c.setPtPar(e_def);
-                        }
-                    }
-
-                } else {
-                    int e_vie = c.getPtVie() - this.getDegAtt();
-                    c.setPtVie(e_vie);
-                }
-
-            }
-
-        } else if (this.getPos().distance(c.getPos()) <= (this.getDistAttMax() * Math.sqrt(2))
-                && this.getPos().distance(c.getPos()) > (Math.sqrt(2)) && this.getNbFleches() > 0 ) {
-
-            System.out.println();
-            System.out.println("=============COMBAT A DISTANCE=============");
-            System.out.println("Attaquant : " + this.getNom());
-            System.out.println("Defenseur : " + c.getNom());
-            System.out.println("==========================");
-            System.out.println();
-
-            if (jeuDeAtt()) {
-                System.out.println("Attaque reussie");
-                int e_vie = c.getPtVie() - this.getDegAtt();
-                c.setPtVie(e_vie);
-            } else {
-                System.out.println("Attaque ratee");
-            }
-
-            int arrows = this.getNbFleches() - 1;
-            this.setNbFleches(arrows);
+            ResolveurCombat.engager(this, c, 1, this.getDegAtt(), true, getAlea(), grille.getCommandes());
 
+        } else if (this.getNbFleches() > 0
+                && ResolveurCombat.engager(this, c, this.getDistAttMax(), this.getDegAtt(), false, getAlea(),
+                        grille.getCommandes()) != ResolveurCombat.HORS_PORTEE) {
+            // Tir : une flèche est consommée, touchée ou non
+            this.setNbFleches(this.getNbFleches() - 1);
         }
-
-        System.out.println();
-        System.out.println("=============RESULTATS=============");
-        System.out.println("Points de vie de " + c.getNom() + " : " + c.getPtVie());
-        System.out.println("Points de defense de " + c.getNom() + " : " + c.getPtPar());
-        System.out.println("Fleches restantes : " + this.getNbFleches());
-        System.out.println("==========================");
-        System.out.println();
-
-        if (c.getPtVie() <= 0) {
-            System.out.println();
-            System.out.println("**** " + c.getNom() + " a ete vaincu. ****");
-            System.out.println();
-            c.mourir(positionWorld,creatures);
-        }
-
-    }
-
-    /**
-     * Détermine si l’archer réussit son attaque en fonction de son pourcentage
-     * de réussite.
-     *
-     * @return {@code true} si l’attaque réussit, {@code false} sinon
-     */
-    public boolean jeuDeAtt() {
-        Random n = new Random();
-        return n.nextInt(100) < this.getPageAtt();
-    }
-
-    /**
-     * Détermine si la créature ciblée réussit à se défendre en fonction de son
-     * pourcentage de parade.
-     *
-     * @param c La créature qui tente de se défendre
-     * @return {@code true} si la défense réussit, {@code false} sinon
-     */
-    public boolean jeuDeDe(Creature c) {
-        Random n = new Random();
-        return n.nextInt(100) < c.getPagePar();
     }
 
     /**
@@ -218,4 +127,11 @@ public class Archer extends Personnage implements Combattant {
         System.out.println("Le nbr de fleches : " + this.nbFleches);
     }
 
+    /**
+     * @return le symbole d'un archer sur la carte
+     */
+    @Override
+    public char getSymbole() {
+        return 'A';
+    }
 }
@@ -0,0 +1,162 @@
+package org.centrale.objet.woe.projettp;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Banc de mesure du coût d'un tour en fonction de la taille du monde, de la
+ * population et de la proportion d'objets.
+ * <p>
+ * Pour chaque point du balayage (taille de 20 à 10 000, population de 40 à
+ * un million, 0, 0,5 ou 1 objet par créature), un monde est généré par
+ * {@link World#creerMondeAlea(int, int)}, quelques tours sont joués à vide
+ * pour chauffer le JIT, puis une série de tours est mesurée par la
+ * {@link SimulationAutonome}. Les points où créatures et objets occuperaient
+ * plus de la moitié des cases sont sautés.
+ * </p>
+ *
+ * <p>
+ * Chaque ligne du fichier CSV (séparateur {@code ;}) donne notamment le
+ * temps par élément et par tour, les octets alloués par tour, le débit
+ * d'allocation et le pic de tas. Un temps par élément qui augmente avec la
+ * population à taille fixe signale un coût superlinéaire.
+ * </p>
+ * <pre>
+ * BancEchelle [fichier.csv] [population maximale] [threads]
+ * </pre>
+ *
+ * @author srodr
+ */
+public class BancEchelle {
+
+    /**
+     * Graine commune à tous les points, pour comparer des mondes identiques
+     * d'une exécution à l'autre
+     */
+    private static final long GRAINE = 42L;
+
+    /**
+     * Tailles de monde testées
+     */
+    private static final int[] TAILLES = {20, 100, 1000, 10000};
+
+    /**
+     * Populations testées
+     */
+    private static final int[] POPULATIONS = {40, 1000, 10_000, 100_000, 1_000_000};
+
+    /**
+     * Nombre d'objets par créature
+     */
+    private static final double[] OBJETS_PAR_CREATURE = {0, 0.5, 1};
+
+    /**
+     * Tours joués avant la mesure
+     */
+    private static final int TOURS_CHAUFFE = 5;
+
+    /**
+     * Nombre d'éléments mis à jour visé par point (borne le nombre de tours)
+     */
+    private static final long MISES_A_JOUR_VISEES = 5_000_000L;
+
+    private static final String ENTETE = "taille;creatures;objets;threads;tours;nsParEntiteTour;nsParTour;"
+            + "p99NsParTour;octetsParTour;mioAllouesParSeconde;picTasMio;vivantesFin";
+
+    /**
+     * Lance le balayage.
+     *
+     * @param args fichier de sortie, population maximale, nombre de threads
+     * @throws IOException si le fichier ne peut pas être écrit
+     */
+    public static void main(String[] args) throws IOException {
+        Path fichier = Path.of(args.length > 0 ? args[0] : "echelle.csv");
+        int populationMax = args.length > 1 ? Integer.parseInt(args[1]) : Integer.MAX_VALUE;
+        int nbThreads = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+
+        try (PrintWriter csv = new PrintWriter(Files.newBufferedWriter(fichier))) {
+            csv.println(ENTETE);
+            System.out.println(ENTETE);
+            for (int taille : TAILLES) {
+                for (int population : POPULATIONS) {
+                    for (double ratio : OBJETS_PAR_CREATURE) {
+                        int objets = (int) Math.round(population * ratio);
+                        if (population > populationMax || (long) population + objets > (long) taille * taille / 2) {
+                            continue;
+                        }
+                        String ligne = mesurer(taille, population, objets, nbThreads);
+                        csv.println(ligne);
+                        csv.flush();
+                        System.out.println(ligne);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Mesure un point du balayage.
+     *
+     * @return la ligne CSV correspondante
+     */
+    private static String mesurer(int taille, int population, int objets, int nbThreads) {
+        World monde = new World(GRAINE, taille);
+        monde.setParallelisme(nbThreads);
+        monde.creerMondeAlea(population, objets);
+        SimulationAutonome simulation = new SimulationAutonome(monde, null);
+        simulation.executer(TOURS_CHAUFFE);
+
+        int tours = (int) Math.max(5, Math.min(200, MISES_A_JOUR_VISEES / Math.max(1, population + objets)));
+        System.gc();
+        List<MemoryPoolMXBean> pools = poolsDuTas();
+        pools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        long allouesAvant = octetsAlloues();
+
+        SimulationAutonome.Rapport rapport = simulation.executer(tours);
+
+        long alloues = octetsAlloues() - allouesAvant;
+        long picTas = 0;
+        for (MemoryPoolMXBean pool : pools) {
+            picTas += pool.getPeakUsage().getUsed();
+        }
+        double nsParTour = (double) rapport.getDureeTotale() / tours;
+        return String.format(Locale.ROOT, "%d;%d;%d;%d;%d;%.2f;%.0f;%d;%d;%.1f;%.1f;%d",
+                taille, population, objets, nbThreads, tours,
+                (double) rapport.getDureeTotale() / Math.max(1, rapport.getMisesAJour()),
+                nsParTour, rapport.centile(99), alloues / tours,
+                alloues / (1024.0 * 1024.0) / (rapport.getDureeTotale() / 1e9),
+                picTas / (1024.0 * 1024.0), monde.getReserve().compterVivantes());
+    }
+
+    /**
+     * @return les zones mémoire du tas
+     */
+    private static List<MemoryPoolMXBean> poolsDuTas() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(p -> p.getType() == MemoryType.HEAP && p.isValid())
+                .toList();
+    }
+
+    /**
+     * Octets alloués depuis le démarrage par tous les threads vivants, ou 0
+     * si la JVM ne sait pas les compter.
+     */
+    private static long octetsAlloues() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported()) {
+            long total = 0;
+            for (long octets : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+                total += Math.max(0, octets);
+            }
+            return total;
+        }
+        return 0;
+    }
+}
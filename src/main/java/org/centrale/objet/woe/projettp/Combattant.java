@@ -5,7 +5,6 @@
 package org.centrale.objet.woe.projettp;
 
 import java.util.List;
-import java.util.Set;
 
 /**
  * Interface {@code Combattant} définissant le comportement de tout élément
@@ -13,7 +12,7 @@ import java.util.Set;
  * <p>
  * Les classes qui implémentent cette interface (comme {@link Guerrier},
  * {@link Archer}, {@link Loup} ou {@link NuageToxique}) doivent fournir
- * leur propre implémentation de la méthode {@link #combattre(Creature, Set)},
+ * leur propre implémentation de la méthode {@link #combattre(Creature, GrilleOccupation, List)},
  * décrivant la manière dont elles attaquent une cible et interagissent
  * avec la carte du monde (ex. suppression d'une créature morte, mise à jour
  * des positions, effets de zone, etc.).
@@ -23,7 +22,7 @@ import java.util.Set;
  * <ul>
  *   <li>Uniformiser la logique de combat entre différentes entités du jeu.</li>
  *   <li>Gérer les effets des combats directement dans le contexte du monde 
- *       (via {@code positionWorld}).</li>
+ *       (via la {@link GrilleOccupation}).</li>
  *   <li>Encourager le polymorphisme : chaque type d’entité combat à sa manière
  *       (corps à corps, distance, effet de zone, etc.).</li>
  * </ul>
@@ -39,9 +38,8 @@ import java.util.Set;
  *
  * <h3>Exemple d’utilisation :</h3>
  * <pre>{@code
- * Set<Point2D> positions = new HashSet<>();
- * positions.add(new Point2D(2, 3));
- * positions.add(new Point2D(3, 3));
+ * GrilleOccupation grille = new GrilleOccupation(20);
+ * List<Creature> creatures = new ArrayList<>();
  *
  * Combattant guerrier = new Guerrier(
  *     "Bjorn", true, 120, 15, 10, 70, 40, 
@@ -53,7 +51,11 @@ import java.util.Set;
  *     new Point2D(3, 3), 1, 2
  * );
  * 
- * guerrier.combattre(loup, positions); // Le guerrier attaque et met à jour le monde
+ * grille.placer((Creature) guerrier);
+ * grille.placer(loup);
+ * creatures.add(loup);
+ *
+ * guerrier.combattre(loup, grille, creatures); // Le guerrier attaque et met à jour le monde
  * }</pre>
  *
  * @author hayta
@@ -71,13 +73,13 @@ public interface Combattant {
      *   <li>Calcul des chances de réussite de l’attaque (probabilités, distance, etc.).</li>
      *   <li>Calcul des dégâts infligés et gestion de la parade.</li>
      *   <li>Réduction des points de vie de la cible ou suppression de celle-ci si elle meurt.</li>
-     *   <li>Interaction avec {@code positionWorld} pour refléter les changements sur la carte.</li>
+     *   <li>Interaction avec la {@code grille} pour refléter les changements sur la carte.</li>
      * </ul>
      * </p>
      *
      * @param c la créature cible de l’attaque (instance de {@link Creature})
-     * @param positionWorld l’ensemble des positions actuellement occupées dans le monde du jeu
+     * @param grille la grille d’occupation des cases du monde du jeu
      * @param creatures
      */
-    void combattre(Creature c, Set<Point2D> positionWorld, List<Creature> creatures);
+    void combattre(Creature c, GrilleOccupation grille, List<Creature> creatures);
 }
@@ -0,0 +1,40 @@
+package org.centrale.objet.woe.projettp;
+
+import java.util.Scanner;
+
+/**
+ * Choix du joueur lus sur l'entrée standard.
+ * <p>
+ * Un seul {@link Scanner} est partagé par toute l'application : en créer un
+ * nouveau à chaque lecture perdrait les entrées déjà mises en tampon (par
+ * exemple quand les choix arrivent par un tube).
+ * </p>
+ *
+ * @author srodr
+ */
+public class CommandesConsole implements SourceCommandes {
+
+    /**
+     * Lecteur partagé de l'entrée standard
+     */
+    private static final Scanner SCANNER = new Scanner(System.in);
+
+    @Override
+    public int lireEntier() {
+        return SCANNER.nextInt();
+    }
+
+    @Override
+    public String lireMot() {
+        return SCANNER.next();
+    }
+
+    /**
+     * La console n'est jamais considérée comme épuisée : la lecture attend le
+     * joueur.
+     */
+    @Override
+    public boolean estEpuisee() {
+        return false;
+    }
+}
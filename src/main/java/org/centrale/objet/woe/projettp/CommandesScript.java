@@ -0,0 +1,99 @@
+package org.centrale.objet.woe.projettp;
+
+import java.util.Arrays;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+
+/**
+ * Suite de choix du joueur fixée à l'avance.
+ * <p>
+ * Les choix sont les mêmes mots que ceux tapés dans les menus de la console :
+ * des numéros, ou un nom. Une fois la suite épuisée, le {@link Joueur} ne
+ * joue plus et le monde continue sans lui.
+ * </p>
+ *
+ * @author srodr
+ */
+public class CommandesScript implements SourceCommandes {
+
+    // ================= ATTRIBUTS =================
+    /**
+     * Choix à rejouer, dans l'ordre
+     */
+    private final String[] choix;
+
+    /**
+     * Indice du prochain choix
+     */
+    private int suivant;
+
+    // ================= CONSTRUCTEURS =================
+    /**
+     * Construit une source à partir des choix donnés.
+     *
+     * @param choix choix successifs du joueur
+     */
+    public CommandesScript(int... choix) {
+        this.choix = Arrays.stream(choix).mapToObj(String::valueOf).toArray(String[]::new);
+        this.suivant = 0;
+    }
+
+    /**
+     * Construit une source à partir des mots donnés.
+     *
+     * @param choix choix successifs du joueur, numéros ou noms
+     */
+    public CommandesScript(String... choix) {
+        this.choix = Arrays.copyOf(choix, choix.length);
+        this.suivant = 0;
+    }
+
+    /**
+     * Construit une source à partir d'un texte de mots séparés par des
+     * espaces ou des virgules (par exemple {@code "1 4, 1 4, 5"}).
+     *
+     * @param texte choix successifs du joueur
+     * @return la source correspondante
+     */
+    public static CommandesScript depuisTexte(String texte) {
+        String nettoye = texte.trim();
+        if (nettoye.isEmpty()) {
+            return new CommandesScript(new String[0]);
+        }
+        return new CommandesScript(nettoye.split("[\\s,]+"));
+    }
+
+    // ================= MÉTHODES =================
+    /**
+     * Lit le prochain choix ; comme la console, un mot qui n'est pas un
+     * nombre n'est pas consommé.
+     *
+     * @throws InputMismatchException si le prochain mot n'est pas un nombre
+     */
+    @Override
+    public int lireEntier() {
+        if (suivant >= choix.length) {
+            throw new NoSuchElementException("Plus de choix dans le script du joueur");
+        }
+        try {
+            int valeur = Integer.parseInt(choix[suivant]);
+            suivant++;
+            return valeur;
+        } catch (NumberFormatException e) {
+            throw new InputMismatchException("Choix non numérique : " + choix[suivant]);
+        }
+    }
+
+    @Override
+    public String lireMot() {
+        if (suivant >= choix.length) {
+            throw new NoSuchElementException("Plus de choix dans le script du joueur");
+        }
+        return choix[suivant++];
+    }
+
+    @Override
+    public boolean estEpuisee() {
+        return suivant >= choix.length;
+    }
+}
@@ -0,0 +1,90 @@
+package org.centrale.objet.woe.projettp;
+
+import java.io.PrintStream;
+import java.util.function.LongFunction;
+
+/**
+ * Consommateur qui écrit les événements en clair, une ligne par événement.
+ * <p>
+ * Les lignes sont accumulées puis écrites d'un bloc à la fin de chaque lot.
+ * Les noms sont retrouvés à partir des identifiants par un résolveur, par
+ * exemple {@link World#nomDe(long)}.
+ * </p>
+ *
+ * @author srodr
+ */
+public class ConsoleEvenements implements ConsommateurEvenements {
+
+    // ================= ATTRIBUTS =================
+    private final PrintStream sortie;
+    private final LongFunction<String> noms;
+    private final StringBuilder tampon;
+
+    // ================= CONSTRUCTEURS =================
+    /**
+     * Construit un consommateur écrivant sur la sortie standard.
+     *
+     * @param noms résolveur des noms à partir des identifiants
+     */
+    public ConsoleEvenements(LongFunction<String> noms) {
+        this(System.out, noms);
+    }
+
+    /**
+     * Construit un consommateur écrivant sur un flux donné.
+     *
+     * @param sortie flux de sortie
+     * @param noms résolveur des noms à partir des identifiants
+     */
+    public ConsoleEvenements(PrintStream sortie, LongFunction<String> noms) {
+        this.sortie = sortie;
+        this.noms = noms;
+        this.tampon = new StringBuilder(4096);
+    }
+
+    // ================= MÉTHODES =================
+    @Override
+    public void consommer(TypeEvenement type, long acteur, long cible, int valeur, int x, int y) {
+        switch (type) {
+            case TOUR -> {
+                return; // l’en-tête du tour est déjà affiché par le monde
+            }
+            case DEPLACEMENT ->
+                tampon.append(noms.apply(acteur)).append(" se déplace en (").append(x).append(", ").append(y).append(").");
+            case BLOCAGE ->
+                tampon.append(noms.apply(acteur)).append(" ne peut pas se déplacer : aucune case libre.");
+            case ATTAQUE ->
+                tampon.append(noms.apply(acteur)).append(" touche ").append(noms.apply(cible))
+                        .append(" : il lui reste ").append(valeur).append(" points de vie.");
+            case PARADE ->
+                tampon.append(noms.apply(cible)).append(" pare l'attaque de ").append(noms.apply(acteur))
+                        .append(" : il lui reste ").append(valeur).append(" points de vie.");
+            case ECHEC ->
+                tampon.append(noms.apply(acteur)).append(" rate son attaque sur ").append(noms.apply(cible)).append('.');
+            case NUAGE ->
+                tampon.append("Le nuage toxique \"").append(noms.apply(acteur)).append("\" affecte ").append(noms.apply(cible))
+                        .append(" : il lui reste ").append(valeur).append(" points de vie.");
+            case MORT ->
+                tampon.append("**** ").append(noms.apply(acteur)).append(" a ete vaincu en (").append(x).append(", ").append(y).append("). ****");
+            case RAMASSAGE ->
+                tampon.append(noms.apply(acteur)).append(" ramasse ").append(noms.apply(cible)).append('.');
+            case EXPIRATION -> {
+                if (acteur == cible) {
+                    tampon.append("Le nuage toxique \"").append(noms.apply(acteur)).append("\" se dissipe.");
+                } else {
+                    tampon.append("L'effet de ").append(noms.apply(cible)).append(" sur ").append(noms.apply(acteur)).append(" prend fin.");
+                }
+            }
+        }
+        tampon.append(System.lineSeparator());
+    }
+
+    @Override
+    public void terminerLot() {
+        if (tampon.length() > 0) {
+            sortie.print(tampon);
+            sortie.flush();
+            tampon.setLength(0);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package org.centrale.objet.woe.projettp;
+
+/**
+ * Destinataire des événements du {@link JournalEvenements}.
+ * <p>
+ * Toutes les méthodes sont appelées par le seul thread du journal, jamais par
+ * les threads qui simulent le monde : un consommateur n'a donc pas besoin
+ * d'être synchronisé.
+ * </p>
+ *
+ * @author srodr
+ */
+public interface ConsommateurEvenements {
+
+    /**
+     * Consommateur qui ignore tout. L'installer désactive le journal : les
+     * événements ne sont même plus enregistrés.
+     */
+    public static final ConsommateurEvenements AUCUN = (type, acteur, cible, valeur, x, y) -> {
+    };
+
+    /**
+     * Reçoit un événement.
+     *
+     * @param type type de l'événement
+     * @param acteur identifiant de l'acteur
+     * @param cible identifiant de la cible (0 si aucune)
+     * @param valeur valeur associée (voir {@link TypeEvenement})
+     * @param x abscisse de la case concernée
+     * @param y ordonnée de la case concernée
+     */
+    public void consommer(TypeEvenement type, long acteur, long cible, int valeur, int x, int y);
+
+    /**
+     * Appelée chaque fois que le journal a tout transmis : c'est le moment
+     * d'écrire les tampons.
+     */
+    public default void terminerLot() {
+    }
+
+    /**
+     * Appelée quand le consommateur est remplacé : libère ses ressources.
+     */
+    public default void fermer() {
+    }
+}
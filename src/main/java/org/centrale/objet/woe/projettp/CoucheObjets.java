@@ -0,0 +1,381 @@
+package org.centrale.objet.woe.projettp;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * La classe {@code CoucheObjets} range les objets d'un monde à la fois par
+ * ordre d'apparition et par case.
+ * <p>
+ * C'est une {@link java.util.Collection} : {@link World#ListObjets} en est
+ * une, et la parcourir donne les objets dans l'ordre où ils ont été ajoutés.
+ * Chaque objet connaît son rang dans un tableau ; le retrait laisse un trou,
+ * refermé plus tard par {@link #compacter()}. Ajout, retrait et test
+ * d'appartenance se font donc en temps constant.
+ * </p>
+ *
+ * <p>
+ * Elle sert aussi de couche « objets » à la {@link GrilleOccupation} : chaque
+ * case porte une pile d'objets, chaînée dans les deux sens, dont le sommet est
+ * rangé dans un tableau dense (ou une {@link TablePositions} pour un monde
+ * creux). Trouver l'objet d'une case, en poser un ou en lever un ne dépend
+ * donc ni du nombre d'objets du monde, ni de la hauteur de la pile.
+ * </p>
+ *
+ * <p>
+ * Un objet peut appartenir à la couche sans être posé sur une case (pendant
+ * un déplacement, entre {@link #lever(Objet)} et {@link #poser(Objet)}) : il
+ * garde alors son rang. {@link #remove(Object)} le retire des deux.
+ * </p>
+ *
+ * @author srodr
+ */
+public class CoucheObjets extends AbstractCollection<Objet> {
+
+    // ================= ATTRIBUTS =================
+    /**
+     * Dimension d'un côté du monde
+     */
+    private final int taille;
+
+    /**
+     * Sommet de la pile de chaque case, indexé par {@code y * taille + x}
+     * (monde dense, sinon {@code null})
+     */
+    private final Objet[] sommets;
+
+    /**
+     * Sommets des piles d'un monde creux (sinon {@code null})
+     */
+    private final TablePositions<Objet> sommetsCreux;
+
+    /**
+     * Objets par rang d'apparition ({@code null} : objet retiré)
+     */
+    private Objet[] parRang = new Objet[16];
+
+    /**
+     * Objet situé sous / sur chaque rang dans la pile de sa case
+     */
+    private Objet[] dessous = new Objet[16];
+    private Objet[] dessus = new Objet[16];
+
+    /**
+     * Indique si l'objet de chaque rang est posé sur une case
+     */
+    private boolean[] poses = new boolean[16];
+
+    /**
+     * Nombre de rangs attribués (objets présents et trous)
+     */
+    private int nbRangs;
+
+    /**
+     * Nombre d'objets présents
+     */
+    private int nbObjets;
+
+    // ================= CONSTRUCTEUR =================
+    /**
+     * Construit une couche vide pour un monde de {@code taille × taille}
+     * cases.
+     *
+     * @param taille dimension du monde
+     * @param creuse {@code true} pour ranger les sommets dans une table creuse
+     */
+    public CoucheObjets(int taille, boolean creuse) {
+        this.taille = taille;
+        this.sommets = creuse ? null : new Objet[taille * taille];
+        this.sommetsCreux = creuse ? new TablePositions<>() : null;
+    }
+
+    // ================= COLLECTION =================
+    @Override
+    public int size() {
+        return nbObjets;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Objet objet && rangDe(objet) >= 0;
+    }
+
+    /**
+     * Ajoute un objet à la fin de l'ordre d'apparition et le pose sur la case
+     * de sa position.
+     *
+     * @param o objet à ajouter
+     * @return {@code false} si l'objet était déjà présent
+     */
+    @Override
+    public boolean add(Objet o) {
+        if (contains(o)) {
+            return false;
+        }
+        inscrire(o);
+        poser(o);
+        return true;
+    }
+
+    /**
+     * Retire un objet de sa case et de la couche.
+     *
+     * @param o objet à retirer
+     * @return {@code false} si l'objet n'était pas présent
+     */
+    @Override
+    public boolean remove(Object o) {
+        if (!(o instanceof Objet objet)) {
+            return false;
+        }
+        int r = rangDe(objet);
+        if (r < 0) {
+            return false;
+        }
+        lever(objet);
+        parRang[r] = null;
+        objet.rang = -1;
+        nbObjets--;
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        for (int r = 0; r < nbRangs; r++) {
+            if (parRang[r] != null) {
+                parRang[r].rang = -1;
+            }
+        }
+        Arrays.fill(parRang, 0, nbRangs, null);
+        Arrays.fill(dessous, 0, nbRangs, null);
+        Arrays.fill(dessus, 0, nbRangs, null);
+        Arrays.fill(poses, 0, nbRangs, false);
+        if (sommets != null) {
+            Arrays.fill(sommets, null);
+        } else {
+            sommetsCreux.clear();
+        }
+        nbRangs = 0;
+        nbObjets = 0;
+    }
+
+    /**
+     * Parcourt les objets dans l'ordre d'apparition. Le retrait par
+     * l'itérateur est permis ; l'ajout pendant le parcours ne l'est pas.
+     */
+    @Override
+    public Iterator<Objet> iterator() {
+        return new Iterator<>() {
+            private int suivant = avancer(0);
+            private Objet dernier;
+
+            private int avancer(int r) {
+                while (r < nbRangs && parRang[r] == null) {
+                    r++;
+                }
+                return r;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return suivant < nbRangs;
+            }
+
+            @Override
+            public Objet next() {
+                if (suivant >= nbRangs) {
+                    throw new NoSuchElementException();
+                }
+                dernier = parRang[suivant];
+                suivant = avancer(suivant + 1);
+                return dernier;
+            }
+
+            @Override
+            public void remove() {
+                if (dernier == null) {
+                    throw new IllegalStateException();
+                }
+                CoucheObjets.this.remove(dernier);
+                dernier = null;
+            }
+        };
+    }
+
+    /**
+     * Prépare la place de {@code capacite} objets, avant un ajout en masse.
+     *
+     * @param capacite nombre total d'objets attendus
+     */
+    public void assurerCapacite(int capacite) {
+        if (capacite > parRang.length) {
+            parRang = Arrays.copyOf(parRang, capacite);
+            dessous = Arrays.copyOf(dessous, capacite);
+            dessus = Arrays.copyOf(dessus, capacite);
+            poses = Arrays.copyOf(poses, capacite);
+        }
+    }
+
+    // ================= CASES =================
+    /**
+     * Retourne l'objet au sommet de la pile d'une case.
+     *
+     * @param x abscisse
+     * @param y ordonnée
+     * @return l'objet posé en dernier, ou {@code null} si la case est vide
+     */
+    public Objet sommet(int x, int y) {
+        return sommets != null ? sommets[y * taille + x] : sommetsCreux.get(TablePositions.cle(x, y));
+    }
+
+    /**
+     * Ajoute à {@code resultat} tous les objets d'une case, du sommet vers le
+     * bas de la pile.
+     *
+     * @param x abscisse
+     * @param y ordonnée
+     * @param resultat collection recevant les objets
+     */
+    public void pile(int x, int y, Collection<Objet> resultat) {
+        for (Objet o = sommet(x, y); o != null; o = dessous[o.rang]) {
+            resultat.add(o);
+        }
+    }
+
+    /**
+     * Pose un objet au sommet de la pile de la case de sa position ; l'objet
+     * est d'abord ajouté à la couche s'il n'en fait pas partie.
+     *
+     * @param o objet à poser
+     */
+    public void poser(Objet o) {
+        int r = rangDe(o);
+        if (r < 0) {
+            r = inscrire(o);
+        }
+        if (poses[r]) {
+            return;
+        }
+        int x = o.getPos().getX();
+        int y = o.getPos().getY();
+        Objet ancien = sommet(x, y);
+        dessous[r] = ancien;
+        dessus[r] = null;
+        if (ancien != null) {
+            dessus[ancien.rang] = o;
+        }
+        changerSommet(x, y, o);
+        poses[r] = true;
+    }
+
+    /**
+     * Enlève un objet de la pile de sa case sans le retirer de la couche
+     * (l'objet garde son rang).
+     *
+     * @param o objet à lever
+     */
+    public void lever(Objet o) {
+        int r = rangDe(o);
+        if (r < 0 || !poses[r]) {
+            return;
+        }
+        Objet bas = dessous[r];
+        Objet haut = dessus[r];
+        if (haut != null) {
+            dessous[haut.rang] = bas;
+        } else {
+            changerSommet(o.getPos().getX(), o.getPos().getY(), bas);
+        }
+        if (bas != null) {
+            dessus[bas.rang] = haut;
+        }
+        dessous[r] = null;
+        dessus[r] = null;
+        poses[r] = false;
+    }
+
+    /**
+     * Referme les trous laissés par les objets retirés, sans changer l'ordre
+     * d'apparition, dès qu'ils occupent plus du quart des rangs : le coût du
+     * balayage reste proportionnel au nombre de retraits. À ne pas appeler
+     * pendant un parcours.
+     */
+    public void compacter() {
+        if (4 * (nbRangs - nbObjets) > nbRangs) {
+            fermerTrous();
+        }
+    }
+
+    /**
+     * Resserre les objets présents sur les premiers rangs.
+     */
+    private void fermerTrous() {
+        int j = 0;
+        for (int r = 0; r < nbRangs; r++) {
+            Objet o = parRang[r];
+            if (o == null) {
+                continue;
+            }
+            parRang[j] = o;
+            dessous[j] = dessous[r];
+            dessus[j] = dessus[r];
+            poses[j] = poses[r];
+            o.rang = j;
+            j++;
+        }
+        Arrays.fill(parRang, j, nbRangs, null);
+        Arrays.fill(dessous, j, nbRangs, null);
+        Arrays.fill(dessus, j, nbRangs, null);
+        Arrays.fill(poses, j, nbRangs, false);
+        nbRangs = j;
+    }
+
+    /**
+     * Rang d'un objet dans cette couche, ou -1 s'il n'en fait pas partie.
+     */
+    private int rangDe(Objet o) {
+        int r = o.rang;
+        return r >= 0 && r < nbRangs && parRang[r] == o ? r : -1;
+    }
+
+    /**
+     * Attribue un rang à un objet, après avoir refermé les trous ou agrandi
+     * les tableaux si nécessaire.
+     *
+     * @return le rang attribué
+     */
+    private int inscrire(Objet o) {
+        if (nbRangs == parRang.length) {
+            if (2 * nbObjets <= nbRangs) {
+                fermerTrous();
+            } else {
+                int capacite = 2 * parRang.length;
+                parRang = Arrays.copyOf(parRang, capacite);
+                dessous = Arrays.copyOf(dessous, capacite);
+                dessus = Arrays.copyOf(dessus, capacite);
+                poses = Arrays.copyOf(poses, capacite);
+            }
+        }
+        int r = nbRangs++;
+        parRang[r] = o;
+        o.rang = r;
+        nbObjets++;
+        return r;
+    }
+
+    /**
+     * Remplace le sommet de la pile d'une case.
+     */
+    private void changerSommet(int x, int y, Objet o) {
+        if (sommets != null) {
+            sommets[y * taille + x] = o;
+        } else if (o != null) {
+            sommetsCreux.put(TablePositions.cle(x, y), o);
+        } else {
+            sommetsCreux.remove(TablePositions.cle(x, y));
+        }
+    }
+}
@@ -4,9 +4,7 @@
  */
 package org.centrale.objet.woe.projettp;
 
-import java.util.List;
-import java.util.Random;
-import java.util.Set;
+import java.util.SplittableRandom;
 
 /**
  * La classe {@code Creature} représente un être vivant du jeu avec ses
@@ -23,44 +21,23 @@ public class Creature extends ElementDeJeu implements Deplacable {
 
     // ================= ATTRIBUTS =================
     /**
-     * État de la créature (vivant ou mort)
-     */
-    private boolean etat;
-
-    /**
-     * Points de vie de la créature
-     */
-    private int ptVie;
-
-    /**
-     * Dégâts infligés lors d’une attaque
-     */
-    private int degAtt;
-
-    /**
-     * Points de parade permettant de réduire les dégâts reçus
-     */
-    private int ptPar;
-
-    /**
-     * Pourcentage de réussite d’attaque
-     */
-    private int pageAtt;
-
-    /**
-     * Pourcentage de réussite de parade
-     */
-    private int pagePar;
-
-    /**
-     * Distance maximale d’attaque
+     * Réserve contenant les caractéristiques de la créature (état, points de
+     * vie, dégâts, parade, pourcentages, distances et coordonnées).
+     * <p>
+     * Une créature n'est qu'une vue vers l'emplacement {@link #indice} de
+     * cette réserve, position comprise. Construite pendant un chargement du
+     * monde, elle reçoit directement un emplacement de la réserve commune
+     * ({@link ReserveCreatures#ouvrirAccueil(int)}) ; hors d'un monde, elle
+     * possède une réserve à un seul emplacement, que {@link World} recopie
+     * ensuite dans la réserve commune.
+     * </p>
      */
-    private int distAttMax;
+    private ReserveCreatures reserve;
 
     /**
-     * Distance de vision de la créature
+     * Emplacement de la créature dans sa réserve
      */
-    private int distanceVision;
+    private int indice;
 
     // ================= CONSTRUCTEURS =================
     /**
@@ -78,15 +55,11 @@ public class Creature extends ElementDeJeu implements Deplacable {
      * @param distanceVision Distance de vision
      */
     public Creature(String nom, boolean etat, int pVie, int dAtt, int pPar, int paAtt, int paPar, Point2D p, int distAttMax, int distanceVision) {
-        super(nom, p);
-        this.etat = etat;
-        this.ptVie = pVie;
-        this.degAtt = dAtt;
-        this.ptPar = pPar;
-        this.pageAtt = paAtt;
-        this.pagePar = paPar;
-        this.distAttMax = distAttMax;
-        this.distanceVision = distanceVision;
+        super(nom);
+        ReserveCreatures accueil = ReserveCreatures.accueil();
+        this.reserve = accueil != null ? accueil : new ReserveCreatures(1);
+        this.indice = reserve.ajouter(etat, pVie, dAtt, pPar, paAtt, paPar, distAttMax, distanceVision,
+                p == null ? 0 : p.getX(), p == null ? 0 : p.getY());
     }
 
     /**
@@ -95,30 +68,69 @@ public class Creature extends ElementDeJeu implements Deplacable {
      * @param c Créature à copier
      */
     public Creature(Creature c) {
-        super(c);
-        this.etat = c.etat;
-        this.ptVie = c.ptVie;
-        this.degAtt = c.degAtt;
-        this.ptPar = c.ptPar;
-        this.pageAtt = c.pageAtt;
-        this.pagePar = c.pagePar;
-        this.distAttMax = c.distAttMax;
-        this.distanceVision = c.distanceVision;
+        this(c.nom, c.isEtat(), c.getPtVie(), c.getDegAtt(), c.getPtPar(), c.getPageAtt(), c.getPagePar(),
+                c.getPos(), c.getDistAttMax(), c.getDistanceVision());
     }
 
     /**
      * Construit une créature par défaut avec des valeurs prédéfinies.
      */
     public Creature() {
-        super();
-        this.etat = true;
-        this.ptVie = 50;
-        this.degAtt = 5;
-        this.ptPar = 2;
-        this.pageAtt = 50;
-        this.pagePar = 30;
-        this.distAttMax = 1;
-        this.distanceVision = 1;
+        this("None", true, 50, 5, 2, 50, 30, Point2D.of(0, 0), 1, 1);
+    }
+
+    // ================= RÉSERVE =================
+    /**
+     * @return la réserve qui contient les caractéristiques de la créature
+     */
+    public ReserveCreatures getReserve() {
+        return reserve;
+    }
+
+    /**
+     * @return l'emplacement de la créature dans sa réserve
+     */
+    public int getIndice() {
+        return indice;
+    }
+
+    /**
+     * Fait pointer la vue vers un nouvel emplacement (appelé par
+     * {@link ReserveCreatures#inscrire(Creature)}).
+     */
+    void rattacher(ReserveCreatures reserve, int indice) {
+        this.reserve = reserve;
+        this.indice = indice;
+    }
+
+    /**
+     * Fige la vue avant que son emplacement ne soit supprimé (appelé par
+     * {@link ReserveCreatures#compacter()}) : la créature garde sa dernière
+     * position et lit désormais la tombe commune
+     * {@link ReserveCreatures#TOMBE} (morte, sans points de vie), que ses
+     * setters ne modifient plus. Rien n'est alloué.
+     */
+    void figer() {
+        this.pos = Point2D.of(reserve.getX(indice), reserve.getY(indice));
+        this.reserve = ReserveCreatures.TOMBE;
+        this.indice = 0;
+    }
+
+    /**
+     * @return {@code true} si la créature a été supprimée de sa réserve
+     * ({@link #figer()})
+     */
+    private boolean estFigee() {
+        return reserve == ReserveCreatures.TOMBE;
+    }
+
+    /**
+     * @return la poignée durable de la créature dans sa réserve, ou -1 si
+     * elle a été supprimée
+     * @see ReserveCreatures#getPoignee(int)
+     */
+    public long getPoignee() {
+        return estFigee() ? -1 : reserve.getPoignee(indice);
     }
 
     // ================= GETTERS / SETTERS =================
@@ -126,94 +138,133 @@ public class Creature extends ElementDeJeu implements Deplacable {
      * @return les points de vie actuels
      */
     public int getPtVie() {
-        return ptVie;
+        return reserve.getPtVie(indice);
     }
 
     /**
      * @param ptVie nouveaux points de vie
      */
     public void setPtVie(int ptVie) {
-        this.ptVie = ptVie;
+        if (!estFigee()) {
+            reserve.setPtVie(indice, ptVie);
+        }
     }
 
     /**
      * @return les dégâts d’attaque
      */
     public int getDegAtt() {
-        return degAtt;
+        return reserve.getDegAtt(indice);
     }
 
     /**
      * @param degAtt nouveaux dégâts d’attaque
      */
     public void setDegAtt(int degAtt) {
-        this.degAtt = degAtt;
+        if (!estFigee()) {
+            reserve.setDegAtt(indice, degAtt);
+        }
     }
 
     /**
      * @return les points de parade
      */
     public int getPtPar() {
-        return ptPar;
+        return reserve.getPtPar(indice);
     }
 
     /**
      * @param ptPar nouveaux points de parade
      */
     public void setPtPar(int ptPar) {
-        this.ptPar = ptPar;
+        if (!estFigee()) {
+            reserve.setPtPar(indice, ptPar);
+        }
     }
 
     /**
      * @return le pourcentage de réussite d’attaque
      */
     public int getPageAtt() {
-        return pageAtt;
+        return reserve.getPageAtt(indice);
     }
 
     /**
      * @param pageAtt nouveau pourcentage d’attaque
      */
     public void setPageAtt(int pageAtt) {
-        this.pageAtt = pageAtt;
+        if (!estFigee()) {
+            reserve.setPageAtt(indice, pageAtt);
+        }
     }
 
     /**
      * @return le pourcentage de réussite de parade
      */
     public int getPagePar() {
-        return pagePar;
+        return reserve.getPagePar(indice);
     }
 
     /**
      * @param pagePar nouveau pourcentage de parade
      */
     public void setPagePar(int pagePar) {
-        this.pagePar = pagePar;
+        if (!estFigee()) {
+            reserve.setPagePar(indice, pagePar);
+        }
     }
 
     public int getDistanceVision() {
-        return distanceVision;
+        return reserve.getDistanceVision(indice);
     }
 
     public void setDistanceVision(int distanceVision) {
-        this.distanceVision = distanceVision;
+        if (!estFigee()) {
+            reserve.setDistanceVision(indice, distanceVision);
+        }
     }
 
     public int getDistAttMax() {
-        return distAttMax;
+        return reserve.getDistAttMax(indice);
     }
 
     public void setDistAttMax(int distAttMax) {
-        this.distAttMax = distAttMax;
+        if (!estFigee()) {
+            reserve.setDistAttMax(indice, distAttMax);
+        }
     }
 
     public boolean isEtat() {
-        return etat;
+        return reserve.isEtat(indice);
     }
 
     public void setEtat(boolean etat) {
-        this.etat = etat;
+        if (!estFigee()) {
+            reserve.setEtat(indice, etat);
+        }
+    }
+
+    /**
+     * @return la position, lue dans les coordonnées de la réserve
+     */
+    @Override
+    public Point2D getPos() {
+        ReserveCreatures r = reserve;
+        return r == ReserveCreatures.TOMBE ? pos : Point2D.of(r.getX(indice), r.getY(indice));
+    }
+
+    /**
+     * Modifie la position dans les coordonnées de la réserve.
+     *
+     * @param pos nouvelle position
+     */
+    @Override
+    public void setPos(Point2D pos) {
+        if (estFigee()) {
+            this.pos = pos;
+        } else {
+            reserve.setPosition(indice, pos.getX(), pos.getY());
+        }
     }
 
     // ================= MÉTHODES =================
@@ -225,7 +276,7 @@ public class Creature extends ElementDeJeu implements Deplacable {
      */
     @Override
     public void deplacer(int dx, int dy) {
-        this.pos.translate(dx, dy);
+        setPos(getPos().decaler(dx, dy));
     }
 
     /**
@@ -234,18 +285,23 @@ public class Creature extends ElementDeJeu implements Deplacable {
      * La créature ne peut jamais rester immobile, elle doit bouger au moins
      * d’une case autour d’elle.
      * </p>
-     * @param positionsOccupees
+     * <p>
+     * Si la phase de déplacement du tour est ouverte, la case choisie est
+     * seulement proposée à la {@link PhaseDeplacement} de la grille.
+     * </p>
+     * @param grille grille d’occupation du monde
      * @param tailleMonde
      */
-    public void deplacementAleatoire(Set<Point2D> positionsOccupees, int tailleMonde) {
-        if (!this.etat) {
+    @Override
+    public void deplacementAleatoire(GrilleOccupation grille, int tailleMonde) {
+        if (!isEtat()) {
             return; // ne se déplace pas s'il est inactif
         }
-        Random rand = new Random();
+        SplittableRandom rand = getAlea();
         final int MAX_ESSAIS = 9;
         int essais = 0;
 
-        Point2D anciennePos = this.pos;
+        Point2D anciennePos = getPos();
 
         while (essais < MAX_ESSAIS) {
             int dx = rand.nextInt(3) - 1; // -1, 0, 1
@@ -260,46 +316,50 @@ public class Creature extends ElementDeJeu implements Deplacable {
             int nx = anciennePos.getX() + dx;
             int ny = anciennePos.getY() + dy;
 
-            // nouvelle position déclarée dans la boucle => effectively final pour la lambda
-            Point2D nouvellePos = new Point2D(nx, ny);
-
             // vérifier les limites du monde
             boolean dansMonde = nx >= 0 && nx < tailleMonde && ny >= 0 && ny < tailleMonde;
             if (!dansMonde) {
                 essais++;
                 continue;
             }
-            // vérifier si la case est occupée (en utilisant lambda mais avec nouvellePos locale)
-            boolean occupee = positionsOccupees.stream().anyMatch(p -> p.equals(nouvellePos));
-
-            if (!occupee) {
-                // mettre à jour la liste des positions occupées (si nécessaire)
-                // IMPORTANT : cela suppose que equals/hashCode de Point2D sont corrects
-                positionsOccupees.remove(anciennePos);
-                positionsOccupees.add(nouvellePos);
-
-                // effectuer le déplacement
-                this.pos = nouvellePos; // ou this.pos.translate(dx, dy) si tu veux garder l'instance
-                System.out.println(this.getNom() + " se déplace en (" + nx + ", " + ny + ").");
+
+            // vérifier si la case est occupée (accès direct à la grille, sans allocation)
+            if (!grille.estOccupee(nx, ny)) {
+                // pendant un tour, le déplacement est seulement proposé :
+                // il sera résolu avec tous les autres en fin de tour
+                PhaseDeplacement phase = grille.getPhaseDeplacement();
+                if (phase.estOuverte()) {
+                    phase.proposer(this, nx, ny);
+                    return;
+                }
+
+                // hors tour : libérer l'ancienne case puis occuper la nouvelle
+                grille.retirer(this);
+                setPos(Point2D.of(nx, ny));
+                grille.placer(this);
+                JournalEvenements.deplacement(this, nx, ny);
                 return;
             }
             essais++;
         }
 
-        System.out.println(this.getNom() + " ne peut pas se déplacer : cases libres non trouvées après " + MAX_ESSAIS + " essais.");
+        JournalEvenements.blocage(this);
     }
 
     /**
-     * Tue la créature en mettant son état à faux et en supprimant sa position
-     * de la carte du monde.
+     * Tue la créature en mettant son état à faux et en libérant sa case sur la
+     * grille du monde.
+     * <p>
+     * La créature reste dans les listes du monde jusqu’à la fin du tour, où
+     * {@link World#compacter()} retire toutes les créatures mortes d’un coup.
+     * </p>
      *
-     * @param positionWorld ensemble des positions occupées dans le monde
-     * @param creatures
+     * @param grille grille d’occupation du monde
      */
-    public void mourir(Set<Point2D> positionWorld, List<Creature> creatures) {
-        this.etat = false;
-        positionWorld.remove(this.pos);
-        creatures.remove(this);
+    public void mourir(GrilleOccupation grille) {
+        setEtat(false);
+        grille.retirer(this);
+        JournalEvenements.mort(this);
     }
 
     /**
@@ -311,12 +371,21 @@ public class Creature extends ElementDeJeu implements Deplacable {
         System.out.println();
         System.out.println();
         System.out.println("Nom : " + nom);
-        System.out.println("Points de vie : " + ptVie);
-        System.out.println("Degats dattaque : " + degAtt);
-        System.out.println("Points de parade : " + ptPar);
-        System.out.println("Pourcentage dattaque : " + pageAtt);
-        System.out.println("Pourcentage de parade : " + pagePar);
-        System.out.println("Distance dattaque : " + distAttMax);
-        System.out.println("Position : (" + pos.getX() + ", " + pos.getY() + ")");
+        System.out.println("Points de vie : " + getPtVie());
+        System.out.println("Degats dattaque : " + getDegAtt());
+        System.out.println("Points de parade : " + getPtPar());
+        System.out.println("Pourcentage dattaque : " + getPageAtt());
+        System.out.println("Pourcentage de parade : " + getPagePar());
+        System.out.println("Distance dattaque : " + getDistAttMax());
+        Point2D p = getPos();
+        System.out.println("Position : (" + p.getX() + ", " + p.getY() + ")");
+    }
+
+    /**
+     * @return le symbole d'une créature sans type particulier sur la carte
+     */
+    @Override
+    public char getSymbole() {
+        return 'C';
     }
 }
@@ -4,8 +4,6 @@
  */
 package org.centrale.objet.woe.projettp;
 
-import java.util.Set;
-
 /**
  * Interface {@code Deplacable} définissant le comportement commun
  * à tous les éléments du jeu pouvant se déplacer dans l’espace 2D.
@@ -63,5 +61,5 @@ public interface Deplacable {
      * @param dy déplacement vertical à appliquer
      */
     void deplacer(int dx, int dy);
-    void deplacementAleatoire(Set<Point2D> positionsOccupees, int tailleMonde);
+    void deplacementAleatoire(GrilleOccupation grille, int tailleMonde);
 }
@@ -0,0 +1,250 @@
+package org.centrale.objet.woe.projettp;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+
+/**
+ * La classe {@code EcranAnsi} affiche la fenêtre d'un {@link RenduFenetre}
+ * dans un terminal compatible ANSI (VT100) en n'envoyant que les cases qui
+ * ont changé depuis l'image précédente.
+ * <p>
+ * La carte est fixée en haut de l'écran : le premier affichage efface
+ * l'écran, écrit le titre et toutes les cases, puis réserve ces lignes en
+ * limitant le défilement aux lignes situées en dessous (séquence
+ * {@code DECSTBM}). Les messages du jeu (tour, menus, événements,
+ * statistiques) défilent donc sous la carte sans la déplacer. Les images
+ * suivantes sont comparées case par case à la précédente : seules les cases
+ * modifiées sont réécrites, précédées d'un positionnement du curseur quand
+ * elles ne suivent pas la case écrite juste avant.
+ * </p>
+ *
+ * <p>
+ * Chaque image est préparée dans un tampon d'octets réutilisé puis envoyée en
+ * une seule écriture, encadrée par la sauvegarde et la restauration du
+ * curseur. Dans ce mode, chaque case occupe deux colonnes, y compris les
+ * cases hors du monde.
+ * </p>
+ *
+ * @author srodr
+ */
+public class EcranAnsi {
+
+    // ================= ATTRIBUTS =================
+    private static final byte ECHAP = 0x1B;
+
+    private static final String TITRE = "=== MONDE VISIBLE ===";
+
+    /**
+     * Ligne de l'écran où commence la carte (le titre occupe la première)
+     */
+    private static final int PREMIERE_LIGNE = 2;
+
+    /**
+     * Flux du terminal
+     */
+    private final PrintStream sortie;
+
+    /**
+     * Symboles de l'image précédente ({@code null} : rien n'est affiché)
+     */
+    private char[] precedente;
+
+    /**
+     * Côté de l'image précédente
+     */
+    private int cotePrecedent;
+
+    /**
+     * Tampon de l'image en cours de préparation
+     */
+    private byte[] tampon = new byte[4096];
+
+    /**
+     * Nombre d'octets utilisés dans le tampon
+     */
+    private int longueur;
+
+    // ================= CONSTRUCTEUR =================
+    /**
+     * Construit un écran écrivant sur le flux donné.
+     *
+     * @param sortie flux relié au terminal
+     */
+    public EcranAnsi(PrintStream sortie) {
+        this.sortie = sortie;
+    }
+
+    // ================= MÉTHODES =================
+    /**
+     * Indique si la sortie standard semble être un terminal qui comprend les
+     * séquences ANSI : une console est attachée et la variable {@code TERM}
+     * désigne autre chose qu'un terminal muet.
+     *
+     * @return {@code true} si l'affichage ANSI peut être utilisé
+     */
+    public static boolean terminalCompatible() {
+        String term = System.getenv("TERM");
+        return System.console() != null && term != null && !term.isEmpty() && !"dumb".equals(term);
+    }
+
+    /**
+     * Affiche la dernière fenêtre dessinée par le rendu, entièrement la
+     * première fois, puis seulement les cases qui ont changé.
+     *
+     * @param rendu fenêtre à afficher
+     */
+    public void afficher(RenduFenetre rendu) {
+        int cote = rendu.getCote();
+        longueur = 0;
+        if (precedente == null || cote != cotePrecedent) {
+            imageComplete(rendu, cote);
+        } else {
+            imageDifferentielle(rendu, cote);
+        }
+        if (longueur > 0) {
+            sortie.write(tampon, 0, longueur);
+            sortie.flush();
+        }
+    }
+
+    /**
+     * Oublie l'image affichée : la prochaine sera redessinée entièrement
+     * (après un effacement de l'écran par un autre programme, par exemple).
+     */
+    public void invalider() {
+        precedente = null;
+    }
+
+    /**
+     * Rend tout l'écran au défilement normal, en laissant le curseur où le
+     * texte s'est arrêté.
+     */
+    public void fermer() {
+        if (precedente == null) {
+            return;
+        }
+        longueur = 0;
+        octet(ECHAP);
+        octet('7');
+        sequence("r");
+        octet(ECHAP);
+        octet('8');
+        sortie.write(tampon, 0, longueur);
+        sortie.flush();
+        precedente = null;
+    }
+
+    /**
+     * Efface l'écran, écrit le titre et toutes les cases, et réserve les
+     * lignes de la carte.
+     */
+    private void imageComplete(RenduFenetre rendu, int cote) {
+        if (precedente == null || precedente.length != cote * cote) {
+            precedente = new char[cote * cote];
+        }
+        cotePrecedent = cote;
+        sequence("r");
+        sequence("2J");
+        positionner(1, 1);
+        for (int i = 0; i < TITRE.length(); i++) {
+            octet(TITRE.charAt(i));
+        }
+        for (int ligne = 0; ligne < cote; ligne++) {
+            positionner(PREMIERE_LIGNE + ligne, 1);
+            for (int colonne = 0; colonne < cote; colonne++) {
+                char c = rendu.getCase(colonne, ligne);
+                precedente[ligne * cote + colonne] = c;
+                octet(c);
+                octet(' ');
+            }
+        }
+        // défilement limité aux lignes sous la carte, curseur en tête de zone
+        int zone = PREMIERE_LIGNE + cote;
+        octet(ECHAP);
+        octet('[');
+        entier(zone);
+        octet('r');
+        positionner(zone, 1);
+    }
+
+    /**
+     * Réécrit les cases qui diffèrent de l'image précédente, sans déplacer
+     * le curseur du texte qui défile.
+     */
+    private void imageDifferentielle(RenduFenetre rendu, int cote) {
+        int colonneCurseur = -1;
+        int ligneCurseur = -1;
+        int debut = longueur;
+        octet(ECHAP);
+        octet('7');
+        int entete = longueur;
+        for (int ligne = 0; ligne < cote; ligne++) {
+            for (int colonne = 0; colonne < cote; colonne++) {
+                int k = ligne * cote + colonne;
+                char c = rendu.getCase(colonne, ligne);
+                if (c == precedente[k]) {
+                    continue;
+                }
+                precedente[k] = c;
+                if (ligne != ligneCurseur || colonne != colonneCurseur) {
+                    positionner(PREMIERE_LIGNE + ligne, 2 * colonne + 1);
+                }
+                octet(c);
+                octet(' ');
+                ligneCurseur = ligne;
+                colonneCurseur = colonne + 1;
+            }
+        }
+        if (longueur == entete) {
+            longueur = debut; // aucune case modifiée : rien à envoyer
+            return;
+        }
+        octet(ECHAP);
+        octet('8');
+    }
+
+    // ================= TAMPON =================
+    /**
+     * Ajoute une séquence de contrôle {@code ESC [ corps}.
+     */
+    private void sequence(String corps) {
+        octet(ECHAP);
+        octet('[');
+        for (int i = 0; i < corps.length(); i++) {
+            octet(corps.charAt(i));
+        }
+    }
+
+    /**
+     * Ajoute le déplacement du curseur vers une case de l'écran (lignes et
+     * colonnes numérotées à partir de 1).
+     */
+    private void positionner(int ligne, int colonne) {
+        octet(ECHAP);
+        octet('[');
+        entier(ligne);
+        octet(';');
+        entier(colonne);
+        octet('H');
+    }
+
+    /**
+     * Ajoute l'écriture décimale d'un entier positif.
+     */
+    private void entier(int n) {
+        if (n >= 10) {
+            entier(n / 10);
+        }
+        octet('0' + n % 10);
+    }
+
+    /**
+     * Ajoute un octet en agrandissant le tampon si nécessaire.
+     */
+    private void octet(int b) {
+        if (longueur == tampon.length) {
+            tampon = Arrays.copyOf(tampon, 2 * tampon.length);
+        }
+        tampon[longueur++] = (byte) b;
+    }
+}
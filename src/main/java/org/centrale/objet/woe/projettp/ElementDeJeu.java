@@ -4,6 +4,8 @@
  */
 package org.centrale.objet.woe.projettp;
 
+import java.util.SplittableRandom;
+
 /**
  * Classe abstraite {@code ElementDeJeu} représentant tout élément du monde du jeu.
  * <p>
@@ -43,9 +45,28 @@ public abstract class ElementDeJeu {
 
     /**
      * Position actuelle de l’élément dans le monde (coordonnées 2D).
+     * <p>{@link Point2D} étant immuable, la même instance peut être partagée
+     * par plusieurs éléments (par exemple après une copie).</p>
+     * <p>Une {@link Creature} range sa position dans sa réserve : ce champ ne
+     * lui sert qu’une fois supprimée du monde.</p>
      */
     protected Point2D pos;
 
+    /**
+     * Identifiant de l’élément dans son monde.
+     * <p>Vaut 0 tant que l’élément n’a pas été enregistré par un {@link World}.</p>
+     */
+    protected long id;
+
+    /**
+     * Flux aléatoire propre à l’élément.
+     * <p>Fourni par le {@link ServiceAleatoire} du monde, il ne dépend que de
+     * la graine du monde et de {@link #id}. Hors d’un monde, il n’est créé
+     * qu’à la première demande ({@link #getAlea()}) : un élément généré par un
+     * monde ne paie jamais le flux hors monde qu’il remplacerait aussitôt.</p>
+     */
+    private SplittableRandom alea;
+
     // ===================== CONSTRUCTEURS =====================
 
     /**
@@ -56,7 +77,7 @@ public abstract class ElementDeJeu {
      */
     public ElementDeJeu() {
         this.nom = "None";
-        this.pos = new Point2D(0, 0);
+        this.pos = Point2D.of(0, 0);
     }
 
     
@@ -70,6 +91,16 @@ public abstract class ElementDeJeu {
         this.nom = nom;
         this.pos = pos;
     }
+
+    /**
+     * Constructeur d’un élément dont la position est tenue par la
+     * sous-classe.
+     *
+     * @param nom Nom de l’élément
+     */
+    protected ElementDeJeu(String nom) {
+        this.nom = nom;
+    }
      /**
      * Construit un élément de jeu en copiant un autre.
      *
@@ -119,6 +150,43 @@ public abstract class ElementDeJeu {
         this.pos = pos;
     }
 
+    /**
+     * Retourne l’identifiant de l’élément dans son monde.
+     *
+     * @return l’identifiant, ou 0 si l’élément n’appartient à aucun monde
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Retourne le flux aléatoire de l’élément.
+     * <p>Ce flux ne doit être utilisé que pendant le tour de l’élément (ou
+     * par une action qu’il mène), jamais partagé entre threads.</p>
+     *
+     * @return le flux aléatoire propre à l’élément
+     */
+    public SplittableRandom getAlea() {
+        SplittableRandom a = alea;
+        if (a == null) {
+            a = ServiceAleatoire.fluxHorsMonde();
+            alea = a;
+        }
+        return a;
+    }
+
+    /**
+     * Enregistre l’élément dans un monde : lui donne son identifiant et le
+     * flux aléatoire correspondant.
+     *
+     * @param id identifiant attribué par le monde
+     * @param alea flux aléatoire de l’élément
+     */
+    void enregistrer(long id, SplittableRandom alea) {
+        this.id = id;
+        this.alea = alea;
+    }
+
     // ===================== MÉTHODES ABSTRAITES =====================
 
     /**
@@ -142,4 +210,11 @@ public abstract class ElementDeJeu {
      * }</pre>
      */
     public abstract void affiche();
+
+    /**
+     * Retourne le caractère qui représente l’élément sur la carte du monde.
+     *
+     * @return symbole de l’élément
+     */
+    public abstract char getSymbole();
 }
@@ -115,4 +115,12 @@ public class Epee extends Objet {
     public void setpAtt(int pAtt) {
         this.pAtt = pAtt;
     }
+
+    /**
+     * @return le symbole d'une épée sur la carte
+     */
+    @Override
+    public char getSymbole() {
+        return 'E';
+    }
 }
@@ -0,0 +1,92 @@
+package org.centrale.objet.woe.projettp;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Consommateur qui écrit les événements dans un fichier binaire.
+ * <p>
+ * Le fichier commence par l'en-tête {@code "WOEJ"} suivi de la version (un
+ * entier). Chaque événement occupe ensuite {@value #TAILLE_ENREGISTREMENT}
+ * octets, en petit-boutiste : type (int), acteur (long), cible (long), valeur
+ * (int), x (int), y (int). Les enregistrements passent par un tampon direct
+ * écrit d'un bloc à la fin de chaque lot ou quand il est plein.
+ * </p>
+ *
+ * @author srodr
+ */
+public class FichierEvenements implements ConsommateurEvenements {
+
+    // ================= ATTRIBUTS =================
+    /**
+     * Version du format
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * Taille d'un événement en octets
+     */
+    public static final int TAILLE_ENREGISTREMENT = 32;
+
+    private final FileChannel canal;
+    private final ByteBuffer tampon;
+
+    // ================= CONSTRUCTEUR =================
+    /**
+     * Crée (ou remplace) le fichier et écrit son en-tête.
+     *
+     * @param fichier chemin du fichier
+     * @throws IOException si le fichier ne peut pas être créé
+     */
+    public FichierEvenements(Path fichier) throws IOException {
+        this.canal = FileChannel.open(fichier, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.tampon = ByteBuffer.allocateDirect(TAILLE_ENREGISTREMENT * 2048).order(ByteOrder.LITTLE_ENDIAN);
+        tampon.put((byte) 'W').put((byte) 'O').put((byte) 'E').put((byte) 'J').putInt(VERSION);
+    }
+
+    // ================= MÉTHODES =================
+    @Override
+    public void consommer(TypeEvenement type, long acteur, long cible, int valeur, int x, int y) {
+        if (tampon.remaining() < TAILLE_ENREGISTREMENT) {
+            ecrire();
+        }
+        tampon.putInt(type.ordinal()).putLong(acteur).putLong(cible).putInt(valeur).putInt(x).putInt(y);
+    }
+
+    @Override
+    public void terminerLot() {
+        ecrire();
+    }
+
+    @Override
+    public void fermer() {
+        ecrire();
+        try {
+            canal.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Écrit le contenu du tampon dans le fichier.
+     */
+    private void ecrire() {
+        tampon.flip();
+        try {
+            while (tampon.hasRemaining()) {
+                canal.write(tampon);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            tampon.clear();
+        }
+    }
+}
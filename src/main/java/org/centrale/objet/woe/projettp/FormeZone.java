@@ -0,0 +1,73 @@
+package org.centrale.objet.woe.projettp;
+
+/**
+ * Forme d'une zone d'effet autour d'une case, pour les requêtes
+ * {@link GrilleOccupation#creaturesDansZone}.
+ * <p>
+ * Pour chaque forme, la demi-largeur d'une ligne de la zone se calcule à
+ * partir de l'écart vertical au centre : la requête ne visite donc que les
+ * cases de la zone, ligne par ligne, sans test case par case.
+ * </p>
+ *
+ * @author srodr
+ */
+public enum FormeZone {
+
+    /**
+     * Carré de demi-côté {@code rayon} (distance de Chebyshev)
+     */
+    CARRE,
+
+    /**
+     * Disque de rayon {@code rayon} (distance euclidienne)
+     */
+    DISQUE,
+
+    /**
+     * Losange de rayon {@code rayon} (distance de Manhattan)
+     */
+    LOSANGE;
+
+    /**
+     * Demi-largeur de la ligne de la zone située à {@code dy} lignes du
+     * centre.
+     *
+     * @param dy écart vertical au centre, entre {@code -rayon} et
+     * {@code rayon}
+     * @param rayon rayon de la zone
+     * @return le plus grand {@code |dx|} tel que {@code (dx, dy)} soit dans
+     * la zone
+     */
+    public int demiLargeur(int dy, int rayon) {
+        return switch (this) {
+            case CARRE ->
+                rayon;
+            case LOSANGE ->
+                rayon - Math.abs(dy);
+            case DISQUE -> {
+                int reste = rayon * rayon - dy * dy;
+                int dx = (int) Math.sqrt(reste);
+                // corrige l'arrondi de la racine flottante
+                while (dx * dx > reste) {
+                    dx--;
+                }
+                while ((dx + 1) * (dx + 1) <= reste) {
+                    dx++;
+                }
+                yield dx;
+            }
+        };
+    }
+
+    /**
+     * Vérifie si un décalage appartient à la zone.
+     *
+     * @param dx écart horizontal au centre
+     * @param dy écart vertical au centre
+     * @param rayon rayon de la zone
+     * @return {@code true} si la case est dans la zone
+     */
+    public boolean contient(int dx, int dy, int rayon) {
+        return Math.abs(dy) <= rayon && Math.abs(dx) <= demiLargeur(dy, rayon);
+    }
+}
@@ -0,0 +1,559 @@
+package org.centrale.objet.woe.projettp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * La classe {@code GrilleOccupation} indexe l'occupation des cases du monde.
+ * <p>
+ * Le monde est découpé en une grille uniforme de {@code taille × taille}
+ * cases. Chaque case est repérée par un indice {@code y * taille + x} dans
+ * deux couches : un tableau dense pour les créatures et une
+ * {@link CoucheObjets} pour les objets. On connaît ainsi en temps constant, et
+ * sans allouer de {@link Point2D}, si une case est libre et <em>qui</em>
+ * l'occupe.
+ * </p>
+ *
+ * <p>
+ * Au-delà de {@link #SEUIL_DENSE} cases, des tableaux denses coûteraient trop
+ * de mémoire pour un monde presque vide : les couches utilisent alors des
+ * {@link TablePositions} indexées par coordonnées empaquetées, dont la
+ * mémoire ne dépend que du nombre d'occupants.
+ * </p>
+ *
+ * <p>
+ * Une case peut contenir au plus une créature et une pile d'objets : c'est
+ * le cas du héros qui marche sur un objet avant de le ramasser. Seul l'objet
+ * au sommet de la pile est visible depuis la grille.
+ * </p>
+ *
+ * <p>
+ * La grille sert aussi d'index spatial pour les requêtes de voisinage (carré
+ * de Chebyshev, disque euclidien, k plus proches voisins) : leur coût dépend
+ * de la surface interrogée et non du nombre total de créatures. Elle est mise
+ * à jour à chaque déplacement et à chaque mort, elle reste donc toujours à
+ * jour.
+ * </p>
+ *
+ * <p>
+ * Une grille dense tient aussi une couche de symboles (un octet par case),
+ * modifiée par {@link #placer(ElementDeJeu)} et {@link #retirer(ElementDeJeu)}
+ * en même temps que les couches d'occupants : déplacements, morts et
+ * ramassages y sont donc reportés au fil du tour, et l'affichage d'une
+ * fenêtre ({@link RenduFenetre}) lit directement les symboles sans parcourir
+ * les éléments du monde.
+ * </p>
+ *
+ * @author srodr
+ */
+public class GrilleOccupation {
+
+    // ================= ATTRIBUTS =================
+    /**
+     * Nombre de cases au-delà duquel les couches sont stockées en tables
+     * creuses plutôt qu'en tableaux denses (2048 × 2048 cases)
+     */
+    public static final int SEUIL_DENSE = 1 << 22;
+
+    /**
+     * Dimension d'un côté de la grille (égale à TAILLE_MONDE)
+     */
+    private final int taille;
+
+    /**
+     * Couche des créatures, indexée par {@code y * taille + x} (monde dense,
+     * sinon {@code null})
+     */
+    private final Creature[] creatures;
+
+    /**
+     * Couche des objets : piles par case et ordre d'apparition ; c'est aussi
+     * la liste des objets du monde
+     */
+    private final CoucheObjets objets;
+
+    /**
+     * Couche des symboles affichés, indexée par {@code y * taille + x} (monde
+     * dense, sinon {@code null}) ; 0 pour une case vide. Une créature masque
+     * l'objet de sa case.
+     */
+    private final byte[] symboles;
+
+    /**
+     * Couche des créatures d'un monde creux (sinon {@code null})
+     */
+    private final TablePositions<Creature> creaturesCreuses;
+
+    /**
+     * Déplacements différés du tour en cours
+     */
+    private final PhaseDeplacement phaseDeplacement;
+
+    /**
+     * Dégâts et retraits d'objets différés du tour en cours, créé à la
+     * première demande ({@link #getCommandes()})
+     */
+    private volatile TamponCommandes commandes;
+
+    /**
+     * Échéancier des effets temporaires du monde auquel appartient la grille
+     * ({@code null} hors d'un monde)
+     */
+    private RoueTemporelle roue;
+
+    // ================= CONSTRUCTEUR =================
+    /**
+     * Construit une grille vide couvrant un monde de {@code taille × taille}
+     * cases.
+     *
+     * @param taille dimension du monde
+     */
+    public GrilleOccupation(int taille) {
+        this.taille = taille;
+        if ((long) taille * taille <= SEUIL_DENSE) {
+            this.creatures = new Creature[taille * taille];
+            this.objets = new CoucheObjets(taille, false);
+            this.symboles = new byte[taille * taille];
+            this.creaturesCreuses = null;
+        } else {
+            this.creatures = null;
+            this.objets = new CoucheObjets(taille, true);
+            this.symboles = null;
+            this.creaturesCreuses = new TablePositions<>();
+        }
+        this.phaseDeplacement = new PhaseDeplacement();
+    }
+
+    // ================= GETTERS =================
+    /**
+     * @return la dimension d'un côté de la grille
+     */
+    public int getTaille() {
+        return taille;
+    }
+
+    /**
+     * @return la phase qui collecte les déplacements différés du tour
+     */
+    public PhaseDeplacement getPhaseDeplacement() {
+        return phaseDeplacement;
+    }
+
+    /**
+     * @return la couche des objets, qui est aussi la liste des objets du
+     * monde dans leur ordre d'apparition
+     */
+    public CoucheObjets getObjets() {
+        return objets;
+    }
+
+    /**
+     * @return le tampon qui collecte les dégâts et retraits d'objets différés
+     * du tour
+     */
+    public TamponCommandes getCommandes() {
+        TamponCommandes t = commandes;
+        return t != null ? t : creerCommandes();
+    }
+
+    /**
+     * Crée le tampon de commandes une seule fois, même si plusieurs threads le
+     * demandent en même temps.
+     */
+    private synchronized TamponCommandes creerCommandes() {
+        if (commandes == null) {
+            commandes = new TamponCommandes(this);
+        }
+        return commandes;
+    }
+
+    /**
+     * @return l'échéancier des effets temporaires du monde, ou {@code null}
+     * si la grille n'appartient à aucun monde
+     */
+    public RoueTemporelle getRoue() {
+        return roue;
+    }
+
+    /**
+     * Associe à la grille l'échéancier de son monde, pour que les analyses
+     * puissent y planifier la fin de leurs effets.
+     *
+     * @param roue échéancier du monde
+     */
+    public void setRoue(RoueTemporelle roue) {
+        this.roue = roue;
+    }
+
+    /**
+     * @return {@code true} si la grille utilise les tables creuses ; elle ne
+     * peut alors pas être modifiée par plusieurs threads à la fois
+     */
+    public boolean estCreuse() {
+        return creatures == null;
+    }
+
+    // ================= MÉTHODES =================
+    /**
+     * Vérifie si des coordonnées appartiennent au monde.
+     *
+     * @param x abscisse
+     * @param y ordonnée
+     * @return {@code true} si la case existe
+     */
+    public boolean dansMonde(int x, int y) {
+        return x >= 0 && x < taille && y >= 0 && y < taille;
+    }
+
+    /**
+     * Vérifie si une case est occupée par une créature ou par un objet.
+     *
+     * @param x abscisse
+     * @param y ordonnée
+     * @return {@code true} si la case est occupée
+     */
+    public boolean estOccupee(int x, int y) {
+        return creatureEn(x, y) != null || objetEn(x, y) != null;
+    }
+
+    /**
+     * Retourne la créature présente sur une case.
+     *
+     * @param x abscisse
+     * @param y ordonnée
+     * @return la créature, ou {@code null} si aucune
+     */
+    public Creature getCreature(int x, int y) {
+        return creatureEn(x, y);
+    }
+
+    /**
+     * Retourne l'objet présent sur une case (le sommet de sa pile).
+     *
+     * @param x abscisse
+     * @param y ordonnée
+     * @return l'objet, ou {@code null} si aucun
+     */
+    public Objet getObjet(int x, int y) {
+        return objetEn(x, y);
+    }
+
+    /**
+     * Retourne le symbole affiché sur une case : celui de la créature, sinon
+     * celui de l'objet, sinon {@code '.'}.
+     *
+     * @param x abscisse
+     * @param y ordonnée
+     * @return le symbole de la case
+     */
+    public char getSymbole(int x, int y) {
+        if (symboles != null) {
+            byte s = symboles[indice(x, y)];
+            return s == 0 ? '.' : (char) s;
+        }
+        ElementDeJeu e = creatureEn(x, y);
+        if (e == null) {
+            e = objetEn(x, y);
+        }
+        return e == null ? '.' : e.getSymbole();
+    }
+
+    /**
+     * Enregistre un élément sur la case correspondant à sa position actuelle.
+     *
+     * @param e élément à placer (créature ou objet)
+     */
+    public void placer(ElementDeJeu e) {
+        int x = e.getPos().getX();
+        int y = e.getPos().getY();
+        if (e instanceof Creature c) {
+            if (creatures != null) {
+                creatures[indice(x, y)] = c;
+                symboles[indice(x, y)] = (byte) c.getSymbole();
+            } else {
+                creaturesCreuses.put(TablePositions.cle(x, y), c);
+            }
+        } else if (e instanceof Objet o) {
+            objets.poser(o);
+            if (symboles != null && creatures[indice(x, y)] == null) {
+                symboles[indice(x, y)] = (byte) o.getSymbole();
+            }
+        }
+    }
+
+    /**
+     * Libère la case correspondant à la position actuelle d'un élément.
+     * <p>
+     * La case n'est vidée que si elle est bien occupée par cet élément, afin
+     * de ne pas effacer un autre occupant.
+     * </p>
+     *
+     * @param e élément à retirer (créature ou objet)
+     */
+    public void retirer(ElementDeJeu e) {
+        int x = e.getPos().getX();
+        int y = e.getPos().getY();
+        if (e instanceof Creature) {
+            if (creatureEn(x, y) != e) {
+                return;
+            }
+            if (creatures != null) {
+                int i = indice(x, y);
+                creatures[i] = null;
+                Objet sommet = objets.sommet(x, y);
+                symboles[i] = sommet == null ? 0 : (byte) sommet.getSymbole();
+            } else {
+                creaturesCreuses.remove(TablePositions.cle(x, y));
+            }
+        } else if (e instanceof Objet o) {
+            objets.lever(o);
+            if (symboles != null && creatures[indice(x, y)] == null) {
+                Objet sommet = objets.sommet(x, y);
+                symboles[indice(x, y)] = sommet == null ? 0 : (byte) sommet.getSymbole();
+            }
+        }
+    }
+
+    // ================= REQUÊTES DE VOISINAGE =================
+    /**
+     * Tampon de cibles propre à chaque thread, réutilisé d'une analyse à
+     * l'autre
+     */
+    private static final ThreadLocal<ArrayList<Creature>> TAMPON_ZONE = ThreadLocal.withInitial(ArrayList::new);
+
+    /**
+     * Retourne un tampon vide, propre au thread appelant, à passer à
+     * {@link #creaturesDansZone}. Il est réutilisé par l'appel suivant dans le
+     * même thread : son contenu doit être exploité avant.
+     *
+     * @return le tampon du thread, vidé
+     */
+    public static List<Creature> tamponZone() {
+        ArrayList<Creature> tampon = TAMPON_ZONE.get();
+        tampon.clear();
+        return tampon;
+    }
+
+    /**
+     * Ajoute à {@code resultat} les créatures vivantes d'un type donné situées
+     * dans une zone d'effet centrée sur {@code (cx, cy)}.
+     * <p>
+     * Seules les cases de la zone sont lues, ligne par ligne : le coût dépend
+     * de la surface de la zone et non du nombre de créatures du monde. La case
+     * centrale fait partie de la zone ; un attaquant placé au centre doit
+     * donc s'écarter lui-même de ses cibles.
+     * </p>
+     *
+     * @param <T> type des créatures recherchées
+     * @param forme forme de la zone
+     * @param cx abscisse du centre
+     * @param cy ordonnée du centre
+     * @param rayon rayon de la zone
+     * @param type classe des créatures retenues ({@code Creature.class} pour
+     * toutes, {@code Personnage.class} pour les seuls personnages...)
+     * @param resultat tampon fourni par l'appelant, qui reçoit les créatures
+     * trouvées
+     * @return le nombre de créatures ajoutées
+     */
+    public <T extends Creature> int creaturesDansZone(FormeZone forme, int cx, int cy, int rayon, Class<T> type,
+            List<? super T> resultat) {
+        int ajoutees = 0;
+        int yMin = Math.max(0, cy - rayon);
+        int yMax = Math.min(taille - 1, cy + rayon);
+        for (int y = yMin; y <= yMax; y++) {
+            int demi = forme.demiLargeur(y - cy, rayon);
+            int xMin = Math.max(0, cx - demi);
+            int xMax = Math.min(taille - 1, cx + demi);
+            for (int x = xMin; x <= xMax; x++) {
+                Creature c = creatureEn(x, y);
+                if (c != null && c.isEtat() && type.isInstance(c)) {
+                    resultat.add(type.cast(c));
+                    ajoutees++;
+                }
+            }
+        }
+        return ajoutees;
+    }
+
+    /**
+     * Ajoute à {@code resultat} les créatures situées dans le carré de
+     * Chebyshev de rayon {@code rayon} centré sur {@code (cx, cy)}.
+     * <p>
+     * Les créatures sont parcourues ligne par ligne ; la case centrale est
+     * ignorée.
+     * </p>
+     *
+     * @param cx abscisse du centre
+     * @param cy ordonnée du centre
+     * @param rayon demi-côté du carré
+     * @param resultat liste recevant les créatures trouvées
+     */
+    public void creaturesDansCarre(int cx, int cy, int rayon, List<Creature> resultat) {
+        int xMin = Math.max(0, cx - rayon);
+        int xMax = Math.min(taille - 1, cx + rayon);
+        int yMin = Math.max(0, cy - rayon);
+        int yMax = Math.min(taille - 1, cy + rayon);
+        for (int y = yMin; y <= yMax; y++) {
+            for (int x = xMin; x <= xMax; x++) {
+                Creature c = creatureEn(x, y);
+                if (c != null && !(x == cx && y == cy)) {
+                    resultat.add(c);
+                }
+            }
+        }
+    }
+
+    /**
+     * Ajoute à {@code resultat} les créatures situées à une distance
+     * euclidienne inférieure ou égale à {@code rayon} de {@code (cx, cy)}.
+     * <p>
+     * La comparaison se fait sur les distances au carré, en entiers. La case
+     * centrale est ignorée.
+     * </p>
+     *
+     * @param cx abscisse du centre
+     * @param cy ordonnée du centre
+     * @param rayon rayon du disque
+     * @param resultat liste recevant les créatures trouvées
+     */
+    public void creaturesDansRayon(int cx, int cy, int rayon, List<Creature> resultat) {
+        int rayon2 = rayon * rayon;
+        int xMin = Math.max(0, cx - rayon);
+        int xMax = Math.min(taille - 1, cx + rayon);
+        int yMin = Math.max(0, cy - rayon);
+        int yMax = Math.min(taille - 1, cy + rayon);
+        for (int y = yMin; y <= yMax; y++) {
+            for (int x = xMin; x <= xMax; x++) {
+                Creature c = creatureEn(x, y);
+                if (c != null && (x != cx || y != cy) && Point2D.distanceCarree(cx, cy, x, y) <= rayon2) {
+                    resultat.add(c);
+                }
+            }
+        }
+    }
+
+    /**
+     * Ajoute à {@code resultat} les {@code k} créatures les plus proches de
+     * {@code (cx, cy)} au sens euclidien, de la plus proche à la plus
+     * éloignée.
+     * <p>
+     * La recherche parcourt des anneaux carrés de rayon croissant. Un anneau
+     * de rayon {@code r} ne contient que des cases à distance au moins
+     * {@code r} : dès que {@code k} candidats sont connus et que {@code r}
+     * dépasse la distance du k-ième, la recherche s'arrête. La case centrale
+     * est ignorée.
+     * </p>
+     *
+     * @param cx abscisse du centre
+     * @param cy ordonnée du centre
+     * @param k nombre de voisins recherchés
+     * @param rayonMax rayon de Chebyshev maximal exploré
+     * @param resultat liste recevant les créatures trouvées
+     */
+    public void kPlusProches(int cx, int cy, int k, int rayonMax, List<Creature> resultat) {
+        if (k <= 0) {
+            return;
+        }
+        int debut = resultat.size();
+        int limite = Math.min(rayonMax, taille);
+        for (int r = 1; r <= limite; r++) {
+            if (resultat.size() - debut >= k) {
+                int dk = distance2(resultat, debut, k, cx, cy);
+                if (r * r > dk) {
+                    break;
+                }
+            }
+            anneau(cx, cy, r, resultat);
+        }
+        List<Creature> trouves = resultat.subList(debut, resultat.size());
+        trouves.sort(Comparator.comparingInt(c -> distance2(c, cx, cy)));
+        while (trouves.size() > k) {
+            trouves.remove(trouves.size() - 1);
+        }
+    }
+
+    /**
+     * Ajoute les créatures situées exactement sur l'anneau de Chebyshev de
+     * rayon {@code r} autour de {@code (cx, cy)}.
+     */
+    private void anneau(int cx, int cy, int r, List<Creature> resultat) {
+        for (int x = cx - r; x <= cx + r; x++) {
+            ajouterSiPresente(x, cy - r, resultat);
+            ajouterSiPresente(x, cy + r, resultat);
+        }
+        for (int y = cy - r + 1; y <= cy + r - 1; y++) {
+            ajouterSiPresente(cx - r, y, resultat);
+            ajouterSiPresente(cx + r, y, resultat);
+        }
+    }
+
+    /**
+     * Ajoute la créature d'une case si la case existe et est occupée.
+     */
+    private void ajouterSiPresente(int x, int y, List<Creature> resultat) {
+        if (dansMonde(x, y)) {
+            Creature c = creatureEn(x, y);
+            if (c != null) {
+                resultat.add(c);
+            }
+        }
+    }
+
+    /**
+     * Retourne la k-ième plus petite distance au carré parmi les candidats
+     * trouvés depuis l'indice {@code debut}.
+     */
+    private static int distance2(List<Creature> candidats, int debut, int k, int cx, int cy) {
+        int n = candidats.size() - debut;
+        int[] d = new int[n];
+        for (int i = 0; i < n; i++) {
+            d[i] = distance2(candidats.get(debut + i), cx, cy);
+        }
+        Arrays.sort(d);
+        return d[k - 1];
+    }
+
+    /**
+     * Distance euclidienne au carré entre une créature et un point.
+     */
+    private static int distance2(Creature c, int cx, int cy) {
+        Point2D p = c.getPos();
+        return Point2D.distanceCarree(cx, cy, p.getX(), p.getY());
+    }
+
+    /**
+     * Vide entièrement la grille.
+     */
+    public void vider() {
+        if (creatures != null) {
+            Arrays.fill(creatures, null);
+            Arrays.fill(symboles, (byte) 0);
+        } else {
+            creaturesCreuses.clear();
+        }
+        objets.clear();
+    }
+
+    /**
+     * Lit la couche des créatures, dense ou creuse.
+     */
+    private Creature creatureEn(int x, int y) {
+        return creatures != null ? creatures[indice(x, y)] : creaturesCreuses.get(TablePositions.cle(x, y));
+    }
+
+    /**
+     * Lit la couche des objets, dense ou creuse.
+     */
+    private Objet objetEn(int x, int y) {
+        return objets.sommet(x, y);
+    }
+
+    /**
+     * Calcule l'indice d'une case dans les couches denses.
+     */
+    private int indice(int x, int y) {
+        return y * taille + x;
+    }
+}
@@ -5,8 +5,6 @@
 package org.centrale.objet.woe.projettp;
 
 import java.util.List;
-import java.util.Random;
-import java.util.Set;
 
 /**
  * La classe {@code Guerrier} représente un personnage combattant au corps à corps.
@@ -61,94 +59,26 @@ public class Guerrier extends Personnage implements Combattant {
     /**
      * Permet au guerrier d’attaquer une créature.
      * <p>
-     * Vérifie la portée, tente l’attaque et applique les dégâts si la cible échoue
-     * sa parade. Affiche les résultats et tue la créature si ses points de vie
-     * tombent à zéro ou moins.
+     * L’échange est résolu par le {@link ResolveurCombat} : portée, jet
+     * d’attaque, puis jet de parade de la cible. Les dégâts sont confiés au
+     * {@link TamponCommandes} de la grille, qui les applique (en passant par
+     * la parade si la cible l’a réussie) et tue la créature si ses points de
+     * vie tombent à zéro ou moins.
      * </p>
      * 
      * @param c La créature cible
-     * @param positionWorld Ensemble des positions occupées dans le monde
+     * @param grille Grille d’occupation du monde
      */
     @Override
-    public void combattre(Creature c, Set<Point2D> positionWorld,List<Creature> creatures) {
-
-        // Vérifie si la cible est à portée d'attaque et si les deux sont vivants
-        if (this.getPos().distance(c.getPos()) <= (this.getDistAttMax() * Math.sqrt(2)) && c.isEtat() && this.isEtat()) {
-
-            // Informations du combat
-            System.out.println();
-            System.out.println("=============COMBAT CORPS A CORPS=============");
-            System.out.println("Attaquant : " + this.getNom());
-            System.out.println("Defenseur : " + c.getNom());
-            System.out.println("==========================");
-            System.out.println();
-
-            // Vérifie si l'attaque réussit
-            if (jeuDeAtt()) {
-                System.out.println("Attaque reussie");
-
-                // Vérifie si la cible se défend avec succès
-                if (jeuDeDe(c)) {
-                    System.out.println("Defense reussie");
-
-                    if (c.getPtPar() <= 0) {
-                        int e_vie = c.getPtVie() - this.getDegAtt();
-                        c.setPtVie(e_vie);
-                    } else {
-                        int e_def = c.getPtPar() - this.getDegAtt();
-                        if (e_def <= 0) {
-                            c.setPtPar(0);
-                            int e_vie = c.getPtVie() + e_def;
-                            c.setPtVie(e_vie);
-                        } else {
-                            c.setPtPar(e_def);
-                        }
-                    }
-                } else {
-                    // Défense échouée : inflige les dégâts directement
-                    int e_vie = c.getPtVie() - this.getDegAtt();
-                    c.setPtVie(e_vie);
-                }
-            } else {
-                System.out.println("Attaque ratee");
-            }
-
-            // Affichage des résultats
-            System.out.println();
-            System.out.println("=============RESULTATS=============");
-            System.out.println("Points de vie de " + c.getNom() + " : " + c.getPtVie());
-            System.out.println("Points de defense de " + c.getNom() + " : " + c.getPtPar());
-            System.out.println("==========================");
-            System.out.println();
-
-            // Vérifie si la créature est vaincue
-            if (c.getPtVie() <= 0) {
-                System.out.println();
-                System.out.println("**** " + c.getNom() + " a ete vaincu. ****");
-                System.out.println();
-                c.mourir(positionWorld,creatures);
-            }
-        }
+    public void combattre(Creature c, GrilleOccupation grille,List<Creature> creatures) {
+        ResolveurCombat.engager(this, c, this.getDistAttMax(), this.getDegAtt(), true, getAlea(), grille.getCommandes());
     }
 
     /**
-     * Détermine si le guerrier touche avec succès sa cible.
-     * 
-     * @return {@code true} si l’attaque réussit, {@code false} sinon
+     * @return le symbole d'un guerrier sur la carte
      */
-    public boolean jeuDeAtt() {
-        Random n = new Random();
-        return n.nextInt(100) < this.getPageAtt();
-    }
-
-    /**
-     * Détermine si la cible réussit sa parade contre l’attaque du guerrier.
-     * 
-     * @param c La créature qui se défend
-     * @return {@code true} si la parade réussit, {@code false} sinon
-     */
-    public boolean jeuDeDe(Creature c) {
-        Random n = new Random();
-        return n.nextInt(100) < c.getPagePar();
+    @Override
+    public char getSymbole() {
+        return 'G';
     }
 }
@@ -0,0 +1,828 @@
+package org.centrale.objet.woe.projettp;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * La classe {@code InstantaneMonde} sauvegarde tout l'état d'un {@link World}
+ * dans un fichier binaire et le recharge.
+ * <p>
+ * Le fichier commence par l'en-tête {@code "WOES"} suivi de la version (un
+ * entier), de la taille du monde, de sa graine, du nombre de tours joués, du
+ * dernier identifiant attribué et de l'identifiant du héros (0 sans joueur).
+ * Viennent ensuite trois sections, chacune précédée de son nombre de lignes
+ * et rangée en colonnes : toutes les valeurs d'un même champ sont contiguës.
+ * </p>
+ * <ol>
+ * <li>Créatures (celles de {@link World#ListCreature} dans l'ordre, puis le
+ * héros) : identifiant, type, drapeaux, les neuf caractéristiques de la
+ * {@link ReserveCreatures}, dangerosité d'un {@link Monstre}, flèches d'un
+ * {@link Archer}, noms.</li>
+ * <li>Objets : ceux du monde dans leur ordre d'apparition, puis l'inventaire
+ * et les effets actifs de chaque personnage ; identifiant, type, rôle,
+ * propriétaire, position, trois valeurs propres au type, noms et
+ * descriptions.</li>
+ * <li>Échéances de la {@link RoueTemporelle} : sujet, porteur et nombre de
+ * tours restants.</li>
+ * </ol>
+ * <p>
+ * Les entiers sont écrits en petit-boutiste ; une chaîne est une colonne de
+ * longueurs (-1 pour {@code null}) suivie des octets UTF-8 de toutes les
+ * chaînes. L'écriture passe par un {@link FileChannel} et un tampon direct,
+ * dans un fichier temporaire renommé une fois complet ; la lecture projette
+ * le fichier en mémoire et copie chaque colonne d'un bloc dans un tableau.
+ * </p>
+ *
+ * <p>
+ * L'état exact des flux aléatoires ne peut pas être sauvegardé : un élément
+ * rechargé reçoit un flux qui dépend de la graine, de son identifiant et du
+ * nombre de tours joués ({@link ServiceAleatoire#flux(long, int)}). Deux
+ * reprises du même instantané se déroulent donc de la même façon.
+ * </p>
+ *
+ * @author srodr
+ */
+public final class InstantaneMonde {
+
+    // ================= ATTRIBUTS =================
+    /**
+     * Version du format
+     */
+    public static final int VERSION = 1;
+
+    private static final byte[] MAGIQUE = {'W', 'O', 'E', 'S'};
+
+    /**
+     * Types de créatures
+     */
+    private static final byte CREATURE = 0;
+    private static final byte PERSONNAGE = 1;
+    private static final byte GUERRIER = 2;
+    private static final byte ARCHER = 3;
+    private static final byte PAYSAN = 4;
+    private static final byte MONSTRE = 5;
+    private static final byte LOUP = 6;
+    private static final byte LAPIN = 7;
+
+    /**
+     * Drapeaux d'une créature
+     */
+    private static final byte VIVANTE = 1;
+    private static final byte DANS_LISTES = 2;
+
+    /**
+     * Types d'objets
+     */
+    private static final byte OBJET = 0;
+    private static final byte POTION = 1;
+    private static final byte EPEE = 2;
+    private static final byte NOURRITURE = 3;
+    private static final byte NUAGE = 4;
+
+    /**
+     * Rôle d'un objet : posé dans le monde, dans un inventaire, effet actif,
+     * ou seulement connu du monde (apparitions du {@link JournalTours})
+     */
+    private static final byte MONDE = 0;
+    private static final byte INVENTAIRE = 1;
+    private static final byte EFFET = 2;
+    private static final byte HORS_MONDE = 3;
+
+    private static final Monstre.Dangerosite[] DANGEROSITES = Monstre.Dangerosite.values();
+    private static final Epee.Etat[] ETATS_EPEE = Epee.Etat.values();
+    private static final Nourriture.Nourritures[] NOURRITURES = Nourriture.Nourritures.values();
+
+    private InstantaneMonde() {
+    }
+
+    // ================= SAUVEGARDE =================
+    /**
+     * Écrit l'instantané d'un monde (hors d'un tour).
+     *
+     * @param monde monde à sauvegarder
+     * @param fichier fichier à créer ou remplacer
+     * @throws IOException si le fichier ne peut pas être écrit
+     */
+    public static void sauvegarder(World monde, Path fichier) throws IOException {
+        Personnage heros = monde.getHeros();
+        List<Creature> creatures = monde.ListCreature;
+        Personnage herosAPart = heros != null && !creatures.contains(heros) ? heros : null;
+
+        // 1. Rangement de l'état en colonnes
+        Creatures lignesCreatures = new Creatures(creatures.size() + (herosAPart != null ? 1 : 0));
+        int nbObjets = monde.ListObjets.size();
+        for (Creature c : creatures) {
+            lignesCreatures.ajouter(c, true);
+            if (c instanceof Personnage p) {
+                nbObjets += p.getInventaire().size() + p.getEffetsActifs().size();
+            }
+        }
+        if (herosAPart != null) {
+            lignesCreatures.ajouter(herosAPart, false);
+            nbObjets += herosAPart.getInventaire().size() + herosAPart.getEffetsActifs().size();
+        }
+        Objets lignesObjets = new Objets(nbObjets);
+        for (Objet o : monde.ListObjets) {
+            lignesObjets.ajouter(o, MONDE, 0);
+        }
+        for (Creature c : creatures) {
+            if (c instanceof Personnage p) {
+                lignesObjets.ajouterPossessions(p);
+            }
+        }
+        if (herosAPart != null) {
+            lignesObjets.ajouterPossessions(herosAPart);
+        }
+        Echeances lignesEcheances = new Echeances(monde.getRoue());
+
+        // 2. Écriture dans un fichier temporaire, renommé une fois complet
+        Path temporaire = fichier.resolveSibling(fichier.getFileName() + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporaire, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Ecrivain sortie = new Ecrivain(canal, 1 << 20);
+            sortie.octets(MAGIQUE, MAGIQUE.length);
+            sortie.entier(VERSION);
+            sortie.entier(monde.TAILLE_MONDE);
+            sortie.longEntier(monde.getAlea().getGraine());
+            sortie.entier(monde.getNbToursJoues());
+            sortie.longEntier(monde.getDernierId());
+            sortie.longEntier(heros == null ? 0 : heros.getId());
+            lignesCreatures.ecrire(sortie);
+            lignesObjets.ecrire(sortie);
+            lignesEcheances.ecrire(sortie);
+            sortie.vider();
+            canal.force(true);
+        }
+        Files.move(temporaire, fichier, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // ================= CHARGEMENT =================
+    /**
+     * Recrée un monde à partir de son instantané. Le monde obtenu est prêt à
+     * jouer son prochain tour ; son héros éventuel est donné par
+     * {@link World#getHeros()}.
+     *
+     * @param fichier fichier écrit par {@link #sauvegarder(World, Path)}
+     * @return le monde rechargé
+     * @throws IOException si le fichier ne peut pas être lu, n'est pas un
+     * instantané ou est d'une autre version
+     */
+    public static World charger(Path fichier) throws IOException {
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            ByteBuffer tampon = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size()).order(ByteOrder.LITTLE_ENDIAN);
+            Lecteur entree = new Lecteur(tampon);
+            byte[] magique = entree.octets(MAGIQUE.length);
+            for (int i = 0; i < MAGIQUE.length; i++) {
+                if (magique[i] != MAGIQUE[i]) {
+                    throw new IOException(fichier + " n'est pas un instantané de monde");
+                }
+            }
+            int version = entree.entier();
+            if (version != VERSION) {
+                throw new IOException("Version d'instantané " + version + " non prise en charge (attendue : " + VERSION + ")");
+            }
+            int taille = entree.entier();
+            long graine = entree.longEntier();
+            int nbTours = entree.entier();
+            long dernierId = entree.longEntier();
+            long idHeros = entree.longEntier();
+
+            World monde = new World(graine, taille);
+            monde.restaurerCompteurs(dernierId, nbTours);
+            new Creatures(entree).restaurer(monde, idHeros);
+            new Objets(entree).restaurer(monde);
+            monde.restaurerAnalyses();
+            new Echeances(entree).restaurer(monde);
+            return monde;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Instantané tronqué : " + fichier, e);
+        }
+    }
+
+    // ================= APPARITIONS =================
+    /**
+     * Encode, au format des sections de l'instantané, des créatures et des
+     * objets entrés dans le monde pendant un tour (utilisé par
+     * {@link JournalTours}).
+     *
+     * @param creatures créatures apparues
+     * @param objets objets posés dans le monde
+     * @param horsMonde nouveaux objets qui ne sont que possédés
+     * @return les sections des créatures puis des objets
+     * @throws IOException si l'encodage échoue
+     */
+    static byte[] encoderApparitions(List<Creature> creatures, List<Objet> objets, List<Objet> horsMonde)
+            throws IOException {
+        Creatures lignesCreatures = new Creatures(creatures.size());
+        for (Creature c : creatures) {
+            lignesCreatures.ajouter(c, true);
+        }
+        Objets lignesObjets = new Objets(objets.size() + horsMonde.size());
+        for (Objet o : objets) {
+            lignesObjets.ajouter(o, MONDE, 0);
+        }
+        for (Objet o : horsMonde) {
+            lignesObjets.ajouter(o, HORS_MONDE, 0);
+        }
+        ByteArrayOutputStream octets = new ByteArrayOutputStream();
+        Ecrivain sortie = new Ecrivain(Channels.newChannel(octets), 1 << 12);
+        lignesCreatures.ecrire(sortie);
+        lignesObjets.ecrire(sortie);
+        sortie.vider();
+        return octets.toByteArray();
+    }
+
+    /**
+     * Remet dans un monde les éléments encodés par
+     * {@link #encoderApparitions}. Un objet déjà connu du monde (sorti d'un
+     * inventaire) est reposé tel quel.
+     *
+     * @param monde monde où les éléments apparaissent
+     * @param tampon sections à lire
+     */
+    static void restaurerApparitions(World monde, ByteBuffer tampon) {
+        Lecteur entree = new Lecteur(tampon.order(ByteOrder.LITTLE_ENDIAN));
+        new Creatures(entree).restaurer(monde, 0);
+        new Objets(entree).restaurer(monde);
+        monde.restaurerAnalyses();
+    }
+
+    // ================= SECTIONS =================
+    /**
+     * Colonnes de la section des créatures.
+     */
+    private static final class Creatures {
+
+        final long[] ids;
+        final byte[] types;
+        final byte[] drapeaux;
+        final int[] ptVie;
+        final int[] degAtt;
+        final int[] ptPar;
+        final int[] pageAtt;
+        final int[] pagePar;
+        final int[] distAttMax;
+        final int[] vision;
+        final int[] xs;
+        final int[] ys;
+        final byte[] dangerosites;
+        final int[] fleches;
+        final String[] noms;
+        int n;
+
+        /**
+         * Colonnes vides, à remplir par {@link #ajouter}.
+         */
+        Creatures(int capacite) {
+            ids = new long[capacite];
+            types = new byte[capacite];
+            drapeaux = new byte[capacite];
+            ptVie = new int[capacite];
+            degAtt = new int[capacite];
+            ptPar = new int[capacite];
+            pageAtt = new int[capacite];
+            pagePar = new int[capacite];
+            distAttMax = new int[capacite];
+            vision = new int[capacite];
+            xs = new int[capacite];
+            ys = new int[capacite];
+            dangerosites = new byte[capacite];
+            fleches = new int[capacite];
+            noms = new String[capacite];
+        }
+
+        /**
+         * Colonnes lues dans le fichier.
+         */
+        Creatures(Lecteur entree) {
+            n = entree.entier();
+            ids = entree.longs(n);
+            types = entree.octets(n);
+            drapeaux = entree.octets(n);
+            ptVie = entree.entiers(n);
+            degAtt = entree.entiers(n);
+            ptPar = entree.entiers(n);
+            pageAtt = entree.entiers(n);
+            pagePar = entree.entiers(n);
+            distAttMax = entree.entiers(n);
+            vision = entree.entiers(n);
+            xs = entree.entiers(n);
+            ys = entree.entiers(n);
+            dangerosites = entree.octets(n);
+            fleches = entree.entiers(n);
+            noms = entree.chaines(n);
+        }
+
+        void ajouter(Creature c, boolean dansListes) {
+            ids[n] = c.getId();
+            types[n] = typeDe(c);
+            drapeaux[n] = (byte) ((c.isEtat() ? VIVANTE : 0) | (dansListes ? DANS_LISTES : 0));
+            ptVie[n] = c.getPtVie();
+            degAtt[n] = c.getDegAtt();
+            ptPar[n] = c.getPtPar();
+            pageAtt[n] = c.getPageAtt();
+            pagePar[n] = c.getPagePar();
+            distAttMax[n] = c.getDistAttMax();
+            vision[n] = c.getDistanceVision();
+            xs[n] = c.getPos().getX();
+            ys[n] = c.getPos().getY();
+            dangerosites[n] = c instanceof Monstre m && m.getDangerosite() != null ? (byte) m.getDangerosite().ordinal() : -1;
+            fleches[n] = c instanceof Archer a ? a.getNbFleches() : 0;
+            noms[n] = c.getNom();
+            n++;
+        }
+
+        void ecrire(Ecrivain sortie) throws IOException {
+            sortie.entier(n);
+            sortie.longs(ids, n);
+            sortie.octets(types, n);
+            sortie.octets(drapeaux, n);
+            sortie.entiers(ptVie, n);
+            sortie.entiers(degAtt, n);
+            sortie.entiers(ptPar, n);
+            sortie.entiers(pageAtt, n);
+            sortie.entiers(pagePar, n);
+            sortie.entiers(distAttMax, n);
+            sortie.entiers(vision, n);
+            sortie.entiers(xs, n);
+            sortie.entiers(ys, n);
+            sortie.octets(dangerosites, n);
+            sortie.entiers(fleches, n);
+            sortie.chaines(noms, n);
+        }
+
+        /**
+         * Recrée les créatures, directement dans la réserve du monde, et les
+         * remet sur la grille et dans les listes.
+         */
+        void restaurer(World monde, long idHeros) {
+            monde.ListCreature.ensureCapacity(n);
+            monde.ListElementJeu.ensureCapacity(n);
+            monde.getReserve().ouvrirAccueil(monde.getReserve().size() + n);
+            try {
+                for (int i = 0; i < n; i++) {
+                    Creature c = recreer(i);
+                    if (ids[i] > 0) {
+                        monde.restaurer(c, ids[i]);
+                    }
+                    monde.restaurerCreature(c);
+                    if ((drapeaux[i] & DANS_LISTES) != 0) {
+                        monde.ListCreature.add(c);
+                        monde.ListElementJeu.add(c);
+                    }
+                    if (idHeros > 0 && ids[i] == idHeros && c instanceof Personnage heros) {
+                        monde.restaurerHeros(heros);
+                    }
+                }
+            } finally {
+                ReserveCreatures.fermerAccueil();
+            }
+        }
+
+        /**
+         * Construit la créature d'une ligne, selon son type.
+         */
+        private Creature recreer(int i) {
+            boolean etat = (drapeaux[i] & VIVANTE) != 0;
+            Point2D p = Point2D.of(xs[i], ys[i]);
+            Monstre.Dangerosite d = dangerosites[i] >= 0 ? DANGEROSITES[dangerosites[i]] : null;
+            return switch (types[i]) {
+                case GUERRIER ->
+                    new Guerrier(noms[i], etat, ptVie[i], degAtt[i], ptPar[i], pageAtt[i], pagePar[i], p, distAttMax[i], vision[i]);
+                case ARCHER ->
+                    new Archer(noms[i], etat, ptVie[i], degAtt[i], ptPar[i], pageAtt[i], pagePar[i], p, distAttMax[i], vision[i], fleches[i]);
+                case PAYSAN ->
+                    new Paysan(noms[i], etat, ptVie[i], degAtt[i], ptPar[i], pageAtt[i], pagePar[i], distAttMax[i], p, vision[i]);
+                case PERSONNAGE ->
+                    new Personnage(noms[i], etat, ptVie[i], degAtt[i], ptPar[i], pageAtt[i], pagePar[i], distAttMax[i], p, vision[i]);
+                case LOUP ->
+                    new Loup(noms[i], etat, ptVie[i], degAtt[i], ptPar[i], pageAtt[i], pagePar[i], p, distAttMax[i], vision[i], d);
+                case LAPIN ->
+                    new Lapin(noms[i], etat, ptVie[i], degAtt[i], ptPar[i], pageAtt[i], pagePar[i], p, distAttMax[i], vision[i], d);
+                case MONSTRE ->
+                    new Monstre(noms[i], etat, ptVie[i], degAtt[i], ptPar[i], pageAtt[i], pagePar[i], p, distAttMax[i], vision[i], d);
+                default ->
+                    new Creature(noms[i], etat, ptVie[i], degAtt[i], ptPar[i], pageAtt[i], pagePar[i], p, distAttMax[i], vision[i]);
+            };
+        }
+
+        /**
+         * Type d'une créature dans le fichier (sous-classes d'abord).
+         */
+        private static byte typeDe(Creature c) {
+            return switch (c) {
+                case Archer a ->
+                    ARCHER;
+                case Guerrier g ->
+                    GUERRIER;
+                case Paysan p ->
+                    PAYSAN;
+                case Personnage p ->
+                    PERSONNAGE;
+                case Loup l ->
+                    LOUP;
+                case Lapin l ->
+                    LAPIN;
+                case Monstre m ->
+                    MONSTRE;
+                default ->
+                    CREATURE;
+            };
+        }
+    }
+
+    /**
+     * Colonnes de la section des objets.
+     */
+    private static final class Objets {
+
+        final long[] ids;
+        final byte[] types;
+        final byte[] roles;
+        final long[] proprietaires;
+        final int[] xs;
+        final int[] ys;
+        final int[] valeursA;
+        final int[] valeursB;
+        final int[] valeursC;
+        final String[] noms;
+        final String[] descriptions;
+        int n;
+
+        /**
+         * Colonnes vides, à remplir par {@link #ajouter}.
+         */
+        Objets(int capacite) {
+            ids = new long[capacite];
+            types = new byte[capacite];
+            roles = new byte[capacite];
+            proprietaires = new long[capacite];
+            xs = new int[capacite];
+            ys = new int[capacite];
+            valeursA = new int[capacite];
+            valeursB = new int[capacite];
+            valeursC = new int[capacite];
+            noms = new String[capacite];
+            descriptions = new String[capacite];
+        }
+
+        /**
+         * Colonnes lues dans le fichier.
+         */
+        Objets(Lecteur entree) {
+            n = entree.entier();
+            ids = entree.longs(n);
+            types = entree.octets(n);
+            roles = entree.octets(n);
+            proprietaires = entree.longs(n);
+            xs = entree.entiers(n);
+            ys = entree.entiers(n);
+            valeursA = entree.entiers(n);
+            valeursB = entree.entiers(n);
+            valeursC = entree.entiers(n);
+            noms = entree.chaines(n);
+            descriptions = entree.chaines(n);
+        }
+
+        /**
+         * Ajoute l'inventaire puis les effets actifs d'un personnage.
+         */
+        void ajouterPossessions(Personnage p) {
+            for (Objet o : p.getInventaire()) {
+                ajouter(o, INVENTAIRE, p.getId());
+            }
+            for (ObjetUtilisable effet : p.getEffetsActifs()) {
+                ajouter((Objet) effet, EFFET, p.getId());
+            }
+        }
+
+        void ajouter(Objet o, byte role, long proprietaire) {
+            ids[n] = o.getId();
+            roles[n] = role;
+            proprietaires[n] = proprietaire;
+            Point2D p = o.getPos();
+            xs[n] = p == null ? 0 : p.getX();
+            ys[n] = p == null ? 0 : p.getY();
+            noms[n] = o.getNom();
+            descriptions[n] = o.getDescription();
+            switch (o) {
+                case PotionSoin potion -> {
+                    types[n] = POTION;
+                    valeursA[n] = potion.getpVie();
+                }
+                case Epee epee -> {
+                    types[n] = EPEE;
+                    valeursA[n] = epee.getpAtt();
+                    valeursB[n] = epee.getEffet() == null ? -1 : epee.getEffet().ordinal();
+                }
+                case Nourriture nourriture -> {
+                    types[n] = NOURRITURE;
+                    valeursA[n] = nourriture.getTypeNourriture().ordinal();
+                    valeursB[n] = nourriture.getCoolDown();
+                }
+                case NuageToxique nuage -> {
+                    types[n] = NUAGE;
+                    valeursA[n] = nuage.getDegatParTour();
+                    valeursB[n] = nuage.getTaille();
+                    valeursC[n] = nuage.getDuree();
+                }
+                default ->
+                    types[n] = OBJET;
+            }
+            n++;
+        }
+
+        void ecrire(Ecrivain sortie) throws IOException {
+            sortie.entier(n);
+            sortie.longs(ids, n);
+            sortie.octets(types, n);
+            sortie.octets(roles, n);
+            sortie.longs(proprietaires, n);
+            sortie.entiers(xs, n);
+            sortie.entiers(ys, n);
+            sortie.entiers(valeursA, n);
+            sortie.entiers(valeursB, n);
+            sortie.entiers(valeursC, n);
+            sortie.chaines(noms, n);
+            sortie.chaines(descriptions, n);
+        }
+
+        /**
+         * Recrée les objets : ceux du monde sont reposés sur la grille, les
+         * autres rendus à leur propriétaire. Un même objet peut figurer sur
+         * plusieurs lignes ; il n'est recréé qu'une fois.
+         */
+        void restaurer(World monde) {
+            monde.ListObjets.assurerCapacite(n);
+            monde.ListElementJeu.ensureCapacity(monde.ListElementJeu.size() + n);
+            for (int i = 0; i < n; i++) {
+                Objet o = ids[i] > 0 && monde.elementDe(ids[i]) instanceof Objet deja ? deja : null;
+                if (o == null) {
+                    o = recreer(i);
+                    if (ids[i] > 0) {
+                        monde.restaurer(o, ids[i]);
+                    }
+                }
+                switch (roles[i]) {
+                    case MONDE -> {
+                        monde.getGrille().placer(o);
+                        monde.ListObjets.add(o);
+                        monde.ListElementJeu.add(o);
+                    }
+                    case INVENTAIRE ->
+                        ((Personnage) monde.elementDe(proprietaires[i])).getInventaire().add(o);
+                    case EFFET ->
+                        ((Personnage) monde.elementDe(proprietaires[i])).getEffetsActifs().add((ObjetUtilisable) o);
+                    case HORS_MONDE -> {
+                        // seulement enregistré : son possesseur le reçoit ensuite
+                    }
+                    default -> {
+                        // rôle inconnu : l'objet est ignoré
+                    }
+                }
+            }
+        }
+
+        /**
+         * Construit l'objet d'une ligne, selon son type.
+         */
+        private Objet recreer(int i) {
+            Point2D p = Point2D.of(xs[i], ys[i]);
+            return switch (types[i]) {
+                case POTION ->
+                    new PotionSoin(noms[i], descriptions[i], p, valeursA[i]);
+                case EPEE ->
+                    new Epee(noms[i], descriptions[i], p, valeursA[i], valeursB[i] >= 0 ? ETATS_EPEE[valeursB[i]] : null);
+                case NOURRITURE -> {
+                    Nourriture nourriture = new Nourriture(NOURRITURES[valeursA[i]], noms[i], descriptions[i], p);
+                    nourriture.setCoolDown(valeursB[i]);
+                    yield nourriture;
+                }
+                case NUAGE ->
+                    new NuageToxique(noms[i], descriptions[i], p, valeursA[i], valeursB[i], valeursC[i]);
+                default ->
+                    new Objet(noms[i], descriptions[i], p);
+            };
+        }
+    }
+
+    /**
+     * Colonnes de la section des échéances : sujet, porteur (0 : aucun) et
+     * nombre de tours restants.
+     */
+    private static final class Echeances {
+
+        final long[] sujets;
+        final long[] porteurs;
+        final int[] restants;
+        final int n;
+
+        /**
+         * Colonnes relevées dans la roue d'un monde.
+         */
+        Echeances(RoueTemporelle roue) {
+            n = roue.getNbEcheances();
+            sujets = new long[n];
+            porteurs = new long[n];
+            restants = new int[n];
+            long maintenant = roue.getMaintenant();
+            int[] k = {0};
+            roue.parcourir((sujet, porteur, echeance) -> {
+                sujets[k[0]] = sujet.getId();
+                porteurs[k[0]] = porteur == null ? 0 : porteur.getId();
+                restants[k[0]] = (int) (echeance - maintenant);
+                k[0]++;
+            });
+        }
+
+        /**
+         * Colonnes lues dans le fichier.
+         */
+        Echeances(Lecteur entree) {
+            n = entree.entier();
+            sujets = entree.longs(n);
+            porteurs = entree.longs(n);
+            restants = entree.entiers(n);
+        }
+
+        void ecrire(Ecrivain sortie) throws IOException {
+            sortie.entier(n);
+            sortie.longs(sujets, n);
+            sortie.longs(porteurs, n);
+            sortie.entiers(restants, n);
+        }
+
+        /**
+         * Replanifie les échéances dans la roue du monde rechargé.
+         */
+        void restaurer(World monde) {
+            RoueTemporelle roue = monde.getRoue();
+            for (int i = 0; i < n; i++) {
+                ElementDeJeu sujet = monde.elementDe(sujets[i]);
+                if (sujet != null) {
+                    Personnage porteur = porteurs[i] == 0 ? null : (Personnage) monde.elementDe(porteurs[i]);
+                    roue.planifier(sujet, porteur, restants[i]);
+                }
+            }
+        }
+    }
+
+    // ================= ÉCRITURE ET LECTURE DES COLONNES =================
+    /**
+     * Écriture en petit-boutiste à travers un tampon direct, vidé dans le
+     * canal quand il est plein.
+     */
+    private static final class Ecrivain {
+
+        private final WritableByteChannel canal;
+        private final ByteBuffer tampon;
+
+        Ecrivain(WritableByteChannel canal, int capacite) {
+            this.canal = canal;
+            this.tampon = ByteBuffer.allocateDirect(capacite).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        void entier(int v) throws IOException {
+            place(4);
+            tampon.putInt(v);
+        }
+
+        void longEntier(long v) throws IOException {
+            place(8);
+            tampon.putLong(v);
+        }
+
+        void octets(byte[] a, int n) throws IOException {
+            for (int i = 0; i < n;) {
+                int k = Math.min(n - i, place(1));
+                tampon.put(a, i, k);
+                i += k;
+            }
+        }
+
+        void entiers(int[] a, int n) throws IOException {
+            for (int i = 0; i < n;) {
+                int k = Math.min(n - i, place(4) / 4);
+                tampon.asIntBuffer().put(a, i, k);
+                tampon.position(tampon.position() + 4 * k);
+                i += k;
+            }
+        }
+
+        void longs(long[] a, int n) throws IOException {
+            for (int i = 0; i < n;) {
+                int k = Math.min(n - i, place(8) / 8);
+                tampon.asLongBuffer().put(a, i, k);
+                tampon.position(tampon.position() + 8 * k);
+                i += k;
+            }
+        }
+
+        /**
+         * Colonne des longueurs, puis octets UTF-8 de toutes les chaînes.
+         */
+        void chaines(String[] a, int n) throws IOException {
+            byte[][] encodees = new byte[n][];
+            int[] longueurs = new int[n];
+            for (int i = 0; i < n; i++) {
+                encodees[i] = a[i] == null ? null : a[i].getBytes(StandardCharsets.UTF_8);
+                longueurs[i] = a[i] == null ? -1 : encodees[i].length;
+            }
+            entiers(longueurs, n);
+            for (int i = 0; i < n; i++) {
+                if (encodees[i] != null) {
+                    octets(encodees[i], encodees[i].length);
+                }
+            }
+        }
+
+        /**
+         * Vide le tampon si moins de {@code minimum} octets y sont libres.
+         *
+         * @return le nombre d'octets libres
+         */
+        private int place(int minimum) throws IOException {
+            if (tampon.remaining() < minimum) {
+                vider();
+            }
+            return tampon.remaining();
+        }
+
+        void vider() throws IOException {
+            tampon.flip();
+            while (tampon.hasRemaining()) {
+                canal.write(tampon);
+            }
+            tampon.clear();
+        }
+    }
+
+    /**
+     * Lecture des colonnes d'un fichier projeté en mémoire.
+     */
+    private static final class Lecteur {
+
+        private final ByteBuffer tampon;
+
+        Lecteur(ByteBuffer tampon) {
+            this.tampon = tampon;
+        }
+
+        int entier() {
+            return tampon.getInt();
+        }
+
+        long longEntier() {
+            return tampon.getLong();
+        }
+
+        byte[] octets(int n) {
+            byte[] a = new byte[n];
+            tampon.get(a);
+            return a;
+        }
+
+        int[] entiers(int n) {
+            int[] a = new int[n];
+            tampon.asIntBuffer().get(a);
+            tampon.position(tampon.position() + 4 * n);
+            return a;
+        }
+
+        long[] longs(int n) {
+            long[] a = new long[n];
+            tampon.asLongBuffer().get(a);
+            tampon.position(tampon.position() + 8 * n);
+            return a;
+        }
+
+        String[] chaines(int n) {
+            int[] longueurs = entiers(n);
+            String[] a = new String[n];
+            byte[] octets = new byte[64];
+            for (int i = 0; i < n; i++) {
+                int longueur = longueurs[i];
+                if (longueur >= 0) {
+                    if (longueur > octets.length) {
+                        octets = new byte[Math.max(longueur, 2 * octets.length)];
+                    }
+                    tampon.get(octets, 0, longueur);
+                    a[i] = new String(octets, 0, longueur, StandardCharsets.UTF_8);
+                }
+            }
+            return a;
+        }
+    }
+}
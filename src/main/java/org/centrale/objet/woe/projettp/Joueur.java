@@ -5,9 +5,9 @@
 package org.centrale.objet.woe.projettp;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.Scanner;
-import java.util.Set;
+import java.util.NoSuchElementException;
 
 /**
  * Classe {@code Joueur} représentant un joueur humain dans le monde WoE.
@@ -26,8 +26,9 @@ import java.util.Set;
  *
  * <p>
  * Cette classe gère la boucle d’interaction principale du joueur (menu
- * console), permettant de choisir les actions à effectuer à chaque tour. Le
- * joueur agit uniquement via des entrées utilisateur fournies par la console.
+ * console), permettant de choisir les actions à effectuer à chaque tour. Les
+ * choix viennent d’une {@link SourceCommandes} : la console par défaut, ou un
+ * script pour une simulation sans terminal.
  * </p>
  *
  * @author srodr
@@ -47,15 +48,38 @@ public class Joueur implements Analyze {
      */
     private boolean actionEffectuee;
 
-    // ===================== CONSTRUCTEUR =====================
+    /**
+     * Source des choix du joueur (console ou script).
+     */
+    private final SourceCommandes commandes;
+
+    // ===================== CONSTRUCTEURS =====================
     /**
      * Constructeur par défaut.
      * <p>
-     * Initialise un joueur sans héros et avec aucune action effectuée.
+     * Initialise un joueur sans héros, avec aucune action effectuée, qui lit
+     * ses choix sur la console.
      * </p>
      */
     public Joueur() {
+        this(new CommandesConsole());
+    }
+
+    /**
+     * Construit un joueur sans héros qui lit ses choix dans la source donnée.
+     *
+     * @param commandes source des choix du joueur
+     */
+    public Joueur(SourceCommandes commandes) {
         this.actionEffectuee = false;
+        this.commandes = commandes;
+    }
+
+    /**
+     * @return la source des choix du joueur
+     */
+    public SourceCommandes getCommandes() {
+        return commandes;
     }
 
     // ===================== MÉTHODE PRINCIPALE =====================
@@ -66,14 +90,35 @@ public class Joueur implements Analyze {
      * entités présentes : déplacement, attaque, interaction, utilisation
      * d’objet ou inactivité.
      * </p>
+     * <p>
+     * Un joueur sans héros, dont le héros est mort ou dont la source de
+     * choix est épuisée ne fait rien.
+     * </p>
      *
-     * @param positionWorld Ensemble des positions actuellement occupées
+     * @param grille Grille d’occupation des cases du monde
      * @param creatures Liste des créatures présentes dans le monde
      * @param objets Liste des objets disponibles dans le monde
      */
     @Override
-    public void analyzer(Set<Point2D> positionWorld, List<Creature> creatures, List<Objet> objets, int tailleMonde) {
-        Scanner sc = new Scanner(System.in);
+    public void analyzer(GrilleOccupation grille, List<Creature> creatures, Collection<Objet> objets, int tailleMonde) {
+        if (this.hero == null || !this.hero.isEtat() || commandes.estEpuisee()) {
+            return;
+        }
+        try {
+            choisirAction(grille, creatures, objets, tailleMonde);
+        } catch (NoSuchElementException e) {
+            if (!commandes.estEpuisee()) {
+                throw e;
+            }
+            // script terminé au milieu d’une action : le héros s’arrête là
+        }
+    }
+
+    /**
+     * Affiche le menu et exécute les choix jusqu’à ce qu’une action ait été
+     * effectuée.
+     */
+    private void choisirAction(GrilleOccupation grille, List<Creature> creatures, Collection<Objet> objets, int tailleMonde) {
         Point2D posHero = this.hero.getPos();
 
         do {
@@ -85,35 +130,27 @@ public class Joueur implements Analyze {
 
             // 1️⃣ Déplacement
             options.add("Se déplacer");
-            actions.add(() -> deplacerController(creatures, tailleMonde));
+            actions.add(() -> deplacerController(grille, tailleMonde));
 
             // 2️⃣ Attaque (si cibles proches)
             List<Creature> ciblesAdjacentes = new ArrayList<>();
-            for (Creature c : creatures) {
-                double dx = Math.abs(c.getPos().getX() - posHero.getX());
-                double dy = Math.abs(c.getPos().getY() - posHero.getY());
-                if (dx <= this.hero.getDistAttMax() && dy <= this.hero.getDistAttMax() && !(dx == 0 && dy == 0)) {
-                    ciblesAdjacentes.add(c);
-                }
-            }
+            grille.creaturesDansCarre(posHero.getX(), posHero.getY(), this.hero.getDistAttMax(), ciblesAdjacentes);
             if (!ciblesAdjacentes.isEmpty()) {
                 options.add("Attaquer");
-                actions.add(() -> attaqueController(ciblesAdjacentes, positionWorld, creatures));
+                actions.add(() -> attaqueController(ciblesAdjacentes, grille, creatures));
             }
 
-            // 3️⃣ Interaction avec un objet présent
-            for (Objet o : objets) {
-                if (o.getPosition().equals(posHero)) {
-                    options.add("Interagir avec l'objet");
-                    actions.add(() -> interactionController(o, positionWorld, objets));
-                    break;
-                }
+            // 3️⃣ Interaction avec un objet présent (lu dans la grille)
+            Objet o = grille.getObjet(posHero.getX(), posHero.getY());
+            if (o != null) {
+                options.add("Interagir avec l'objet");
+                actions.add(() -> interactionController(o, grille, objets));
             }
 
             // 4️⃣ Utiliser un objet de l’inventaire
             if (!hero.getInventaire().isEmpty()) {
                 options.add("Utiliser un objet de l'inventaire");
-                actions.add(this::utiliserObjetController);
+                actions.add(() -> utiliserObjetController(grille));
             }
 
             // 5️⃣ Ne rien faire
@@ -129,7 +166,7 @@ public class Joueur implements Analyze {
             }
 
             System.out.println("Sélectionnez une option : ");
-            int choix = sc.nextInt();
+            int choix = commandes.lireEntier();
 
             if (choix > 0 && choix <= actions.size()) {
                 actions.get(choix - 1).run();
@@ -145,12 +182,10 @@ public class Joueur implements Analyze {
      * Gère le déplacement du héros, en vérifiant qu’aucune créature n’occupe la
      * case cible.
      *
-     * @param creatures Liste de toutes les créatures pour détecter les
-     * collisions
+     * @param grille Grille d’occupation pour détecter les collisions
      * @param tailleMonde
      */
-    public void deplacerController(List<Creature> creatures, int tailleMonde) {
-        Scanner sc = new Scanner(System.in);
+    public void deplacerController(GrilleOccupation grille, int tailleMonde) {
         boolean choixValide;
 
         do {
@@ -158,7 +193,7 @@ public class Joueur implements Analyze {
             System.out.println("Vous pouvez vous déplacer d'une case adjacente ou retourner au menu principal.");
             System.out.println("0-Retour | 1-Haut | 2-Bas | 3-Gauche | 4-Droite | 5-Haut-Gauche | 6-Haut-Droite | 7-Bas-Gauche | 8-Bas-Droite");
 
-            int choix = sc.nextInt();
+            int choix = commandes.lireEntier();
             int dx = 0, dy = 0;
 
             if (choix == 0) {
@@ -200,22 +235,26 @@ public class Joueur implements Analyze {
             }
 
             Point2D currentPos = this.hero.getPos();
-            Point2D newPos = new Point2D(currentPos.getX() + dx, currentPos.getY() + dy);
+            int nx = currentPos.getX() + dx;
+            int ny = currentPos.getY() + dy;
 
             // Vérification des limites du monde
-            if (newPos.getX() < 0 || newPos.getX() >= tailleMonde || newPos.getY() < 0 || newPos.getY() >= tailleMonde) {
+            if (nx < 0 || nx >= tailleMonde || ny < 0 || ny >= tailleMonde) {
                 System.out.println("❌ Déplacement hors du monde impossible !");
                 choixValide = false;
                 continue;
             }
 
-            boolean bloque = creatures.stream().anyMatch(c -> c.getPos().equals(newPos));
+            // Seule une créature bloque le passage : le héros peut marcher sur un objet
+            boolean bloque = grille.getCreature(nx, ny) != null;
 
             if (bloque) {
                 System.out.println("❌ Une créature bloque le passage !");
                 choixValide = false;
             } else {
+                grille.retirer(this.hero);
                 this.hero.deplacer(dx, dy);
+                grille.placer(this.hero);
                 System.out.println("✅ Déplacement effectué vers : " + this.hero.getPos());
                 actionEffectuee = true;
             }
@@ -227,12 +266,11 @@ public class Joueur implements Analyze {
      * Gère le système d’attaque du joueur contre les créatures proches.
      *
      * @param ciblesAdjacentes Liste des créatures à portée d’attaque
-     * @param positionWorld Ensemble des positions occupées
+     * @param grille Grille d’occupation des cases du monde
      * @param creatures Liste complète des créatures (pour mise à jour après
      * combat)
      */
-    public void attaqueController(List<Creature> ciblesAdjacentes, Set<Point2D> positionWorld, List<Creature> creatures) {
-        Scanner sc = new Scanner(System.in);
+    public void attaqueController(List<Creature> ciblesAdjacentes, GrilleOccupation grille, List<Creature> creatures) {
         boolean choixValide;
 
         do {
@@ -249,12 +287,12 @@ public class Joueur implements Analyze {
             System.out.println(optionNeRienFaire + " - Ne rien faire");
             System.out.println(optionRetour + " - Retour");
             System.out.println("Sélectionnez une option :");
-            int choix = sc.nextInt();
+            int choix = commandes.lireEntier();
 
             if (choix > 0 && choix <= ciblesAdjacentes.size()) {
                 Creature cible = ciblesAdjacentes.get(choix - 1);
                 if (hero instanceof Combattant combattant) {
-                    combattant.combattre(cible, positionWorld, creatures);
+                    combattant.combattre(cible, grille, creatures);
                     actionEffectuee = true;
                 } else {
                     System.out.println(hero.getNom() + " ne peut pas attaquer !");
@@ -281,12 +319,11 @@ public class Joueur implements Analyze {
      * </ul>
      *
      * @param o Objet sur la même case que le joueur
-     * @param positionWorld Ensemble des positions occupées
+     * @param grille Grille d’occupation des cases du monde
      * @param objets Liste des objets existants dans le monde (mise à jour en
      * cas de retrait)
      */
-    public void interactionController(Objet o, Set<Point2D> positionWorld, List<Objet> objets) {
-        Scanner sc = new Scanner(System.in);
+    public void interactionController(Objet o, GrilleOccupation grille, Collection<Objet> objets) {
         boolean choixValide = false;
 
         do {
@@ -295,20 +332,18 @@ public class Joueur implements Analyze {
             System.out.println("2 - Ajouter à l'inventaire");
             System.out.println("0 - Retour");
 
-            int choix = sc.nextInt();
+            int choix = commandes.lireEntier();
 
             switch (choix) {
                 case 1 -> {
-                    this.hero.prendObjet(o, positionWorld);
-                    objets.remove(o);
+                    this.hero.prendObjet(o, grille, objets);
                     actionEffectuee = true;
                     choixValide = true;
                 }
                 case 2 -> {
                     if (o instanceof ObjetUtilisable) {
                         hero.getInventaire().add(o);
-                        positionWorld.remove(o.getPosition());
-                        objets.remove(o);
+                        grille.getCommandes().retirerObjet(o, objets);
                         System.out.println(o.getNom() + " ajouté à l'inventaire.");
                         actionEffectuee = true;
                         choixValide = true;
@@ -331,11 +366,12 @@ public class Joueur implements Analyze {
      * Permet au joueur d’utiliser un objet de son inventaire.
      * <p>
      * Si l’objet implémente {@link ObjetUtilisable}, son effet est appliqué au
-     * héros puis l’objet est retiré de l’inventaire.
+     * héros, pour sa durée, puis l’objet est retiré de l’inventaire.
      * </p>
+     *
+     * @param grille Grille d’occupation des cases du monde
      */
-    public void utiliserObjetController() {
-        Scanner sc = new Scanner(System.in);
+    public void utiliserObjetController(GrilleOccupation grille) {
         List<Objet> inventaire = hero.getInventaire();
 
         if (inventaire.isEmpty()) {
@@ -350,7 +386,7 @@ public class Joueur implements Analyze {
         }
         System.out.println("0 - Retour");
 
-        int choix = sc.nextInt();
+        int choix = commandes.lireEntier();
         if (choix == 0) {
             System.out.println("Retour...");
             actionEffectuee = false;
@@ -364,7 +400,7 @@ public class Joueur implements Analyze {
 
         Objet objet = inventaire.get(choix - 1);
         if (objet instanceof ObjetUtilisable objetUtilisable) {
-            objetUtilisable.appliquerEffet(hero);
+            hero.activerEffet(objetUtilisable, grille);
             hero.getInventaire().remove(objet);
             System.out.println("✅ Vous avez utilisé : " + objet.getNom());
             actionEffectuee = true;
@@ -0,0 +1,312 @@
+package org.centrale.objet.woe.projettp;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Le {@code JournalEvenements} remplace les {@code System.out.println} des
+ * méthodes appelées à chaque tour (déplacements, combats, morts, ramassages).
+ * <p>
+ * Chaque événement est une poignée de valeurs primitives (type, acteur,
+ * cible, valeur, case) rangée dans un tampon circulaire, sans allocation ni
+ * verrou : un compteur atomique attribue une place à chaque producteur, et
+ * une séquence par place publie l'événement. Plusieurs threads du
+ * {@link MoteurTuiles} peuvent donc écrire en même temps. Un thread unique
+ * lit le tampon et transmet les événements, dans l'ordre des places, au
+ * {@link ConsommateurEvenements} installé : console, fichier binaire ou
+ * aucun.
+ * </p>
+ *
+ * <p>
+ * Sans consommateur (situation par défaut, ou après
+ * {@code installer(ConsommateurEvenements.AUCUN)}), chaque appel se réduit à
+ * la lecture d'un booléen. Si le lecteur prend du retard au point de remplir
+ * le tampon, les producteurs l'attendent : aucun événement n'est perdu.
+ * Un consommateur qui lève une exception désactive le journal ; l'exception
+ * est remise au gestionnaire des exceptions non rattrapées du thread lecteur
+ * ({@link Thread#setDefaultUncaughtExceptionHandler}).
+ * </p>
+ *
+ * @author srodr
+ */
+public final class JournalEvenements {
+
+    // ================= ATTRIBUTS =================
+    /**
+     * Nombre de places du tampon (puissance de deux)
+     */
+    private static final int CAPACITE = 1 << 16;
+
+    private static final int MASQUE = CAPACITE - 1;
+
+    /**
+     * Colonnes des événements, indexées par place
+     */
+    private static final int[] TYPES = new int[CAPACITE];
+    private static final long[] ACTEURS = new long[CAPACITE];
+    private static final long[] CIBLES = new long[CAPACITE];
+    private static final int[] VALEURS = new int[CAPACITE];
+    private static final int[] XS = new int[CAPACITE];
+    private static final int[] YS = new int[CAPACITE];
+
+    /**
+     * Pour chaque place, numéro de l'événement qui y est publié, plus un
+     */
+    private static final AtomicLongArray PUBLIES = new AtomicLongArray(CAPACITE);
+
+    /**
+     * Numéro du prochain événement à réserver
+     */
+    private static final AtomicLong RESERVES = new AtomicLong();
+
+    /**
+     * Numéro du prochain événement à lire (écrit par le lecteur seul)
+     */
+    private static volatile long lus;
+
+    /**
+     * Nombre d'événements lus au dernier {@link ConsommateurEvenements#terminerLot()}
+     */
+    private static volatile long transmis;
+
+    private static volatile boolean actif;
+    private static volatile boolean arret;
+    private static ConsommateurEvenements consommateur = ConsommateurEvenements.AUCUN;
+    private static Thread lecteur;
+
+    private JournalEvenements() {
+    }
+
+    // ================= CONFIGURATION =================
+    /**
+     * Remplace le consommateur des événements. L'ancien consommateur reçoit
+     * d'abord tous les événements en attente, puis est fermé.
+     * <p>
+     * À appeler entre deux tours, jamais pendant.
+     * </p>
+     *
+     * @param nouveau consommateur à installer ({@link ConsommateurEvenements#AUCUN}
+     * pour désactiver le journal)
+     */
+    public static synchronized void installer(ConsommateurEvenements nouveau) {
+        arreter();
+        if (nouveau != null && nouveau != ConsommateurEvenements.AUCUN) {
+            consommateur = nouveau;
+            arret = false;
+            // le nouveau lecteur part du prochain événement, même si le
+            // précédent s'est arrêté sur une erreur
+            long suivant = RESERVES.get();
+            lus = suivant;
+            transmis = suivant;
+            lecteur = new Thread(JournalEvenements::lire, "journal-evenements");
+            lecteur.setDaemon(true);
+            lecteur.start();
+            actif = true;
+        }
+    }
+
+    /**
+     * Transmet les événements en attente, ferme le consommateur et désactive
+     * le journal.
+     */
+    public static void fermer() {
+        installer(ConsommateurEvenements.AUCUN);
+    }
+
+    /**
+     * @return {@code true} si les événements sont enregistrés
+     */
+    public static boolean estActif() {
+        return actif;
+    }
+
+    /**
+     * Attend que tous les événements déjà produits aient été transmis au
+     * consommateur et que celui-ci ait terminé son lot.
+     */
+    public static void vider() {
+        Thread l = lecteur;
+        if (!actif || l == null) {
+            return;
+        }
+        long cible = RESERVES.get();
+        while (transmis < cible && l.isAlive()) {
+            LockSupport.unpark(l);
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Arrête le lecteur après qu'il a tout transmis, puis ferme le
+     * consommateur.
+     */
+    private static void arreter() {
+        if (lecteur == null) {
+            return;
+        }
+        actif = false;
+        arret = true;
+        LockSupport.unpark(lecteur);
+        boolean interrompu = false;
+        while (lecteur.isAlive()) {
+            try {
+                lecteur.join();
+            } catch (InterruptedException e) {
+                interrompu = true;
+            }
+        }
+        if (interrompu) {
+            Thread.currentThread().interrupt();
+        }
+        lecteur = null;
+        try {
+            consommateur.fermer();
+        } finally {
+            consommateur = ConsommateurEvenements.AUCUN;
+        }
+    }
+
+    // ================= LECTURE =================
+    /**
+     * Boucle du thread lecteur.
+     */
+    private static void lire() {
+        ConsommateurEvenements c = consommateur;
+        long seq = lus;
+        try {
+            while (true) {
+                int i = (int) seq & MASQUE;
+                if (PUBLIES.get(i) == seq + 1) {
+                    c.consommer(TypeEvenement.deRang(TYPES[i]), ACTEURS[i], CIBLES[i], VALEURS[i], XS[i], YS[i]);
+                    seq++;
+                    if ((seq & 1023) == 0) {
+                        lus = seq; // libère les places pour les producteurs
+                    }
+                } else if (transmis != seq) {
+                    lus = seq;
+                    c.terminerLot();
+                    transmis = seq;
+                } else if (arret && RESERVES.get() == seq) {
+                    return;
+                } else {
+                    LockSupport.parkNanos(100_000);
+                }
+            }
+        } catch (RuntimeException e) {
+            // un consommateur défaillant désactive le journal sans bloquer le
+            // monde : les places sont rendues aux producteurs, le lecteur
+            // s'arrête et l'erreur est confiée à son gestionnaire
+            actif = false;
+            long suivant = RESERVES.get();
+            lus = suivant;
+            transmis = suivant;
+            Thread t = Thread.currentThread();
+            t.getUncaughtExceptionHandler().uncaughtException(t, e);
+        }
+    }
+
+    // ================= ÉCRITURE =================
+    /**
+     * Enregistre un événement.
+     */
+    private static void publier(TypeEvenement type, long acteur, long cible, int valeur, int x, int y) {
+        long seq = RESERVES.getAndIncrement();
+        while (seq - lus >= CAPACITE) {
+            Thread.onSpinWait(); // tampon plein : on attend le lecteur
+        }
+        int i = (int) seq & MASQUE;
+        TYPES[i] = type.ordinal();
+        ACTEURS[i] = acteur;
+        CIBLES[i] = cible;
+        VALEURS[i] = valeur;
+        XS[i] = x;
+        YS[i] = y;
+        PUBLIES.set(i, seq + 1);
+    }
+
+    /**
+     * Début d'un tour.
+     *
+     * @param numero numéro du tour
+     */
+    public static void tour(int numero) {
+        if (actif) {
+            publier(TypeEvenement.TOUR, 0, 0, numero, 0, 0);
+        }
+    }
+
+    /**
+     * Un élément arrive sur une case.
+     *
+     * @param e élément déplacé
+     * @param x abscisse d'arrivée
+     * @param y ordonnée d'arrivée
+     */
+    public static void deplacement(ElementDeJeu e, int x, int y) {
+        if (actif) {
+            publier(TypeEvenement.DEPLACEMENT, e.getId(), 0, 0, x, y);
+        }
+    }
+
+    /**
+     * Un élément n'a trouvé aucune case libre.
+     *
+     * @param e élément bloqué
+     */
+    public static void blocage(ElementDeJeu e) {
+        if (actif) {
+            publier(TypeEvenement.BLOCAGE, e.getId(), 0, 0, e.getPos().getX(), e.getPos().getY());
+        }
+    }
+
+    /**
+     * Résultat d'une attaque, à enregistrer une fois les dégâts appliqués.
+     *
+     * @param type {@link TypeEvenement#ATTAQUE}, {@link TypeEvenement#PARADE},
+     * {@link TypeEvenement#ECHEC} ou {@link TypeEvenement#NUAGE}
+     * @param attaquant élément qui attaque
+     * @param cible créature visée
+     */
+    public static void combat(TypeEvenement type, ElementDeJeu attaquant, Creature cible) {
+        if (actif) {
+            publier(type, attaquant.getId(), cible.getId(), cible.getPtVie(), cible.getPos().getX(), cible.getPos().getY());
+        }
+    }
+
+    /**
+     * Une créature meurt.
+     *
+     * @param c créature morte
+     */
+    public static void mort(Creature c) {
+        if (actif) {
+            publier(TypeEvenement.MORT, c.getId(), 0, 0, c.getPos().getX(), c.getPos().getY());
+        }
+    }
+
+    /**
+     * Un élément ramasse un objet.
+     *
+     * @param e élément qui ramasse
+     * @param o objet ramassé
+     */
+    public static void ramassage(ElementDeJeu e, Objet o) {
+        if (actif) {
+            publier(TypeEvenement.RAMASSAGE, e.getId(), o.getId(), 0, o.getPos().getX(), o.getPos().getY());
+        }
+    }
+
+    /**
+     * Un effet temporaire prend fin.
+     *
+     * @param porteur élément qui portait l'effet (le nuage lui-même pour une
+     * dissipation)
+     * @param effet effet ou nuage arrivé à terme
+     */
+    public static void expiration(ElementDeJeu porteur, ElementDeJeu effet) {
+        if (actif) {
+            publier(TypeEvenement.EXPIRATION, porteur.getId(), effet.getId(), 0, porteur.getPos().getX(), porteur.getPos().getY());
+        }
+    }
+}
@@ -0,0 +1,897 @@
+package org.centrale.objet.woe.projettp;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * La classe {@code JournalTours} enregistre, à la suite d'un
+ * {@link InstantaneMonde}, ce qui a changé dans le monde à chaque tour. Après
+ * un arrêt brutal, {@link #reprendre(Path, Path)} recharge l'instantané puis
+ * rejoue le journal : seuls les tours qui suivent la dernière validation sont
+ * perdus.
+ * <p>
+ * Le journal garde une « ombre » du monde, rangée par identifiant : position,
+ * caractéristiques et drapeaux de chaque créature, position de chaque objet
+ * posé, possessions de chaque personnage. À la fin d'un tour
+ * ({@link World#executerTour(Joueur)} appelle {@link #noterTour(World)}), il
+ * compare le monde à son ombre et n'écrit que les différences :
+ * </p>
+ * <ol>
+ * <li>créatures modifiées : masque des champs changés puis, pour chacun,
+ * l'écart à l'ancienne valeur (déplacement, points de vie, parade,
+ * caractéristiques, flèches) ; les drapeaux (vivante ou morte) sont écrits
+ * tels quels ;</li>
+ * <li>objets déplacés (nuages) : écart de position ;</li>
+ * <li>objets retirés du monde (ramassés ou dissipés) ;</li>
+ * <li>apparitions : créatures et objets entrés dans le monde, au format des
+ * sections de l'instantané ;</li>
+ * <li>possessions modifiées : inventaire et effets actifs du personnage,
+ * avec l'échéance des nouveaux effets.</li>
+ * </ol>
+ * <p>
+ * Les entiers sont des varints ; les identifiants d'une liste sont écrits en
+ * écart au précédent et les écarts signés en zigzag, si bien qu'un tour
+ * ordinaire tient en quelques octets par créature modifiée. Chaque tour est
+ * précédé de sa longueur et de son CRC-32C : un dernier tour écrit à moitié
+ * est reconnu et ignoré à la reprise.
+ * </p>
+ *
+ * <p>
+ * Les tours passent par un tampon direct et ne sont écrits dans le
+ * {@link FileChannel}, puis forcés sur le disque, que par groupe : tous les
+ * {@code toursParGroupe} tours, ou dès que le dernier forçage date de plus de
+ * {@code delaiGroupe} millisecondes. Un seul {@code force} couvre ainsi tout
+ * un groupe de tours.
+ * </p>
+ *
+ * @author srodr
+ */
+public class JournalTours {
+
+    // ================= ATTRIBUTS =================
+    /**
+     * Version du format
+     */
+    public static final int VERSION = 1;
+
+    private static final byte[] MAGIQUE = {'W', 'O', 'E', 'T'};
+
+    /**
+     * Taille de l'en-tête : magique, version, graine, taille du monde, tour
+     * de départ
+     */
+    private static final int TAILLE_EN_TETE = 4 + 4 + 8 + 4 + 4;
+
+    /**
+     * Genre d'un identifiant dans l'ombre : inconnu, créature, objet posé,
+     * objet connu mais posé nulle part (ramassé, possédé)
+     */
+    private static final byte AUCUN = 0;
+    private static final byte CREATURE = 1;
+    private static final byte OBJET_POSE = 2;
+    private static final byte OBJET_CONNU = 3;
+
+    /**
+     * Champs d'une créature, dans l'ordre des bits du masque : position,
+     * puis caractéristiques, puis drapeaux
+     */
+    private static final int X = 0;
+    private static final int Y = 1;
+    private static final int NB_CARACTERISTIQUES = 8;
+    private static final int DRAPEAUX = 2 + NB_CARACTERISTIQUES;
+
+    private static final int VIVANTE = 1;
+
+    private final FileChannel canal;
+    private final ByteBuffer tampon = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+    private final CRC32C crc = new CRC32C();
+
+    private final int toursParGroupe;
+    private final long delaiGroupe;
+    private int toursEnAttente;
+    private long dernierForcage;
+
+    // ================= OMBRE =================
+    /**
+     * Dernier identifiant connu de l'ombre
+     */
+    private long connu;
+
+    private byte[] genres = new byte[0];
+
+    /**
+     * Dernier tour où chaque élément a été vu
+     */
+    private int[] vus = new int[0];
+
+    private int[] xs = new int[0];
+    private int[] ys = new int[0];
+    private int[][] caracteristiques = new int[NB_CARACTERISTIQUES][0];
+    private byte[] drapeaux = new byte[0];
+
+    /**
+     * Possessions de chaque personnage ({@code null} : aucune) : taille de
+     * l'inventaire, identifiants de l'inventaire puis des effets actifs
+     */
+    private long[][] possessions = new long[0][];
+
+    /**
+     * Nombre d'objets posés dans l'ombre
+     */
+    private int nbPoses;
+
+    // ================= TOUR EN COURS =================
+    private final Octets sectionCreatures = new Octets();
+    private final Octets sectionObjets = new Octets();
+    private final Octets sectionRetraits = new Octets();
+    private final Octets sectionPossessions = new Octets();
+    private final Octets enregistrement = new Octets();
+    private final int[] ecarts = new int[DRAPEAUX + 1];
+    private final List<Creature> creaturesApparues = new ArrayList<>();
+    private final List<Objet> objetsApparus = new ArrayList<>();
+    private final List<Objet> objetsPossedes = new ArrayList<>();
+
+    /**
+     * Échéances de la roue par identifiant de sujet, relevées au plus une
+     * fois par tour
+     */
+    private HashMap<Long, Long> echeances;
+
+    private int nbCreatures;
+    private int nbObjets;
+    private int nbRetraits;
+    private int nbPossessions;
+    private long precedentCreature;
+    private long precedentObjet;
+    private long precedentRetrait;
+    private long precedentPossession;
+
+    // ================= CONSTRUCTEUR =================
+    private JournalTours(FileChannel canal, int toursParGroupe, long delaiGroupe) {
+        this.canal = canal;
+        this.toursParGroupe = Math.max(1, toursParGroupe);
+        this.delaiGroupe = delaiGroupe * 1_000_000L;
+        this.dernierForcage = System.nanoTime();
+    }
+
+    /**
+     * Ouvre un journal qui forcera ses écritures tous les 16 tours ou toutes
+     * les 200 ms.
+     *
+     * @param monde monde à suivre
+     * @param fichier fichier à créer ou remplacer
+     * @return le journal, déjà branché sur le monde
+     * @throws IOException si le fichier ne peut pas être créé
+     * @see #ouvrir(World, Path, int, long)
+     */
+    public static JournalTours ouvrir(World monde, Path fichier) throws IOException {
+        return ouvrir(monde, fichier, 16, 200);
+    }
+
+    /**
+     * Ouvre un nouveau journal sur un monde, juste après l'écriture de son
+     * instantané : l'état courant du monde sert d'ombre de départ et le
+     * journal est branché sur le monde ({@link World#setJournal}).
+     *
+     * @param monde monde à suivre
+     * @param fichier fichier à créer ou remplacer
+     * @param toursParGroupe nombre de tours au plus entre deux forçages
+     * @param delaiGroupe délai au plus entre deux forçages, en millisecondes
+     * @return le journal
+     * @throws IOException si le fichier ne peut pas être créé
+     */
+    public static JournalTours ouvrir(World monde, Path fichier, int toursParGroupe, long delaiGroupe) throws IOException {
+        FileChannel canal = FileChannel.open(fichier, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        JournalTours journal = new JournalTours(canal, toursParGroupe, delaiGroupe);
+        journal.tampon.put(MAGIQUE).putInt(VERSION).putLong(monde.getAlea().getGraine())
+                .putInt(monde.TAILLE_MONDE).putInt(monde.getNbToursJoues());
+        journal.photographier(monde);
+        journal.valider();
+        monde.setJournal(journal);
+        return journal;
+    }
+
+    // ================= ÉCRITURE =================
+    /**
+     * Enregistre les changements du tour qui s'achève (appelée par
+     * {@link World#executerTour(Joueur)}, après la fin des effets et avant
+     * le retrait des morts).
+     *
+     * @param monde monde suivi
+     */
+    public void noterTour(World monde) {
+        int tour = monde.getNbToursJoues();
+        agrandirOmbre(monde.getDernierId());
+        commencerTour();
+
+        for (Creature c : monde.ListCreature) {
+            noterCreature(c, tour, monde);
+        }
+        Personnage heros = monde.getHeros();
+        if (heros != null && vus[(int) heros.getId()] != tour) {
+            noterCreature(heros, tour, monde);
+        }
+
+        int anciensVus = 0;
+        for (Objet o : monde.ListObjets) {
+            int id = (int) o.getId();
+            if (genres[id] == OBJET_POSE) {
+                anciensVus++;
+                noterObjet(o, id);
+            } else {
+                objetsApparus.add(o);
+                retenirObjet(o, id);
+            }
+            vus[id] = tour;
+        }
+        if (anciensVus < nbPoses) {
+            noterRetraits(tour);
+        }
+        nbPoses += objetsApparus.size();
+
+        try {
+            ecrireTour(tour, monde.getDernierId());
+            if (++toursEnAttente >= toursParGroupe || System.nanoTime() - dernierForcage >= delaiGroupe) {
+                valider();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Écrit dans le fichier tous les tours en attente et les force sur le
+     * disque.
+     *
+     * @throws IOException si l'écriture échoue
+     */
+    public void valider() throws IOException {
+        vider();
+        canal.force(false);
+        toursEnAttente = 0;
+        dernierForcage = System.nanoTime();
+    }
+
+    /**
+     * Valide les tours en attente et ferme le fichier.
+     *
+     * @throws IOException si l'écriture échoue
+     */
+    public void fermer() throws IOException {
+        try {
+            valider();
+        } finally {
+            canal.close();
+        }
+    }
+
+    /**
+     * Relève l'état de départ du monde dans l'ombre, sans rien écrire.
+     */
+    private void photographier(World monde) {
+        connu = 0;
+        agrandirOmbre(monde.getDernierId());
+        for (Creature c : monde.ListCreature) {
+            retenirCreature(c, (int) c.getId());
+        }
+        if (monde.getHeros() != null) {
+            retenirCreature(monde.getHeros(), (int) monde.getHeros().getId());
+        }
+        for (Objet o : monde.ListObjets) {
+            retenirObjet(o, (int) o.getId());
+            nbPoses++;
+        }
+    }
+
+    /**
+     * Compare une créature à son ombre.
+     */
+    private void noterCreature(Creature c, int tour, World monde) {
+        int id = (int) c.getId();
+        vus[id] = tour;
+        if (genres[id] != CREATURE) {
+            // apparition : ses possessions éventuelles sont écrites à part
+            creaturesApparues.add(c);
+            retenirEtat(c, id);
+            possessions[id] = null;
+        }
+
+        int masque = 0;
+        ecarts[X] = c.getPos().getX() - xs[id];
+        ecarts[Y] = c.getPos().getY() - ys[id];
+        for (int k = 0; k < NB_CARACTERISTIQUES; k++) {
+            ecarts[2 + k] = caracteristique(c, k) - caracteristiques[k][id];
+        }
+        for (int k = 0; k < DRAPEAUX; k++) {
+            if (ecarts[k] != 0) {
+                masque |= 1 << k;
+            }
+        }
+        int nouveaux = c.isEtat() ? VIVANTE : 0;
+        if (nouveaux != drapeaux[id]) {
+            masque |= 1 << DRAPEAUX;
+        }
+        if (masque != 0) {
+            sectionCreatures.signe(id - precedentCreature);
+            precedentCreature = id;
+            sectionCreatures.varint(masque);
+            for (int k = 0; k < DRAPEAUX; k++) {
+                if (ecarts[k] != 0) {
+                    sectionCreatures.signe(ecarts[k]);
+                }
+            }
+            if ((masque & (1 << DRAPEAUX)) != 0) {
+                sectionCreatures.varint(nouveaux);
+            }
+            nbCreatures++;
+            retenirEtat(c, id);
+        }
+
+        if (c instanceof Personnage p && !memesPossessions(p, possessions[id])) {
+            noterPossessions(p, id, monde);
+        }
+    }
+
+    /**
+     * Compare la position d'un objet posé à son ombre.
+     */
+    private void noterObjet(Objet o, int id) {
+        int dx = o.getPos().getX() - xs[id];
+        int dy = o.getPos().getY() - ys[id];
+        if (dx != 0 || dy != 0) {
+            sectionObjets.signe(id - precedentObjet);
+            precedentObjet = id;
+            sectionObjets.signe(dx);
+            sectionObjets.signe(dy);
+            xs[id] = o.getPos().getX();
+            ys[id] = o.getPos().getY();
+            nbObjets++;
+        }
+    }
+
+    /**
+     * Relève les objets de l'ombre qui n'ont pas été vus ce tour-ci.
+     */
+    private void noterRetraits(int tour) {
+        for (int id = 1; id <= connu; id++) {
+            if (genres[id] == OBJET_POSE && vus[id] != tour) {
+                sectionRetraits.signe(id - precedentRetrait);
+                precedentRetrait = id;
+                genres[id] = OBJET_CONNU;
+                nbPoses--;
+                nbRetraits++;
+            }
+        }
+    }
+
+    /**
+     * Écrit l'inventaire et les effets actifs d'un personnage ; les effets
+     * absents de l'ombre sont suivis de leur échéance.
+     */
+    private void noterPossessions(Personnage p, int id, World monde) {
+        long[] anciennes = possessions[id];
+        List<Objet> inventaire = p.getInventaire();
+        List<ObjetUtilisable> effets = p.getEffetsActifs();
+        sectionPossessions.signe(id - precedentPossession);
+        precedentPossession = id;
+        sectionPossessions.varint(inventaire.size());
+        for (Objet o : inventaire) {
+            connaitre(o);
+            sectionPossessions.varint(o.getId());
+        }
+        sectionPossessions.varint(effets.size());
+        for (ObjetUtilisable effet : effets) {
+            connaitre((Objet) effet);
+            long idEffet = ((ElementDeJeu) effet).getId();
+            sectionPossessions.varint(idEffet);
+            boolean nouveau = true;
+            if (anciennes != null) {
+                for (int k = 1 + (int) anciennes[0]; k < anciennes.length; k++) {
+                    nouveau &= anciennes[k] != idEffet;
+                }
+            }
+            // 0 : effet déjà planifié ; sinon tours restants jusqu'à l'échéance
+            sectionPossessions.varint(nouveau ? echeance(monde, idEffet) - monde.getNbToursJoues() : 0);
+        }
+        nbPossessions++;
+        retenirPossessions(p, id);
+    }
+
+    /**
+     * Fait apparaître un objet possédé que le monde ne connaît pas encore
+     * (créé directement dans un inventaire).
+     */
+    private void connaitre(Objet o) {
+        int id = (int) o.getId();
+        if (genres[id] == AUCUN) {
+            genres[id] = OBJET_CONNU;
+            objetsPossedes.add(o);
+        }
+    }
+
+    /**
+     * Échéance d'un effet dans la roue du monde.
+     */
+    private long echeance(World monde, long idEffet) {
+        if (echeances == null) {
+            echeances = new HashMap<>();
+            monde.getRoue().parcourir((sujet, porteur, echeance) -> echeances.put(sujet.getId(), echeance));
+        }
+        Long e = echeances.get(idEffet);
+        return e == null ? monde.getNbToursJoues() + 1 : e;
+    }
+
+    /**
+     * Vide les sections avant un nouveau tour.
+     */
+    private void commencerTour() {
+        sectionCreatures.vider();
+        sectionObjets.vider();
+        sectionRetraits.vider();
+        sectionPossessions.vider();
+        creaturesApparues.clear();
+        objetsApparus.clear();
+        objetsPossedes.clear();
+        echeances = null;
+        nbCreatures = 0;
+        nbObjets = 0;
+        nbRetraits = 0;
+        nbPossessions = 0;
+        precedentCreature = 0;
+        precedentObjet = 0;
+        precedentRetrait = 0;
+        precedentPossession = 0;
+    }
+
+    /**
+     * Assemble l'enregistrement du tour et le place dans le tampon.
+     */
+    private void ecrireTour(int tour, long dernierId) throws IOException {
+        Octets e = enregistrement;
+        e.vider();
+        e.varint(tour);
+        e.varint(dernierId);
+        e.varint(nbCreatures);
+        e.ajouter(sectionCreatures);
+        e.varint(nbObjets);
+        e.ajouter(sectionObjets);
+        e.varint(nbRetraits);
+        e.ajouter(sectionRetraits);
+        if (creaturesApparues.isEmpty() && objetsApparus.isEmpty() && objetsPossedes.isEmpty()) {
+            e.varint(0);
+        } else {
+            byte[] apparitions = InstantaneMonde.encoderApparitions(creaturesApparues, objetsApparus, objetsPossedes);
+            e.varint(apparitions.length);
+            e.octets(apparitions, apparitions.length);
+        }
+        e.varint(nbPossessions);
+        e.ajouter(sectionPossessions);
+
+        crc.reset();
+        crc.update(e.octets, 0, e.n);
+        if (tampon.remaining() < 8 + e.n) {
+            vider();
+        }
+        if (tampon.remaining() < 8 + e.n) {
+            // tour plus grand que le tampon : écrit directement
+            ByteBuffer grand = ByteBuffer.allocate(8 + e.n).order(ByteOrder.LITTLE_ENDIAN);
+            grand.putInt(e.n).putInt((int) crc.getValue()).put(e.octets, 0, e.n).flip();
+            while (grand.hasRemaining()) {
+                canal.write(grand);
+            }
+        } else {
+            tampon.putInt(e.n).putInt((int) crc.getValue()).put(e.octets, 0, e.n);
+        }
+    }
+
+    /**
+     * Écrit le contenu du tampon dans le fichier.
+     */
+    private void vider() throws IOException {
+        tampon.flip();
+        while (tampon.hasRemaining()) {
+            canal.write(tampon);
+        }
+        tampon.clear();
+    }
+
+    // ================= OMBRE =================
+    /**
+     * Agrandit les colonnes de l'ombre jusqu'à l'identifiant donné.
+     */
+    private void agrandirOmbre(long dernierId) {
+        if (dernierId >= genres.length) {
+            int capacite = (int) Math.max(dernierId + 1, 2L * genres.length);
+            genres = Arrays.copyOf(genres, capacite);
+            vus = Arrays.copyOf(vus, capacite);
+            xs = Arrays.copyOf(xs, capacite);
+            ys = Arrays.copyOf(ys, capacite);
+            drapeaux = Arrays.copyOf(drapeaux, capacite);
+            possessions = Arrays.copyOf(possessions, capacite);
+            for (int k = 0; k < NB_CARACTERISTIQUES; k++) {
+                caracteristiques[k] = Arrays.copyOf(caracteristiques[k], capacite);
+            }
+        }
+        connu = Math.max(connu, dernierId);
+    }
+
+    private void retenirCreature(Creature c, int id) {
+        retenirEtat(c, id);
+        if (c instanceof Personnage p) {
+            retenirPossessions(p, id);
+        }
+    }
+
+    /**
+     * Retient la position, les caractéristiques et les drapeaux d'une
+     * créature.
+     */
+    private void retenirEtat(Creature c, int id) {
+        genres[id] = CREATURE;
+        xs[id] = c.getPos().getX();
+        ys[id] = c.getPos().getY();
+        for (int k = 0; k < NB_CARACTERISTIQUES; k++) {
+            caracteristiques[k][id] = caracteristique(c, k);
+        }
+        drapeaux[id] = (byte) (c.isEtat() ? VIVANTE : 0);
+    }
+
+    private void retenirObjet(Objet o, int id) {
+        genres[id] = OBJET_POSE;
+        xs[id] = o.getPos().getX();
+        ys[id] = o.getPos().getY();
+    }
+
+    private void retenirPossessions(Personnage p, int id) {
+        List<Objet> inventaire = p.getInventaire();
+        List<ObjetUtilisable> effets = p.getEffetsActifs();
+        if (inventaire.isEmpty() && effets.isEmpty()) {
+            possessions[id] = null;
+            return;
+        }
+        long[] a = new long[1 + inventaire.size() + effets.size()];
+        a[0] = inventaire.size();
+        int k = 1;
+        for (Objet o : inventaire) {
+            a[k++] = o.getId();
+        }
+        for (ObjetUtilisable effet : effets) {
+            a[k++] = ((ElementDeJeu) effet).getId();
+        }
+        for (k = 1; k < a.length; k++) {
+            if (genres[(int) a[k]] == AUCUN) {
+                genres[(int) a[k]] = OBJET_CONNU;
+            }
+        }
+        possessions[id] = a;
+    }
+
+    /**
+     * Indique si les possessions d'un personnage sont celles de l'ombre.
+     */
+    private static boolean memesPossessions(Personnage p, long[] ombre) {
+        List<Objet> inventaire = p.getInventaire();
+        List<ObjetUtilisable> effets = p.getEffetsActifs();
+        if (ombre == null) {
+            return inventaire.isEmpty() && effets.isEmpty();
+        }
+        if (ombre[0] != inventaire.size() || ombre.length != 1 + inventaire.size() + effets.size()) {
+            return false;
+        }
+        int k = 1;
+        for (Objet o : inventaire) {
+            if (ombre[k++] != o.getId()) {
+                return false;
+            }
+        }
+        for (ObjetUtilisable effet : effets) {
+            if (ombre[k++] != ((ElementDeJeu) effet).getId()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Caractéristique numéro {@code k} d'une créature : points de vie,
+     * parade, dégâts, pourcentages d'attaque et de parade, portée, vision,
+     * flèches.
+     */
+    private static int caracteristique(Creature c, int k) {
+        return switch (k) {
+            case 0 ->
+                c.getPtVie();
+            case 1 ->
+                c.getPtPar();
+            case 2 ->
+                c.getDegAtt();
+            case 3 ->
+                c.getPageAtt();
+            case 4 ->
+                c.getPagePar();
+            case 5 ->
+                c.getDistAttMax();
+            case 6 ->
+                c.getDistanceVision();
+            default ->
+                c instanceof Archer a ? a.getNbFleches() : 0;
+        };
+    }
+
+    private static void changerCaracteristique(Creature c, int k, int ecart) {
+        switch (k) {
+            case 0 ->
+                c.setPtVie(c.getPtVie() + ecart);
+            case 1 ->
+                c.setPtPar(c.getPtPar() + ecart);
+            case 2 ->
+                c.setDegAtt(c.getDegAtt() + ecart);
+            case 3 ->
+                c.setPageAtt(c.getPageAtt() + ecart);
+            case 4 ->
+                c.setPagePar(c.getPagePar() + ecart);
+            case 5 ->
+                c.setDistAttMax(c.getDistAttMax() + ecart);
+            case 6 ->
+                c.setDistanceVision(c.getDistanceVision() + ecart);
+            default -> {
+                if (c instanceof Archer a) {
+                    a.setNbFleches(a.getNbFleches() + ecart);
+                }
+            }
+        }
+    }
+
+    // ================= REPRISE =================
+    /**
+     * Recharge un instantané puis rejoue le journal ouvert juste après lui.
+     *
+     * @param instantane fichier écrit par {@link InstantaneMonde#sauvegarder}
+     * @param journal journal ouvert après cet instantané
+     * @return le monde au dernier tour complet du journal
+     * @throws IOException si un fichier ne peut pas être lu ou si le journal
+     * ne suit pas l'instantané
+     */
+    public static World reprendre(Path instantane, Path journal) throws IOException {
+        World monde = InstantaneMonde.charger(instantane);
+        rejouer(monde, journal);
+        return monde;
+    }
+
+    /**
+     * Rejoue sur un monde les tours d'un journal. Le dernier tour est ignoré
+     * s'il est incomplet ou corrompu. Chaque élément reçoit ensuite le flux
+     * aléatoire qu'il aurait s'il était rechargé d'un instantané de ce tour :
+     * la suite de la partie ne dépend donc pas de la façon dont le monde a été
+     * repris.
+     *
+     * @param monde monde rechargé de l'instantané qui précède le journal
+     * @param fichier journal à rejouer
+     * @return le nombre de tours rejoués
+     * @throws IOException si le journal ne peut pas être lu ou ne suit pas ce
+     * monde
+     */
+    public static int rejouer(World monde, Path fichier) throws IOException {
+        int nbTours = 0;
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            ByteBuffer entree = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size()).order(ByteOrder.LITTLE_ENDIAN);
+            if (entree.remaining() < TAILLE_EN_TETE) {
+                throw new IOException(fichier + " n'est pas un journal de tours");
+            }
+            for (byte octet : MAGIQUE) {
+                if (entree.get() != octet) {
+                    throw new IOException(fichier + " n'est pas un journal de tours");
+                }
+            }
+            int version = entree.getInt();
+            if (version != VERSION) {
+                throw new IOException("Version de journal " + version + " non prise en charge (attendue : " + VERSION + ")");
+            }
+            long graine = entree.getLong();
+            int taille = entree.getInt();
+            int depart = entree.getInt();
+            if (graine != monde.getAlea().getGraine() || taille != monde.TAILLE_MONDE || depart != monde.getNbToursJoues()) {
+                throw new IOException("Le journal " + fichier + " ne suit pas ce monde (tour de départ " + depart
+                        + ", monde au tour " + monde.getNbToursJoues() + ")");
+            }
+
+            CRC32C controle = new CRC32C();
+            while (entree.remaining() >= 8) {
+                int longueur = entree.getInt();
+                int attendu = entree.getInt();
+                if (longueur < 0 || longueur > entree.remaining()) {
+                    break; // dernier tour incomplet
+                }
+                ByteBuffer tour = entree.slice(entree.position(), longueur).order(ByteOrder.LITTLE_ENDIAN);
+                controle.reset();
+                controle.update(tour.duplicate());
+                if ((int) controle.getValue() != attendu) {
+                    break; // dernier tour corrompu
+                }
+                rejouerTour(monde, tour);
+                entree.position(entree.position() + longueur);
+                nbTours++;
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | ClassCastException e) {
+            throw new IOException("Journal illisible : " + fichier, e);
+        }
+        monde.reprendreFlux();
+        return nbTours;
+    }
+
+    /**
+     * Applique un tour du journal : caractéristiques et morts, puis
+     * déplacements, retraits, apparitions et possessions.
+     */
+    private static void rejouerTour(World monde, ByteBuffer entree) {
+        GrilleOccupation grille = monde.getGrille();
+        int tour = (int) lireVarint(entree);
+        monde.etendreIdentifiants(lireVarint(entree));
+
+        // 1. Créatures : caractéristiques et drapeaux tout de suite, les
+        // déplacements sont mis de côté
+        List<ElementDeJeu> deplaces = new ArrayList<>();
+        List<Point2D> arrivees = new ArrayList<>();
+        long id = 0;
+        for (long n = lireVarint(entree); n > 0; n--) {
+            id += lireSigne(entree);
+            Creature c = (Creature) monde.elementDe(id);
+            int masque = (int) lireVarint(entree);
+            int dx = (masque & (1 << X)) != 0 ? (int) lireSigne(entree) : 0;
+            int dy = (masque & (1 << Y)) != 0 ? (int) lireSigne(entree) : 0;
+            for (int k = 0; k < NB_CARACTERISTIQUES; k++) {
+                if ((masque & (1 << (2 + k))) != 0) {
+                    changerCaracteristique(c, k, (int) lireSigne(entree));
+                }
+            }
+            if ((masque & (1 << DRAPEAUX)) != 0) {
+                boolean vivante = (lireVarint(entree) & VIVANTE) != 0;
+                if (!vivante && c.isEtat()) {
+                    c.mourir(grille);
+                } else if (vivante && !c.isEtat()) {
+                    c.setEtat(true);
+                    grille.placer(c);
+                }
+            }
+            if (dx != 0 || dy != 0) {
+                deplaces.add(c);
+                arrivees.add(c.getPos().decaler(dx, dy));
+            }
+        }
+
+        // 2. Objets déplacés
+        id = 0;
+        for (long n = lireVarint(entree); n > 0; n--) {
+            id += lireSigne(entree);
+            ElementDeJeu o = monde.elementDe(id);
+            int dx = (int) lireSigne(entree);
+            int dy = (int) lireSigne(entree);
+            deplaces.add(o);
+            arrivees.add(o.getPos().decaler(dx, dy));
+        }
+
+        // 3. Déplacements en bloc, comme dans la PhaseDeplacement : toutes
+        // les anciennes cases sont libérées avant d'occuper les nouvelles
+        for (ElementDeJeu e : deplaces) {
+            grille.retirer(e);
+        }
+        for (int i = 0; i < deplaces.size(); i++) {
+            ElementDeJeu e = deplaces.get(i);
+            e.setPos(arrivees.get(i));
+            grille.placer(e);
+        }
+
+        // 4. Objets retirés du monde
+        id = 0;
+        for (long n = lireVarint(entree); n > 0; n--) {
+            id += lireSigne(entree);
+            monde.rejouerRetrait((Objet) monde.elementDe(id));
+        }
+
+        // 5. Apparitions
+        int longueur = (int) lireVarint(entree);
+        if (longueur > 0) {
+            InstantaneMonde.restaurerApparitions(monde, entree.slice(entree.position(), longueur));
+            entree.position(entree.position() + longueur);
+        }
+
+        // 6. Possessions
+        id = 0;
+        RoueTemporelle roue = monde.getRoue();
+        for (long n = lireVarint(entree); n > 0; n--) {
+            id += lireSigne(entree);
+            Personnage p = (Personnage) monde.elementDe(id);
+            p.getInventaire().clear();
+            for (long k = lireVarint(entree); k > 0; k--) {
+                p.getInventaire().add((Objet) monde.elementDe(lireVarint(entree)));
+            }
+            p.getEffetsActifs().clear();
+            for (long k = lireVarint(entree); k > 0; k--) {
+                ElementDeJeu effet = monde.elementDe(lireVarint(entree));
+                long restants = lireVarint(entree);
+                p.getEffetsActifs().add((ObjetUtilisable) effet);
+                if (restants > 0) {
+                    // la roue est encore au tour précédent
+                    roue.planifier(effet, p, (int) (tour + restants - roue.getMaintenant()));
+                }
+            }
+        }
+
+        monde.terminerRejeu(tour);
+    }
+
+    private static long lireVarint(ByteBuffer entree) {
+        long v = 0;
+        int decalage = 0;
+        byte b;
+        do {
+            b = entree.get();
+            v |= (long) (b & 0x7F) << decalage;
+            decalage += 7;
+        } while (b < 0);
+        return v;
+    }
+
+    private static long lireSigne(ByteBuffer entree) {
+        long v = lireVarint(entree);
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    // ================= TAMPON D'OCTETS =================
+    /**
+     * Tableau d'octets extensible où sont encodées les sections d'un tour.
+     */
+    private static final class Octets {
+
+        byte[] octets = new byte[256];
+        int n;
+
+        void vider() {
+            n = 0;
+        }
+
+        void varint(long v) {
+            assurer(10);
+            while ((v & ~0x7FL) != 0) {
+                octets[n++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            octets[n++] = (byte) v;
+        }
+
+        /**
+         * Entier signé en zigzag : les petits écarts négatifs restent courts.
+         */
+        void signe(long v) {
+            varint((v << 1) ^ (v >> 63));
+        }
+
+        void octets(byte[] a, int longueur) {
+            assurer(longueur);
+            System.arraycopy(a, 0, octets, n, longueur);
+            n += longueur;
+        }
+
+        void ajouter(Octets autre) {
+            octets(autre.octets, autre.n);
+        }
+
+        private void assurer(int place) {
+            if (n + place > octets.length) {
+                octets = Arrays.copyOf(octets, Math.max(n + place, 2 * octets.length));
+            }
+        }
+    }
+}
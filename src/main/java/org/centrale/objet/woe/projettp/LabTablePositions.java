@@ -0,0 +1,198 @@
+package org.centrale.objet.woe.projettp;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Laboratoire comparant l'ancien ensemble {@code HashSet<Point2D>} et la
+ * {@link TablePositions} pour stocker les cases occupées du monde.
+ * <p>
+ * Pour chaque taille de monde (de 20 à 10 000 cases de côté), on tire un
+ * ensemble de cases distinctes puis on mesure :
+ * </p>
+ * <ol>
+ * <li>les collisions de code de hachage : ancien {@code 31 * x + y} contre le
+ * mélange de {@link TablePositions#melanger(long)} ;</li>
+ * <li>le débit d'insertion, de recherche (présente et absente) et de
+ * suppression des deux structures, en nanosecondes par opération.</li>
+ * </ol>
+ * <p>
+ * Chaque mesure est répétée plusieurs fois et seule la dernière est affichée,
+ * afin de laisser le compilateur JIT chauffer.
+ * </p>
+ *
+ * @author srodr
+ */
+public class LabTablePositions {
+
+    /**
+     * Tailles de monde testées
+     */
+    private static final int[] TAILLES = {20, 100, 1000, 10000};
+
+    /**
+     * Nombre maximal de cases occupées par monde
+     */
+    private static final int POPULATION_MAX = 1_000_000;
+
+    /**
+     * Nombre de répétitions de chaque mesure
+     */
+    private static final int REPETITIONS = 5;
+
+    /**
+     * Valeur quelconque stockée dans la table
+     */
+    private static final Object OCCUPANT = new Object();
+
+    /**
+     * Lance le laboratoire.
+     *
+     * @param args arguments de la ligne de commande (ignorés)
+     */
+    public static void main(String[] args) {
+        Random rand = new Random(42);
+        System.out.println("taille;population;collisions31;collisionsMelange;"
+                + "hashSetInsertNs;tableInsertNs;hashSetRechercheNs;tableRechercheNs;"
+                + "hashSetSuppressionNs;tableSuppressionNs");
+
+        for (int taille : TAILLES) {
+            int population = (int) Math.min((long) taille * taille / 2, POPULATION_MAX);
+            int[] xs = new int[population];
+            int[] ys = new int[population];
+            tirerCasesDistinctes(rand, taille, xs, ys);
+
+            int collisions31 = population - compterCodesDistincts(xs, ys, false);
+            int collisionsMelange = population - compterCodesDistincts(xs, ys, true);
+
+            long[] tempsHashSet = new long[3];
+            long[] tempsTable = new long[3];
+            for (int r = 0; r < REPETITIONS; r++) {
+                tempsHashSet = mesurerHashSet(xs, ys, taille);
+                tempsTable = mesurerTable(xs, ys, taille);
+            }
+
+            System.out.printf("%d;%d;%d;%d;%.1f;%.1f;%.1f;%.1f;%.1f;%.1f%n",
+                    taille, population, collisions31, collisionsMelange,
+                    (double) tempsHashSet[0] / population, (double) tempsTable[0] / population,
+                    (double) tempsHashSet[1] / (2 * population), (double) tempsTable[1] / (2 * population),
+                    (double) tempsHashSet[2] / population, (double) tempsTable[2] / population);
+        }
+    }
+
+    /**
+     * Tire des cases distinctes dans un monde de {@code taille × taille}.
+     */
+    private static void tirerCasesDistinctes(Random rand, int taille, int[] xs, int[] ys) {
+        TablePositions<Object> dejaTirees = new TablePositions<>(xs.length);
+        int n = 0;
+        while (n < xs.length) {
+            int x = rand.nextInt(taille);
+            int y = rand.nextInt(taille);
+            if (dejaTirees.put(TablePositions.cle(x, y), OCCUPANT) == null) {
+                xs[n] = x;
+                ys[n] = y;
+                n++;
+            }
+        }
+    }
+
+    /**
+     * Compte les codes de hachage distincts des cases, avec l'ancienne formule
+     * ou avec le mélange.
+     */
+    private static int compterCodesDistincts(int[] xs, int[] ys, boolean melange) {
+        Set<Integer> codes = new HashSet<>();
+        for (int i = 0; i < xs.length; i++) {
+            int code = melange
+                    ? Long.hashCode(TablePositions.melanger(TablePositions.cle(xs[i], ys[i])))
+                    : 31 * xs[i] + ys[i];
+            codes.add(code);
+        }
+        return codes.size();
+    }
+
+    /**
+     * Mesure insertion, recherche (moitié présentes, moitié absentes) et
+     * suppression avec l'ancienne implémentation à base de HashSet.
+     * Les absentes sont décalées hors du monde.
+     */
+    private static long[] mesurerHashSet(int[] xs, int[] ys, int taille) {
+        long[] temps = new long[3];
+        Set<Point2D> ensemble = new HashSet<>();
+        int trouves = 0;
+
+        long debut = System.nanoTime();
+        for (int i = 0; i < xs.length; i++) {
+            ensemble.add(new Point2D(xs[i], ys[i]));
+        }
+        temps[0] = System.nanoTime() - debut;
+
+        debut = System.nanoTime();
+        for (int i = 0; i < xs.length; i++) {
+            if (ensemble.contains(new Point2D(xs[i], ys[i]))) {
+                trouves++;
+            }
+            if (ensemble.contains(new Point2D(xs[i] + taille, ys[i]))) {
+                trouves++;
+            }
+        }
+        temps[1] = System.nanoTime() - debut;
+
+        debut = System.nanoTime();
+        for (int i = 0; i < xs.length; i++) {
+            ensemble.remove(new Point2D(xs[i], ys[i]));
+        }
+        temps[2] = System.nanoTime() - debut;
+
+        verifier(trouves, xs.length, ensemble.size());
+        return temps;
+    }
+
+    /**
+     * Même mesure que {@link #mesurerHashSet(int[], int[], int)} avec la
+     * {@link TablePositions}.
+     */
+    private static long[] mesurerTable(int[] xs, int[] ys, int taille) {
+        long[] temps = new long[3];
+        TablePositions<Object> table = new TablePositions<>();
+        int trouves = 0;
+
+        long debut = System.nanoTime();
+        for (int i = 0; i < xs.length; i++) {
+            table.put(TablePositions.cle(xs[i], ys[i]), OCCUPANT);
+        }
+        temps[0] = System.nanoTime() - debut;
+
+        debut = System.nanoTime();
+        for (int i = 0; i < xs.length; i++) {
+            if (table.contains(TablePositions.cle(xs[i], ys[i]))) {
+                trouves++;
+            }
+            if (table.contains(TablePositions.cle(xs[i] + taille, ys[i]))) {
+                trouves++;
+            }
+        }
+        temps[1] = System.nanoTime() - debut;
+
+        debut = System.nanoTime();
+        for (int i = 0; i < xs.length; i++) {
+            table.remove(TablePositions.cle(xs[i], ys[i]));
+        }
+        temps[2] = System.nanoTime() - debut;
+
+        verifier(trouves, xs.length, table.size());
+        return temps;
+    }
+
+    /**
+     * Contrôle que les mesures ont bien fait le travail attendu (et empêche le
+     * JIT d'éliminer les boucles).
+     */
+    private static void verifier(int trouves, int attendus, int restants) {
+        if (trouves != attendus || restants != 0) {
+            throw new IllegalStateException("Résultat incohérent : " + trouves + " trouvés, " + restants + " restants");
+        }
+    }
+}
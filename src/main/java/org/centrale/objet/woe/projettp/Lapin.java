@@ -55,4 +55,12 @@ public class Lapin extends Monstre {
     public Lapin() {
         super();
     }
+
+    /**
+     * @return le symbole d'un lapin sur la carte
+     */
+    @Override
+    public char getSymbole() {
+        return 'L';
+    }
 }
@@ -4,10 +4,9 @@
  */
 package org.centrale.objet.woe.projettp;
 
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.Random;
-import java.util.Set;
+import java.util.SplittableRandom;
 
 /**
  * La classe {@code Monstre} représente un monstre dans le jeu.
@@ -95,49 +94,35 @@ public class Monstre extends Creature implements Analyze {
 
     // ================= MÉTHODES =================
     @Override
-    public void analyzer(Set<Point2D> positionWorld, List<Creature> creatures, List<Objet> objets, int tailleMonde) {
+    public void analyzer(GrilleOccupation grille, List<Creature> creatures, Collection<Objet> objets, int tailleMonde) {
         if (this.dangerosite == Monstre.Dangerosite.DOCILE) {
-            this.deplacementAleatoire(positionWorld, tailleMonde);
+            this.deplacementAleatoire(grille, tailleMonde);
         } else {
-            Random rand = new Random();
-
-            // Le héros (ce PNJ lui-même)
-            Point2D posPersonnage = this.getPos();
-
-            // Liste des créatures adjacentes (pour une éventuelle attaque)
-            List<Creature> ciblesAdjacentes = new ArrayList<>();
-            for (Creature c : creatures) {
-                if (c != this) { // éviter de s'ajouter soi-même
-                    double dx = Math.abs(c.getPos().getX() - posPersonnage.getX());
-                    double dy = Math.abs(c.getPos().getY() - posPersonnage.getY());
-                    if (dx <= this.getDistAttMax() && dy <= this.getDistAttMax() && !(dx == 0 && dy == 0)) {
-                        ciblesAdjacentes.add(c);
-                    }
-                }
-            }
+            SplittableRandom rand = getAlea();
+
+            // Créatures à portée (pour une éventuelle attaque), prises dans le
+            // relevé de la tuile autour de sa propre case
+            List<Creature> ciblesAdjacentes = AcquisitionCibles.ciblesAPortee(grille, this);
             int action = rand.nextInt(3);
 
             switch (action) {
                 case 0 -> { // Se déplacer aléatoirement
-                    this.deplacementAleatoire(positionWorld, tailleMonde);
+                    this.deplacementAleatoire(grille, tailleMonde);
                 }
                 case 1 -> {
                     if (!ciblesAdjacentes.isEmpty()) {
                         if (this.dangerosite == Monstre.Dangerosite.DANGEREUX) {
                             // Attaque tous les ennemis dans le rayon
-                            System.out.println(this.getNom() + " entre en rage et attaque TOUTES les cibles à portée !");
                             for (Creature cible : ciblesAdjacentes) {
-                                System.out.println("⚔️  " + this.getNom() + " attaque " + cible.getNom() + " !");
                                 if (this instanceof Combattant combattant) {
-                                    combattant.combattre(cible, positionWorld, creatures);
+                                    combattant.combattre(cible, grille, creatures);
                                 }
                             }
                         } else {
                             // Attaque une cible aléatoire (cas MOYENNE)
                             Creature cible = ciblesAdjacentes.get(rand.nextInt(ciblesAdjacentes.size()));
-                            System.out.println(this.getNom() + " attaque " + cible.getNom() + " !");
                             if (this instanceof Combattant combattant) {
-                                combattant.combattre(cible, positionWorld, creatures);
+                                combattant.combattre(cible, grille, creatures);
                             }
                         }
                     }
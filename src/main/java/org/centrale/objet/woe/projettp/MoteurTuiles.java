@@ -0,0 +1,342 @@
+package org.centrale.objet.woe.projettp;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * La classe {@code MoteurTuiles} exécute les analyses d'un tour en découpant
+ * la carte en tuiles carrées traitées en parallèle.
+ * <p>
+ * Chaque élément qui analyse ({@link Analyze}) est rangé dans la tuile qui
+ * contient sa position. Les tuiles sont coloriées en quatre couleurs selon la
+ * parité de leurs coordonnées de tuile, de sorte que deux tuiles de même
+ * couleur ne se touchent jamais. Le tour se déroule en quatre phases, une par
+ * couleur : pendant une phase, toutes les tuiles de la couleur sont traitées
+ * en même temps sur un {@link ForkJoinPool}, et les éléments d'une même tuile
+ * sont traités en série, dans l'ordre de la liste d'origine.
+ * </p>
+ *
+ * <p>
+ * Le côté d'une tuile est au moins le double de la portée maximale d'un
+ * élément (distance d'attaque, demi-taille d'un nuage, ou une case de
+ * déplacement) plus un. Deux éléments de tuiles de même couleur ne peuvent
+ * donc ni lire ni modifier les mêmes cases ou les mêmes créatures. Comme les
+ * déplacements sont différés par la {@link PhaseDeplacement} et départagés
+ * sans tenir compte de l'ordre d'arrivée, un tour exécuté en parallèle produit
+ * le même monde qu'un tour exécuté en série par ce moteur, pour peu que les
+ * tirages aléatoires soient eux-mêmes reproductibles.
+ * </p>
+ *
+ * <p>
+ * Quand les portées sont longues, le moteur relève, avant de traiter une
+ * tuile peuplée, les créatures de la tuile élargie de la portée maximale dans
+ * l'{@link AcquisitionCibles} du thread : les attaquants de la tuile y
+ * trouvent leurs cibles sans relire la grille. Une tuile trop peu peuplée pour
+ * amortir ce relevé, ou des portées courtes, s'en passent.
+ * </p>
+ *
+ * <p>
+ * Une grille creuse ({@link GrilleOccupation#estCreuse()}) n'accepte pas
+ * d'écritures concurrentes : les tuiles sont alors traitées en série, dans le
+ * même ordre.
+ * </p>
+ *
+ * @author srodr
+ */
+public class MoteurTuiles {
+
+    // ================= ATTRIBUTS =================
+    /**
+     * Côté minimal d'une tuile, pour que chaque tâche ait assez de travail
+     */
+    private static final int COTE_MIN = 16;
+
+    /**
+     * Nombre de tuiles en dessous duquel une phase n'est pas découpée
+     */
+    private static final int SEUIL_DECOUPE = 1;
+
+    /**
+     * Portée à partir de laquelle les cibles sont prises dans un relevé de la
+     * tuile : en deçà, lire directement les quelques cases du carré de portée
+     * dans la grille est au moins aussi rapide
+     */
+    private static final int PORTEE_RELEVE = 3;
+
+    /**
+     * Pool d'exécution ({@code null} : exécution en série)
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * {@code true} si le pool a été créé par le moteur, qui doit alors
+     * l'arrêter ({@link #fermer()})
+     */
+    private final boolean poolPropre;
+
+    /**
+     * Éléments du tour rangés tuile par tuile
+     */
+    private Analyze[] ordonnes = new Analyze[0];
+
+    /**
+     * Tuile de chaque élément, dans l'ordre de la liste d'origine
+     */
+    private int[] tuileDe = new int[0];
+
+    /**
+     * Début de chaque tuile dans {@link #ordonnes} (taille nbTuiles + 1)
+     */
+    private int[] debutTuile = new int[0];
+
+    /**
+     * Prochaine place libre de chaque tuile pendant le rangement
+     */
+    private int[] curseur = new int[0];
+
+    /**
+     * Tuiles non vides de la couleur en cours
+     */
+    private int[] tuiles = new int[0];
+
+    /**
+     * Géométrie des tuiles du tour en cours : côté d'une tuile, nombre de
+     * tuiles par côté du monde et portée maximale des éléments
+     */
+    private int coteTuile;
+    private int tuilesParCote;
+    private int porteeTour;
+
+    // ================= CONSTRUCTEURS =================
+    /**
+     * Construit un moteur qui traite les tuiles en série.
+     */
+    public MoteurTuiles() {
+        this(null);
+    }
+
+    /**
+     * Construit un moteur qui traite les tuiles d'une même couleur en
+     * parallèle sur le pool donné.
+     *
+     * @param pool pool d'exécution, ou {@code null} pour une exécution en série
+     */
+    public MoteurTuiles(ForkJoinPool pool) {
+        this(pool, false);
+    }
+
+    private MoteurTuiles(ForkJoinPool pool, boolean poolPropre) {
+        this.pool = pool;
+        this.poolPropre = poolPropre;
+    }
+
+    /**
+     * Construit un moteur avec un nombre de threads donné.
+     *
+     * @param nbThreads nombre de threads (1 ou moins : exécution en série)
+     * @return le moteur
+     */
+    public static MoteurTuiles avecThreads(int nbThreads) {
+        return nbThreads > 1 ? new MoteurTuiles(new ForkJoinPool(nbThreads), true) : new MoteurTuiles();
+    }
+
+    /**
+     * Arrête le pool créé par {@link #avecThreads(int)}. Un pool fourni au
+     * constructeur reste à la charge de l'appelant.
+     */
+    public void fermer() {
+        if (poolPropre) {
+            pool.shutdown();
+        }
+    }
+
+    // ================= MÉTHODES =================
+    /**
+     * Exécute l'analyse de tous les éléments pour un tour.
+     * <p>
+     * Les analyses qui ne sont pas portées par un élément du monde (par
+     * exemple un {@link Joueur}) sont exécutées d'abord, en série.
+     * </p>
+     *
+     * @param analyseurs éléments qui analysent, dans l'ordre de référence
+     * @param grille grille d'occupation du monde
+     * @param creatures liste des créatures du monde
+     * @param objets liste des objets du monde
+     * @param tailleMonde dimension du monde
+     * @return le nombre d'éléments analysés
+     */
+    public int executer(List<? extends Analyze> analyseurs, GrilleOccupation grille,
+            List<Creature> creatures, Collection<Objet> objets, int tailleMonde) {
+        int n = analyseurs.size();
+        if (tuileDe.length < n) {
+            tuileDe = new int[n];
+            ordonnes = new Analyze[n];
+        }
+
+        // 1. Portée maximale et côté des tuiles
+        int portee = 1;
+        for (int i = 0; i < n; i++) {
+            portee = Math.max(portee, portee(analyseurs.get(i)));
+        }
+        int cote = Math.max(2 * portee + 1, COTE_MIN);
+        int tuilesParCote = (tailleMonde + cote - 1) / cote;
+        this.coteTuile = cote;
+        this.tuilesParCote = tuilesParCote;
+        this.porteeTour = portee;
+        int nbTuiles = tuilesParCote * tuilesParCote;
+        int analyses = 0;
+
+        // 2. Rangement des éléments par tuile (tri par comptage, stable)
+        if (debutTuile.length < nbTuiles + 1) {
+            debutTuile = new int[nbTuiles + 1];
+            curseur = new int[nbTuiles];
+        } else {
+            Arrays.fill(debutTuile, 0, nbTuiles + 1, 0);
+        }
+        for (int i = 0; i < n; i++) {
+            Analyze a = analyseurs.get(i);
+            if (a instanceof ElementDeJeu e && e.getPos() != null) {
+                int tx = Math.min(e.getPos().getX() / cote, tuilesParCote - 1);
+                int ty = Math.min(e.getPos().getY() / cote, tuilesParCote - 1);
+                tuileDe[i] = ty * tuilesParCote + tx;
+                debutTuile[tuileDe[i] + 1]++;
+            } else if (a != null) {
+                tuileDe[i] = -1;
+                a.analyzer(grille, creatures, objets, tailleMonde);
+                analyses++;
+            } else {
+                tuileDe[i] = -1;
+            }
+        }
+        for (int t = 0; t < nbTuiles; t++) {
+            debutTuile[t + 1] += debutTuile[t];
+        }
+        System.arraycopy(debutTuile, 0, curseur, 0, nbTuiles);
+        for (int i = 0; i < n; i++) {
+            if (tuileDe[i] >= 0) {
+                ordonnes[curseur[tuileDe[i]]++] = analyseurs.get(i);
+            }
+        }
+
+        // 3. Quatre phases colorées
+        int parCouleur = (tuilesParCote + 1) / 2 * ((tuilesParCote + 1) / 2);
+        if (tuiles.length < parCouleur) {
+            tuiles = new int[parCouleur];
+        }
+        for (int couleur = 0; couleur < 4; couleur++) {
+            int nb = 0;
+            for (int ty = couleur / 2; ty < tuilesParCote; ty += 2) {
+                for (int tx = couleur % 2; tx < tuilesParCote; tx += 2) {
+                    int t = ty * tuilesParCote + tx;
+                    if (debutTuile[t + 1] > debutTuile[t]) {
+                        tuiles[nb++] = t;
+                    }
+                }
+            }
+            TacheTuiles tache = new TacheTuiles(tuiles, 0, nb, grille, creatures, objets, tailleMonde);
+            if (pool == null || nb <= SEUIL_DECOUPE || grille.estCreuse()) {
+                tache.executerEnSerie();
+            } else {
+                pool.invoke(tache);
+            }
+        }
+
+        Arrays.fill(ordonnes, 0, n, null);
+        return analyses + debutTuile[nbTuiles];
+    }
+
+    /**
+     * Portée d'action d'un élément : distance à laquelle il peut lire ou
+     * modifier le monde pendant son analyse. Un paysan ou un monstre docile
+     * ne fait que se déplacer : sa distance d'attaque ne compte pas.
+     */
+    private static int portee(Analyze a) {
+        if (a instanceof Paysan || a instanceof Monstre m && m.getDangerosite() == Monstre.Dangerosite.DOCILE) {
+            return 1;
+        }
+        if (a instanceof Creature c) {
+            return Math.max(1, c.getDistAttMax());
+        }
+        if (a instanceof NuageToxique n) {
+            return Math.max(1, n.getTaille() / 2);
+        }
+        return 1;
+    }
+
+    /**
+     * Exécute en série les éléments d'une tuile, après avoir relevé les cibles
+     * possibles si la tuile est assez peuplée : le relevé lit une fois la
+     * tuile élargie, au lieu que chaque attaquant relise son carré de portée.
+     */
+    private void executerTuile(int t, GrilleOccupation grille, List<Creature> creatures,
+            Collection<Objet> objets, int tailleMonde) {
+        int nbElements = debutTuile[t + 1] - debutTuile[t];
+        int carre = 2 * porteeTour + 1;
+        int fenetre = coteTuile + 2 * porteeTour;
+        AcquisitionCibles releve = null;
+        if (porteeTour >= PORTEE_RELEVE && nbElements * carre * carre >= fenetre * fenetre) {
+            int xMin = (t % tuilesParCote) * coteTuile - porteeTour;
+            int yMin = (t / tuilesParCote) * coteTuile - porteeTour;
+            releve = AcquisitionCibles.releve();
+            releve.preparer(grille, xMin, yMin, xMin + fenetre - 1, yMin + fenetre - 1);
+        }
+        try {
+            for (int k = debutTuile[t]; k < debutTuile[t + 1]; k++) {
+                ordonnes[k].analyzer(grille, creatures, objets, tailleMonde);
+            }
+        } finally {
+            if (releve != null) {
+                releve.oublier();
+            }
+        }
+    }
+
+    /**
+     * Tâche traitant un intervalle de tuiles d'une même couleur, découpée en
+     * deux tant qu'elle contient plus d'une tuile.
+     */
+    private class TacheTuiles extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        // une tâche n'est jamais sérialisée
+        private final transient int[] tuiles;
+        private final transient int debut;
+        private final transient int fin;
+        private final transient GrilleOccupation grille;
+        private final transient List<Creature> creatures;
+        private final transient Collection<Objet> objets;
+        private final transient int tailleMonde;
+
+        TacheTuiles(int[] tuiles, int debut, int fin, GrilleOccupation grille,
+                List<Creature> creatures, Collection<Objet> objets, int tailleMonde) {
+            this.tuiles = tuiles;
+            this.debut = debut;
+            this.fin = fin;
+            this.grille = grille;
+            this.creatures = creatures;
+            this.objets = objets;
+            this.tailleMonde = tailleMonde;
+        }
+
+        void executerEnSerie() {
+            for (int k = debut; k < fin; k++) {
+                executerTuile(tuiles[k], grille, creatures, objets, tailleMonde);
+            }
+        }
+
+        @Override
+        protected void compute() {
+            if (fin - debut <= SEUIL_DECOUPE) {
+                executerEnSerie();
+            } else {
+                int milieu = (debut + fin) >>> 1;
+                invokeAll(new TacheTuiles(tuiles, debut, milieu, grille, creatures, objets, tailleMonde),
+                        new TacheTuiles(tuiles, milieu, fin, grille, creatures, objets, tailleMonde));
+            }
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package org.centrale.objet.woe.projettp;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * Classe représentant une Nourriture pouvant être utilisée par un Personnage.
@@ -24,27 +24,36 @@ public class Nourriture extends Objet implements ObjetUtilisable {
 
     // --- Constructeurs ---
     public Nourriture(Nourritures typeNourriture) {
-        this.coolDown = genererCoolDownAleatoire(typeNourriture);
+        this.coolDown = genererCoolDownAleatoire(typeNourriture, ServiceAleatoire.fluxHorsMonde());
         this.typeNourriture = typeNourriture;
     }
     
     public Nourriture( Nourritures typeNourriture, String nom, String description, Point2D position) {
         super(nom, description, position);
-        this.coolDown = genererCoolDownAleatoire(typeNourriture);
+        this.coolDown = genererCoolDownAleatoire(typeNourriture, ServiceAleatoire.fluxHorsMonde());
+        this.typeNourriture = typeNourriture;
+    }
+
+    /**
+     * Construit une nourriture dont la durée d'effet est tirée dans un flux
+     * donné (par exemple le flux de génération du monde).
+     */
+    public Nourriture(Nourritures typeNourriture, String nom, String description, Point2D position, SplittableRandom alea) {
+        super(nom, description, position);
+        this.coolDown = genererCoolDownAleatoire(typeNourriture, alea);
         this.typeNourriture = typeNourriture;
     }
 
     public Nourriture(Nourritures typeNourriture, Objet o) {
         super(o);
-        this.coolDown = genererCoolDownAleatoire(typeNourriture);
+        this.coolDown = genererCoolDownAleatoire(typeNourriture, ServiceAleatoire.fluxHorsMonde());
         this.typeNourriture = typeNourriture;
     }
     
     
     
     // Géneration nourriture
-    private int genererCoolDownAleatoire(Nourritures type) {
-        Random r = new Random();
+    private int genererCoolDownAleatoire(Nourritures type, SplittableRandom r) {
         // Durée différente selon le type
         return switch (type) {
             case ALCOHOOL -> 2 + r.nextInt(2);      // entre 2 et 3 tours
@@ -62,6 +71,14 @@ public class Nourriture extends Objet implements ObjetUtilisable {
         return coolDown;
     }
 
+    /**
+     * @return la durée restante de l'effet, en tours
+     */
+    @Override
+    public int getDuree() {
+        return coolDown;
+    }
+
     public Nourritures getTypeNourriture() {
         return typeNourriture;
     }
@@ -205,6 +222,9 @@ public class Nourriture extends Objet implements ObjetUtilisable {
         if (p.getPagePar() > 100) {
             p.setPagePar(100);
         }
+
+        // L'effet est terminé
+        this.coolDown = 0;
     }
 
     // --- Méthode pour décrémenter la durée de l'effet à chaque tour ---
@@ -220,4 +240,12 @@ public class Nourriture extends Objet implements ObjetUtilisable {
     public boolean estActif() {
         return coolDown > 0;
     }
+
+    /**
+     * @return le symbole d'une nourriture sur la carte
+     */
+    @Override
+    public char getSymbole() {
+        return 'N';
+    }
 }
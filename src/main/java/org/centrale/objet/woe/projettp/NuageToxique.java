@@ -4,10 +4,9 @@
  */
 package org.centrale.objet.woe.projettp;
 
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.Random;
-import java.util.Set;
+import java.util.SplittableRandom;
 
 /**
  * La classe {@code NuageToxique} représente un élément dangereux du monde du
@@ -188,6 +187,22 @@ public class NuageToxique extends Objet implements Deplacable, Combattant, Analy
         return this.duree > 0;
     }
 
+    /**
+     * Dissipe le nuage au terme de sa durée : il quitte la grille et la
+     * couche des objets, et n'est plus actif. Appelée une seule fois par
+     * l'échéancier du monde.
+     *
+     * @param grille grille d’occupation du monde
+     */
+    public void dissiper(GrilleOccupation grille) {
+        this.duree = 0;
+        JournalEvenements.expiration(this, this);
+        if (grille.getObjets().contains(this)) {
+            grille.retirer(this);
+            grille.getObjets().remove(this);
+        }
+    }
+
     /**
      * Déplace la nuage (en deplacant le centre) en fonction des valeurs dx et
      * dy.
@@ -197,12 +212,12 @@ public class NuageToxique extends Objet implements Deplacable, Combattant, Analy
      */
     @Override
     public void deplacer(int dx, int dy) {
-        this.pos.translate(dx, dy);
+        this.pos = this.pos.decaler(dx, dy);
     }
 
     @Override
-    public void deplacementAleatoire(Set<Point2D> positionsOccupees, int tailleMonde) {
-        Random rand = new Random();
+    public void deplacementAleatoire(GrilleOccupation grille, int tailleMonde) {
+        SplittableRandom rand = getAlea();
         final int MAX_ESSAIS = 9;
         int essais = 0;
 
@@ -221,27 +236,28 @@ public class NuageToxique extends Objet implements Deplacable, Combattant, Analy
             int nx = anciennePos.getX() + dx;
             int ny = anciennePos.getY() + dy;
 
-            // nouvelle position déclarée dans la boucle => effectively final pour la lambda
-            Point2D nouvellePos = new Point2D(nx, ny);
-
             // vérifier les limites du monde
             boolean dansMonde = nx >= 0 && nx < tailleMonde && ny >= 0 && ny < tailleMonde;
             if (!dansMonde) {
                 essais++;
                 continue;
             }
-            // vérifier si la case est occupée (en utilisant lambda mais avec nouvellePos locale)
-            boolean occupee = positionsOccupees.stream().anyMatch(p -> p.equals(nouvellePos));
-
-            if (!occupee) {
-                // mettre à jour la liste des positions occupées (si nécessaire)
-                // IMPORTANT : cela suppose que equals/hashCode de Point2D sont corrects
-                positionsOccupees.remove(anciennePos);
-                positionsOccupees.add(nouvellePos);
-
-                // effectuer le déplacement
-                this.pos = nouvellePos; // ou this.pos.translate(dx, dy) si tu veux garder l'instance
-                System.out.println(this.getNom() + " se déplace en (" + nx + ", " + ny + ").");
+
+            // vérifier si la case est occupée (accès direct à la grille, sans allocation)
+            if (!grille.estOccupee(nx, ny)) {
+                // pendant un tour, le déplacement est seulement proposé :
+                // il sera résolu avec tous les autres en fin de tour
+                PhaseDeplacement phase = grille.getPhaseDeplacement();
+                if (phase.estOuverte()) {
+                    phase.proposer(this, nx, ny);
+                    return;
+                }
+
+                // hors tour : libérer l'ancienne case puis occuper la nouvelle
+                grille.retirer(this);
+                this.pos = Point2D.of(nx, ny);
+                grille.placer(this);
+                JournalEvenements.deplacement(this, nx, ny);
                 return;
             }
             essais++;
@@ -256,83 +272,59 @@ public class NuageToxique extends Objet implements Deplacable, Combattant, Analy
      * Cette méthode représente le comportement offensif du nuage toxique à
      * chaque tour : elle vérifie si la créature passée en paramètre est dans la
      * zone d’effet (carré de taille {@code taille} centré sur {@code pos}), et
-     * lui inflige {@code degatParTour} points de dégâts. Si la créature meurt,
-     * elle est retirée du monde via {@link Creature#mourir(Set)}.
+     * lui inflige {@code degatParTour} points de dégâts par le
+     * {@link TamponCommandes} de la grille. Si la créature meurt, elle est
+     * retirée du monde via {@link Creature#mourir(GrilleOccupation)}.
      * </p>
      *
      * @param c la créature potentiellement affectée par le nuage
-     * @param positionWorld ensemble des positions actuellement occupées dans le
-     * monde
+     * @param grille grille d’occupation du monde
      * @param creatures
      */
     @Override
-    public void combattre(Creature c, Set<Point2D> positionWorld, List<Creature> creatures) {
+    public void combattre(Creature c, GrilleOccupation grille, List<Creature> creatures) {
         // Si le nuage est dissipé, il n'agit plus
         if (!this.estActif()) {
             return;
         }
 
-        // Coordonnées de la créature
-        int xC = c.getPos().getX();
-        int yC = c.getPos().getY();
-
-        // Vérifie si la créature est vivante et dans la zone d'effet
-            System.out.println();
-            System.out.println("Le nuage toxique \"" + this.getNom() + "\" affecte " + c.getNom() + " !");
-            System.out.println("Position du nuage : (" + pos.getX() + ", " + pos.getY() + ")");
-            System.out.println("Position de la créature : (" + xC + ", " + yC + ")");
-            System.out.println("Dégâts infligés : " + degatParTour);
-
-            // Applique les dégâts
-            c.setPtVie(c.getPtVie() - degatParTour);
-
-            // Vérifie l'état de la créature après l'attaque
-            if (c.getPtVie() <= 0) {
-                System.out.println("" + c.getNom() + " a succombe au nuage toxique !");
-                c.mourir(positionWorld, creatures);  // Supprime la créature du monde et met son état à faux
-            } else {
-                System.out.println("Il reste " + c.getPtVie() + " points de vie a " + c.getNom() + ".");
-            }
-
-            System.out.println("Duree restante du nuage : " + duree + " tours.");
-            System.out.println("----------------------------------------------");
-        
+        // Applique les dégâts (la créature meurt à la résolution si ses
+        // points de vie sont épuisés)
+        grille.getCommandes().degats(this, c, degatParTour, TypeEvenement.NUAGE);
     }
 
     /**
      *
-     * @param positionWorld
+     * @param grille
      * @param creatures
      * @param objets
      * @param tailleMonde
      */
     @Override
-    public void analyzer(Set<Point2D> positionWorld, List<Creature> creatures, List<Objet> objets, int tailleMonde) {
+    public void analyzer(GrilleOccupation grille, List<Creature> creatures, Collection<Objet> objets, int tailleMonde) {
         // 1. Déplacement aléatoire du nuage
-        this.deplacementAleatoire(positionWorld, tailleMonde);
+        this.deplacementAleatoire(grille, tailleMonde);
 
-        // 2. Calcul des limites de la zone d'effet
+        // 2. Calcul de la demi-taille de la zone d'effet
         int demiTaille = taille / 2;
-        int xMin = this.pos.getX() - demiTaille;
-        int xMax = this.pos.getX() + demiTaille;
-        int yMin = this.pos.getY() - demiTaille;
-        int yMax = this.pos.getY() + demiTaille;
+        int xC = this.pos.getX();
+        int yC = this.pos.getY();
 
         // 3. Récupérer toutes les créatures vivantes dans la zone d'effet
-        List<Creature> creaturesAffectees = new ArrayList<>();
-        for (Creature c : creatures) {
-            int xC = c.getPos().getX();
-            int yC = c.getPos().getY();
-
-            if (c.isEtat() && xC >= xMin && xC <= xMax && yC >= yMin && yC <= yMax) {
-                creaturesAffectees.add(c);
-            }
-        }
+        List<Creature> creaturesAffectees = GrilleOccupation.tamponZone();
+        grille.creaturesDansZone(FormeZone.CARRE, xC, yC, demiTaille, Creature.class, creaturesAffectees);
 
         // 4. Appliquer l'attaque à toutes les créatures affectées
         for (Creature c : creaturesAffectees) {
-            this.combattre(c, positionWorld, creatures);
+            this.combattre(c, grille, creatures);
         }
     }
 
+    /**
+     * @return le symbole d'un nuage toxique sur la carte
+     */
+    @Override
+    public char getSymbole() {
+        return 'X';
+    }
 }
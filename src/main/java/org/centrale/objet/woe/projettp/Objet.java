@@ -18,6 +18,9 @@ public class Objet extends ElementDeJeu {
     /** Description de l'objet */
     private String description;
 
+    /** Rang de l'objet dans la {@link CoucheObjets} de son monde (-1 : aucun) */
+    int rang = -1;
+
     // ================= CONSTRUCTEURS =================
 
     /**
@@ -97,4 +100,12 @@ public class Objet extends ElementDeJeu {
         System.out.println("Description : " + this.description);
         System.out.println("Position : (" + pos.getX() + ", " + pos.getY() + ")");
     }
+
+    /**
+     * @return le symbole d'un objet sans type particulier sur la carte
+     */
+    @Override
+    public char getSymbole() {
+        return '?';
+    }
 }
@@ -5,12 +5,19 @@
 package org.centrale.objet.woe.projettp;
 
 /**
+ * Objet dont l'effet s'applique à un personnage pendant un nombre limité de
+ * tours. La fin de l'effet est planifiée par la {@link RoueTemporelle} du
+ * monde, qui appelle {@link #retirerEffet(Personnage)} une seule fois.
  *
  * @author srodr
  */
 public interface ObjetUtilisable {
     void appliquerEffet(Personnage p);  
     void retirerEffet(Personnage p);                        
+    /**
+     * @return la durée de l'effet, en tours
+     */
+    int getDuree();
     void decrementerDuree();  
     boolean estActif();
 }
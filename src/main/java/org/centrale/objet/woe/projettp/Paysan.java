@@ -48,4 +48,12 @@ public class Paysan extends Personnage {
     public Paysan() {
         super();
     }
+
+    /**
+     * @return le symbole d'un paysan sur la carte
+     */
+    @Override
+    public char getSymbole() {
+        return 'P';
+    }
 }
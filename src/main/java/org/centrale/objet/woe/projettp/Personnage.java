@@ -1,10 +1,9 @@
 package org.centrale.objet.woe.projettp;
 
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Collection;
 import java.util.List;
-import java.util.Random;
-import java.util.Set;
+import java.util.SplittableRandom;
 
 /**
  * La classe {@code Personnage} représente un personnage du jeu.
@@ -94,14 +93,27 @@ public class Personnage extends Creature implements Analyze {
      * <li>Autres types : aucune action.</li>
      * </ul>
      * <p>
-     * Après l'interaction, l'objet est retiré de l'ensemble des positions
-     * occupées du monde {@code positionWorld}.
+     * Après l'interaction, l'objet est retiré de la grille d'occupation du
+     * monde {@code grille}.
      * </p>
      *
      * @param o L'objet à ramasser
-     * @param positionWorld L'ensemble des positions occupées dans le monde
+     * @param grille La grille d'occupation du monde
      */
-    public void prendObjet(Objet o, Set<Point2D> positionWorld) {
+    public void prendObjet(Objet o, GrilleOccupation grille) {
+        prendObjet(o, grille, null);
+    }
+
+    /**
+     * Ramasse un objet et le retire de la grille ainsi que de la liste des
+     * objets du monde. Pendant un tour, le retrait passe par le
+     * {@link TamponCommandes} de la grille et n'a lieu qu'à sa résolution.
+     *
+     * @param o L'objet à ramasser
+     * @param grille La grille d'occupation du monde
+     * @param objets Liste des objets du monde, ou {@code null}
+     */
+    public void prendObjet(Objet o, GrilleOccupation grille, Collection<Objet> objets) {
         if (this.getPos().equals(o.getPosition())) {
 
             switch (o) {
@@ -114,8 +126,7 @@ public class Personnage extends Creature implements Analyze {
                     System.out.println("Épée prise, attaque actuelle : " + this.getDegAtt());
                 }
                 case ObjetUtilisable utilisable -> {
-                    utilisable.appliquerEffet(this);
-                    this.effetsActifs.add(utilisable);
+                    activerEffet(utilisable, grille);
                     System.out.println("Objet utilisable activé : " + o.getNom());
                 }
                 default -> {
@@ -124,66 +135,67 @@ public class Personnage extends Creature implements Analyze {
             }
 
             // Retire l’objet du monde
-            positionWorld.remove(o.getPosition());
+            JournalEvenements.ramassage(this, o);
+            grille.getCommandes().retirerObjet(o, objets);
         }
     }
 
-    public void mettreAJourEffets() {
-        Iterator<ObjetUtilisable> it = effetsActifs.iterator();
-        while (it.hasNext()) {
-            ObjetUtilisable effet = it.next();
-
-            // On décrémente la durée de vie de l'effet
-            effet.decrementerDuree();
+    /**
+     * Applique l'effet d'un objet au personnage et planifie sa fin dans
+     * l'échéancier du monde, s'il y en a un.
+     *
+     * @param utilisable objet dont l'effet commence
+     * @param grille La grille d'occupation du monde
+     */
+    public void activerEffet(ObjetUtilisable utilisable, GrilleOccupation grille) {
+        utilisable.appliquerEffet(this);
+        this.effetsActifs.add(utilisable);
+        RoueTemporelle roue = grille.getRoue();
+        if (roue != null && utilisable instanceof ElementDeJeu sujet) {
+            roue.planifier(sujet, this, utilisable.getDuree());
+        }
+    }
 
-            // Si l'effet n'est plus actif, on le retire
-            if (!effet.estActif()) {
-                effet.retirerEffet(this);
-                it.remove();
-                System.out.println("Effet terminé et retiré : " + effet);
+    /**
+     * Met fin à un effet actif : appelée par l'échéancier du monde au tour
+     * où l'effet expire. Un effet déjà retiré est ignoré.
+     *
+     * @param effet effet qui prend fin
+     */
+    public void terminerEffet(ObjetUtilisable effet) {
+        if (this.effetsActifs.remove(effet)) {
+            effet.retirerEffet(this);
+            if (effet instanceof ElementDeJeu sujet) {
+                JournalEvenements.expiration(this, sujet);
             }
         }
     }
 
     @Override
-    public void analyzer(Set<Point2D> positionWorld, List<Creature> creatures, List<Objet> objets, int tailleMonde) {
+    public void analyzer(GrilleOccupation grille, List<Creature> creatures, Collection<Objet> objets, int tailleMonde) {
 
         //Check if Paysan
         if (this instanceof Paysan) {
-            this.deplacementAleatoire(positionWorld, tailleMonde);
+            this.deplacementAleatoire(grille, tailleMonde);
         } else {
 
-            Random rand = new Random();
+            SplittableRandom rand = getAlea();
 
-            // Le héros (ce PNJ lui-même)
-            Point2D posPersonnage = this.getPos();
-
-            // Liste des créatures adjacentes (pour une éventuelle attaque)
-            List<Creature> ciblesAdjacentes = new ArrayList<>();
-            for (Creature c : creatures) {
-                if (c != this) { // éviter de s'ajouter soi-même
-                    double dx = Math.abs(c.getPos().getX() - posPersonnage.getX());
-                    double dy = Math.abs(c.getPos().getY() - posPersonnage.getY());
-                    if (dx <= this.getDistAttMax() && dy <= this.getDistAttMax() && !(dx == 0 && dy == 0)) {
-                        ciblesAdjacentes.add(c);
-                    }
-                }
-            }
+            // Créatures à portée (pour une éventuelle attaque), prises dans le
+            // relevé de la tuile autour de sa propre case
+            List<Creature> ciblesAdjacentes = AcquisitionCibles.ciblesAPortee(grille, this);
             int action = rand.nextInt(3);
 
             switch (action) {
                 case 0 -> { // Se déplacer aléatoirement
-                    this.deplacementAleatoire(positionWorld, tailleMonde);
+                    this.deplacementAleatoire(grille, tailleMonde);
                 }
                 case 1 -> {
                     if (!ciblesAdjacentes.isEmpty()) {
                         Creature cible = ciblesAdjacentes.get(rand.nextInt(ciblesAdjacentes.size()));
-                        System.out.println(this.getNom() + " attaque " + cible.getNom() + " !");
                         if (this instanceof Combattant combattant) {
-                            combattant.combattre(cible, positionWorld, creatures);
+                            combattant.combattre(cible, grille, creatures);
                         }
-                    } else {
-                        System.out.println(this.getNom() + " veut attaquer mais il n'y a personne à proximité.");
                     }
 
                 }
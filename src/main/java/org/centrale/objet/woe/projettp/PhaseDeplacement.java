@@ -0,0 +1,202 @@
+package org.centrale.objet.woe.projettp;
+
+import java.util.Arrays;
+
+/**
+ * La classe {@code PhaseDeplacement} regroupe les déplacements aléatoires
+ * proposés pendant un tour et les applique tous ensemble à la fin du tour.
+ * <p>
+ * Pendant le tour, chaque élément qui veut bouger enregistre seulement la case
+ * visée ({@link #proposer(ElementDeJeu, int, int)}). Les propositions sont
+ * stockées dans des tableaux primitifs ; aucune position n'est modifiée.
+ * </p>
+ *
+ * <p>
+ * À la résolution ({@link #resoudre(GrilleOccupation)}), les propositions sont
+ * triées par case visée. Un seul balayage suffit alors à régler les conflits
+ * de manière déterministe :
+ * </p>
+ * <ul>
+ * <li>une case déjà occupée au début de la résolution est refusée ;</li>
+ * <li>pour une case libre, l'élément venant de la case d'origine de plus
+ * petit indice l'emporte ;</li>
+ * <li>les éléments morts entre-temps ne bougent pas.</li>
+ * </ul>
+ * <p>
+ * Le gagnant ne dépend donc pas de l'ordre d'arrivée des propositions : le
+ * résultat est le même que les analyses soient exécutées en série ou en
+ * parallèle par le {@link MoteurTuiles}. Pour la même raison,
+ * {@link #proposer(ElementDeJeu, int, int)} peut être appelée par plusieurs
+ * threads.
+ * </p>
+ * <p>
+ * Les gagnants quittent ensuite tous leur ancienne case, puis occupent tous
+ * leur nouvelle case : la grille est mise à jour en bloc.
+ * </p>
+ *
+ * @author srodr
+ */
+public class PhaseDeplacement {
+
+    // ================= ATTRIBUTS =================
+    /**
+     * Éléments ayant proposé un déplacement, dans l'ordre d'arrivée
+     */
+    private ElementDeJeu[] auteurs;
+
+    /**
+     * Abscisses visées
+     */
+    private int[] ciblesX;
+
+    /**
+     * Ordonnées visées
+     */
+    private int[] ciblesY;
+
+    /**
+     * Case d'origine de chaque proposition, ordonnée ligne par ligne
+     * ({@code y} sur les 32 bits de poids fort) ; sert à départager les
+     * conflits
+     */
+    private long[] origines;
+
+    /**
+     * Clés de tri : indice de la case visée (32 bits de poids fort) puis
+     * numéro de la proposition (32 bits de poids faible)
+     */
+    private long[] cles;
+
+    /**
+     * Nombre de propositions enregistrées
+     */
+    private int nbPropositions;
+
+    /**
+     * Indique si la phase accepte des propositions
+     */
+    private boolean ouverte;
+
+    // ================= CONSTRUCTEUR =================
+    /**
+     * Construit une phase fermée avec une capacité initiale de 64
+     * propositions.
+     */
+    public PhaseDeplacement() {
+        this.auteurs = new ElementDeJeu[64];
+        this.ciblesX = new int[64];
+        this.ciblesY = new int[64];
+        this.origines = new long[64];
+        this.cles = new long[64];
+        this.nbPropositions = 0;
+        this.ouverte = false;
+    }
+
+    // ================= MÉTHODES =================
+    /**
+     * Ouvre la phase : les déplacements suivants seront différés.
+     */
+    public void ouvrir() {
+        this.nbPropositions = 0;
+        this.ouverte = true;
+    }
+
+    /**
+     * @return {@code true} si les déplacements sont actuellement différés
+     */
+    public boolean estOuverte() {
+        return ouverte;
+    }
+
+    /**
+     * @return le nombre de propositions en attente
+     */
+    public int getNbPropositions() {
+        return nbPropositions;
+    }
+
+    /**
+     * Enregistre la proposition de déplacement d'un élément vers une case.
+     *
+     * @param e élément qui souhaite se déplacer
+     * @param nx abscisse visée
+     * @param ny ordonnée visée
+     */
+    public synchronized void proposer(ElementDeJeu e, int nx, int ny) {
+        if (nbPropositions == auteurs.length) {
+            int capacite = auteurs.length * 2;
+            auteurs = Arrays.copyOf(auteurs, capacite);
+            ciblesX = Arrays.copyOf(ciblesX, capacite);
+            ciblesY = Arrays.copyOf(ciblesY, capacite);
+            origines = Arrays.copyOf(origines, capacite);
+            cles = Arrays.copyOf(cles, capacite);
+        }
+        auteurs[nbPropositions] = e;
+        ciblesX[nbPropositions] = nx;
+        ciblesY[nbPropositions] = ny;
+        origines[nbPropositions] = ((long) e.getPos().getY() << 32) | e.getPos().getX();
+        nbPropositions++;
+    }
+
+    /**
+     * Résout toutes les propositions du tour, met la grille à jour en bloc et
+     * ferme la phase.
+     *
+     * @param grille grille d'occupation du monde
+     * @return le nombre de déplacements effectués
+     */
+    public int resoudre(GrilleOccupation grille) {
+        int n = nbPropositions;
+        int taille = grille.getTaille();
+
+        // 1. Tri par case visée (le numéro de proposition ne sert qu'à
+        // retrouver l'auteur)
+        for (int i = 0; i < n; i++) {
+            long caseVisee = (long) ciblesY[i] * taille + ciblesX[i];
+            cles[i] = (caseVisee << 32) | i;
+        }
+        Arrays.sort(cles, 0, n);
+
+        // 2. Un balayage par groupe de même case visée : si la case est
+        // libre, le vivant de plus petite origine l'emporte
+        int nbGagnants = 0;
+        int k = 0;
+        while (k < n) {
+            long caseVisee = cles[k] >>> 32;
+            int gagnant = -1;
+            int i0 = (int) cles[k];
+            boolean libre = !grille.estOccupee(ciblesX[i0], ciblesY[i0]);
+            for (; k < n && (cles[k] >>> 32) == caseVisee; k++) {
+                int i = (int) cles[k];
+                if (!libre || (auteurs[i] instanceof Creature c && !c.isEtat())) {
+                    continue; // case prise, ou mort pendant le tour
+                }
+                if (gagnant < 0 || origines[i] < origines[gagnant]) {
+                    gagnant = i;
+                }
+            }
+            if (gagnant >= 0) {
+                cles[nbGagnants++] = gagnant;
+            }
+        }
+
+        // 3. Mise à jour en bloc : on libère toutes les anciennes cases...
+        for (int j = 0; j < nbGagnants; j++) {
+            grille.retirer(auteurs[(int) cles[j]]);
+        }
+
+        // ... puis on occupe toutes les nouvelles
+        for (int j = 0; j < nbGagnants; j++) {
+            int i = (int) cles[j];
+            ElementDeJeu e = auteurs[i];
+            e.setPos(Point2D.of(ciblesX[i], ciblesY[i]));
+            grille.placer(e);
+            JournalEvenements.deplacement(e, ciblesX[i], ciblesY[i]);
+        }
+
+        Arrays.fill(auteurs, 0, n, null);
+        nbPropositions = 0;
+        ouverte = false;
+        return nbGagnants;
+    }
+}
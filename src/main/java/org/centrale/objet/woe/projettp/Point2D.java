@@ -7,23 +7,60 @@ package org.centrale.objet.woe.projettp;
 /**
  * La classe {@code Point2D} représente un point dans un plan à deux dimensions.
  * <p>
- * Chaque point possède des coordonnées x et y, peut être déplacé, affiché et
- * calculer la distance par rapport à un autre point.
+ * Chaque point possède des coordonnées x et y, peut être affiché et calculer
+ * la distance par rapport à un autre point.
+ * </p>
+ *
+ * <p>
+ * Les tests de portée n'utilisent que des distances entières : distance
+ * euclidienne au carré ({@link #distanceCarree(Point2D)}) ou distance de
+ * Chebyshev ({@link #distanceChebyshev(Point2D)}). Les variantes statiques
+ * opèrent directement sur des coordonnées, et les variantes en lot
+ * ({@link #selectionnerDansRayon}, {@link #selectionnerDansCarre}) testent
+ * une origine contre des tableaux de coordonnées, comme les colonnes de la
+ * {@link ReserveCreatures}, sans créer de point.
+ * </p>
+ *
+ * <p>
+ * Un point est <b>immuable</b> : « déplacer » un point ({@link #decaler(int, int)})
+ * retourne un autre point. Une même instance peut donc être partagée sans
+ * risque entre plusieurs éléments, plusieurs threads ou plusieurs copies du
+ * monde. La fabrique {@link #of(int, int)} réutilise les points d'un cache
+ * couvrant les coordonnées du monde, ce qui évite d'allouer un point à chaque
+ * déplacement ou à chaque vérification.
  * </p>
  *
  * @author srodr
  */
-public class Point2D {
+public final class Point2D {
+
+    // ================= CACHE =================
+    /**
+     * Côté maximal du cache de points (4096 × 4096 références au plus)
+     */
+    private static final int COTE_CACHE_MAX = 4096;
+
+    /**
+     * Points déjà créés, indexés par {@code y * cote + x}. Le tableau est
+     * rempli à la demande ; deux threads peuvent créer le même point en même
+     * temps sans conséquence puisque les points sont immuables.
+     */
+    private static volatile Point2D[] cache = new Point2D[64 * 64];
+
+    /**
+     * Côté du cache courant
+     */
+    private static volatile int coteCache = 64;
 
     /**
      * Coordonnée x du point
      */
-    private int x;
+    private final int x;
 
     /**
      * Coordonnée y du point
      */
-    private int y;
+    private final int y;
 
     // ================= CONSTRUCTEURS =================
     /**
@@ -55,43 +92,62 @@ public class Point2D {
         this.y = p.getY();
     }
 
-    // ================= GETTERS ET SETTERS =================
-    public int getX() {
-        return x;
-    }
-
-    public int getY() {
-        return y;
+    // ================= FABRIQUE =================
+    /**
+     * Retourne le point de coordonnées {@code (x, y)}, pris dans le cache
+     * lorsqu'il couvre ces coordonnées.
+     *
+     * @param x Coordonnée x
+     * @param y Coordonnée y
+     * @return un point (éventuellement partagé) de coordonnées {@code (x, y)}
+     */
+    public static Point2D of(int x, int y) {
+        int cote = coteCache;
+        Point2D[] points = cache;
+        if (x < 0 || y < 0 || x >= cote || y >= cote || points.length != cote * cote) {
+            return new Point2D(x, y);
+        }
+        int i = y * cote + x;
+        Point2D p = points[i];
+        if (p == null) {
+            p = new Point2D(x, y);
+            points[i] = p;
+        }
+        return p;
     }
 
-    public void setX(int x) {
-        this.x = x;
+    /**
+     * Agrandit le cache pour qu'il couvre un monde de {@code taille × taille}
+     * cases (dans la limite de {@value #COTE_CACHE_MAX} cases de côté).
+     *
+     * @param taille dimension du monde
+     */
+    public static synchronized void preparerCache(int taille) {
+        int cote = Math.min(taille, COTE_CACHE_MAX);
+        if (cote > coteCache) {
+            cache = new Point2D[cote * cote];
+            coteCache = cote;
+        }
     }
 
-    public void setY(int y) {
-        this.y = y;
+    // ================= GETTERS =================
+    public int getX() {
+        return x;
     }
 
-    /**
-     * Définit la position du point.
-     *
-     * @param x Nouvelle coordonnée x
-     * @param y Nouvelle coordonnée y
-     */
-    public void setPosition(int x, int y) {
-        this.x = x;
-        this.y = y;
+    public int getY() {
+        return y;
     }
 
     /**
-     * Déplace le point selon dx et dy.
+     * Retourne le point décalé de dx et dy (ce point n'est pas modifié).
      *
      * @param dx Déplacement horizontal
      * @param dy Déplacement vertical
+     * @return le point {@code (x + dx, y + dy)}
      */
-    public void translate(int dx, int dy) {
-        this.x = this.x + dx;
-        this.y = this.y + dy;
+    public Point2D decaler(int dx, int dy) {
+        return of(this.x + dx, this.y + dy);
     }
 
     /**
@@ -103,14 +159,165 @@ public class Point2D {
 
     /**
      * Calcule la distance entre ce point et un autre point donné.
+     * <p>
+     * Pour comparer une distance à une portée, préférer
+     * {@link #distanceCarree(Point2D)} ou {@link #distanceChebyshev(Point2D)},
+     * qui restent exactes.
+     * </p>
      *
      * @param p Point de référence
      * @return Distance entre les deux points
      */
     public float distance(Point2D p) {
-        float subDistX = (float) Math.pow((p.getX() - this.x), 2);
-        float subDistY = (float) Math.pow((p.getY() - this.y), 2);
-        return (float) Math.sqrt(subDistX + subDistY);
+        return (float) Math.sqrt(distanceCarree(p));
+    }
+
+    // ================= DISTANCES ENTIÈRES =================
+    /**
+     * Calcule le carré de la distance entre ce point et un autre point, en
+     * entiers (sans racine ni arrondi).
+     *
+     * @param p Point de référence
+     * @return Carré de la distance entre les deux points
+     */
+    public int distanceCarree(Point2D p) {
+        return distanceCarree(this.x, this.y, p.x, p.y);
+    }
+
+    /**
+     * Calcule la distance de Chebyshev (plus grand écart sur un axe) entre ce
+     * point et un autre point : le nombre de pas, diagonales comprises, qui
+     * les séparent.
+     *
+     * @param p Point de référence
+     * @return Distance de Chebyshev entre les deux points
+     */
+    public int distanceChebyshev(Point2D p) {
+        return distanceChebyshev(this.x, this.y, p.x, p.y);
+    }
+
+    /**
+     * Carré de la distance euclidienne entre deux cases.
+     *
+     * @param x1 abscisse de la première case
+     * @param y1 ordonnée de la première case
+     * @param x2 abscisse de la seconde case
+     * @param y2 ordonnée de la seconde case
+     * @return {@code (x2 - x1)² + (y2 - y1)²}
+     */
+    public static int distanceCarree(int x1, int y1, int x2, int y2) {
+        int dx = x2 - x1;
+        int dy = y2 - y1;
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * Distance de Chebyshev entre deux cases.
+     *
+     * @param x1 abscisse de la première case
+     * @param y1 ordonnée de la première case
+     * @param x2 abscisse de la seconde case
+     * @param y2 ordonnée de la seconde case
+     * @return {@code max(|x2 - x1|, |y2 - y1|)}
+     */
+    public static int distanceChebyshev(int x1, int y1, int x2, int y2) {
+        return Math.max(Math.abs(x2 - x1), Math.abs(y2 - y1));
+    }
+
+    /**
+     * Calcule en lot le carré de la distance entre une origine et les cases
+     * {@code (xs[i], ys[i])}, pour {@code i} de 0 à {@code n - 1}.
+     *
+     * @param ox abscisse de l'origine
+     * @param oy ordonnée de l'origine
+     * @param xs abscisses des cases
+     * @param ys ordonnées des cases
+     * @param n nombre de cases
+     * @param distances reçoit la distance au carré de chaque case (au moins
+     * {@code n} éléments)
+     */
+    public static void distancesCarrees(int ox, int oy, int[] xs, int[] ys, int n, int[] distances) {
+        for (int i = 0; i < n; i++) {
+            int dx = xs[i] - ox;
+            int dy = ys[i] - oy;
+            distances[i] = dx * dx + dy * dy;
+        }
+    }
+
+    /**
+     * Retient en lot les indices des cases {@code (xs[i], ys[i])} dont le carré
+     * de la distance à l'origine ne dépasse pas {@code rayon2}.
+     * <p>
+     * Chaque indice est écrit sans condition puis gardé ou non : la boucle ne
+     * contient aucun branchement dépendant des données.
+     * </p>
+     *
+     * @param ox abscisse de l'origine
+     * @param oy ordonnée de l'origine
+     * @param xs abscisses des cases
+     * @param ys ordonnées des cases
+     * @param n nombre de cases
+     * @param rayon2 carré du rayon
+     * @param indices reçoit, dans l'ordre, les indices retenus (au moins
+     * {@code n} éléments)
+     * @return le nombre d'indices retenus
+     */
+    public static int selectionnerDansRayon(int ox, int oy, int[] xs, int[] ys, int n, int rayon2, int[] indices) {
+        int k = 0;
+        for (int i = 0; i < n; i++) {
+            int dx = xs[i] - ox;
+            int dy = ys[i] - oy;
+            indices[k] = i;
+            // 1 si la case est dans le disque, 0 sinon
+            k += (dx * dx + dy * dy - rayon2 - 1) >>> 31;
+        }
+        return k;
+    }
+
+    /**
+     * Retient en lot les indices des cases {@code (xs[i], ys[i])} situées dans
+     * le carré de Chebyshev de demi-côté {@code rayon} autour de l'origine,
+     * sans branchement dépendant des données.
+     *
+     * @param ox abscisse de l'origine
+     * @param oy ordonnée de l'origine
+     * @param xs abscisses des cases
+     * @param ys ordonnées des cases
+     * @param n nombre de cases
+     * @param rayon demi-côté du carré
+     * @param indices reçoit, dans l'ordre, les indices retenus (au moins
+     * {@code n} éléments)
+     * @return le nombre d'indices retenus
+     */
+    public static int selectionnerDansCarre(int ox, int oy, int[] xs, int[] ys, int n, int rayon, int[] indices) {
+        return selectionnerDansCarre(ox, oy, xs, ys, 0, n, rayon, indices);
+    }
+
+    /**
+     * Variante de {@link #selectionnerDansCarre(int, int, int[], int[], int, int, int[])}
+     * limitée aux cases d'indice {@code debut} (inclus) à {@code fin}
+     * (exclu). Les indices retenus restent ceux des tableaux de coordonnées.
+     *
+     * @param ox abscisse de l'origine
+     * @param oy ordonnée de l'origine
+     * @param xs abscisses des cases
+     * @param ys ordonnées des cases
+     * @param debut premier indice testé
+     * @param fin indice suivant le dernier indice testé
+     * @param rayon demi-côté du carré
+     * @param indices reçoit, dans l'ordre, les indices retenus (au moins
+     * {@code fin - debut} éléments)
+     * @return le nombre d'indices retenus
+     */
+    public static int selectionnerDansCarre(int ox, int oy, int[] xs, int[] ys, int debut, int fin, int rayon,
+            int[] indices) {
+        int k = 0;
+        for (int i = debut; i < fin; i++) {
+            int d = Math.max(Math.abs(xs[i] - ox), Math.abs(ys[i] - oy));
+            indices[k] = i;
+            k += (d - rayon - 1) >>> 31;
+        }
+        return k;
     }
 
     // ================= MÉTHODES EQUALS ET HASHCODE =================
@@ -133,15 +340,27 @@ public class Point2D {
         return x == point2D.x && y == point2D.y;
     }
 
+    /**
+     * @return les coordonnées sous la forme {@code (x, y)}
+     */
+    @Override
+    public String toString() {
+        return "(" + x + ", " + y + ")";
+    }
+
     /**
      * Calcule le code hash pour ce point. Cette méthode doit être cohérente
      * avec la méthode equals().
+     * <p>
+     * Les coordonnées sont empaquetées puis mélangées : l'ancien
+     * {@code 31 * x + y} donnait le même code à (1, 0) et (0, 31).
+     * </p>
      *
      * @return Le code hash du point
      */
     @Override
     public int hashCode() {
-        return 31 * x + y;
+        return Long.hashCode(TablePositions.melanger(TablePositions.cle(x, y)));
     }
 
 }
@@ -72,4 +72,12 @@ public class PotionSoin extends Objet {
     public void setpVie(int pVie) {
         this.pVie = pVie;
     }
+
+    /**
+     * @return le symbole d'une potion de soin sur la carte
+     */
+    @Override
+    public char getSymbole() {
+        return 'O';
+    }
 }
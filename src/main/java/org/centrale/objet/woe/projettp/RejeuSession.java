@@ -0,0 +1,298 @@
+package org.centrale.objet.woe.projettp;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * La classe {@code RejeuSession} rejoue une {@link SessionEnregistree} :
+ * elle recrée le monde à partir de sa graine, puis redonne au joueur, tour par
+ * tour, les choix enregistrés.
+ * <p>
+ * Le rejeu se fait sans terminal, comme une {@link SimulationAutonome} : pas
+ * de carte, pas de lecture sur la console, sortie standard écartée. Après
+ * chaque tour, l'empreinte du monde est comparée à celle de la partie
+ * enregistrée, et le joueur doit avoir lu exactement les choix de ce tour ;
+ * au premier écart, le rejeu s'arrête sur le tour divergent
+ * ({@link #getDivergence()}). On peut ainsi reproduire n'importe quel tour
+ * d'une partie réelle, par exemple pour en sauvegarder l'instantané, ou
+ * mesurer le moteur sur une partie réelle plutôt que sur un monde sans
+ * joueur.
+ * </p>
+ *
+ * <p>
+ * Utilisation en ligne de commande :
+ * </p>
+ * <pre>
+ * RejeuSession session.bin [tour] [threads] [instantane.bin]
+ * </pre>
+ * <p>
+ * Sans numéro de tour, toute la session est rejouée. Si un fichier est
+ * donné, l'instantané du monde au dernier tour rejoué y est écrit.
+ * </p>
+ *
+ * @author srodr
+ */
+public final class RejeuSession {
+
+    // ================= ATTRIBUTS =================
+    private final long graine;
+    private final int taille;
+    private final int nbCreatures;
+    private final int nbObjets;
+
+    /**
+     * Mots lus par le joueur à chaque tour (indice 0 : création du joueur)
+     */
+    private final String[][] motsParTour;
+
+    /**
+     * Empreinte du monde enregistrée à la fin de chaque tour
+     */
+    private final long[] empreintes;
+
+    private final World monde;
+    private final Joueur joueur;
+
+    /**
+     * Choix du tour en cours, donnés au joueur
+     */
+    private final ChoixDuTour choix = new ChoixDuTour();
+
+    /**
+     * Premier tour divergent (-1 : aucun)
+     */
+    private int divergence = -1;
+
+    // ================= CONSTRUCTEUR =================
+    private RejeuSession(long graine, int taille, int nbCreatures, int nbObjets, int mode,
+            String[][] motsParTour, long[] empreintes) {
+        this.graine = graine;
+        this.taille = taille;
+        this.nbCreatures = nbCreatures;
+        this.nbObjets = nbObjets;
+        this.motsParTour = motsParTour;
+        this.empreintes = empreintes;
+
+        PrintStream sortie = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            monde = new World(graine, taille);
+            monde.creerMondeAlea(nbCreatures, nbObjets);
+            choix.commencer(motsParTour[0]);
+            joueur = switch (mode) {
+                case SessionEnregistree.CHOIX_JOUEUR ->
+                    monde.choixJoueur(choix);
+                case SessionEnregistree.GUERRIER ->
+                    monde.creationJoueur(choix);
+                default ->
+                    null;
+            };
+        } finally {
+            System.setOut(sortie);
+        }
+        verifier(0);
+    }
+
+    /**
+     * Lit une session et recrée son monde au tour 0, joueur créé.
+     *
+     * @param fichier fichier écrit par une {@link SessionEnregistree}
+     * @return le rejeu, prêt à avancer
+     * @throws IOException si le fichier ne peut pas être lu, n'est pas une
+     * session ou est d'une autre version
+     */
+    public static RejeuSession charger(Path fichier) throws IOException {
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            ByteBuffer entree = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size()).order(ByteOrder.LITTLE_ENDIAN);
+            for (byte octet : SessionEnregistree.MAGIQUE) {
+                if (entree.get() != octet) {
+                    throw new IOException(fichier + " n'est pas une session enregistrée");
+                }
+            }
+            int version = entree.getInt();
+            if (version != SessionEnregistree.VERSION) {
+                throw new IOException("Version de session " + version + " non prise en charge (attendue : "
+                        + SessionEnregistree.VERSION + ")");
+            }
+            long graine = entree.getLong();
+            int taille = entree.getInt();
+            int nbCreatures = entree.getInt();
+            int nbObjets = entree.getInt();
+
+            List<String[]> mots = new ArrayList<>();
+            List<Long> empreintes = new ArrayList<>();
+            int mode = SessionEnregistree.SANS_JOUEUR;
+            try {
+                while (entree.hasRemaining()) {
+                    int debut = entree.position();
+                    int tour = entree.getInt();
+                    if (tour != mots.size()) {
+                        throw new IOException("Bloc du tour " + tour + " inattendu dans " + fichier);
+                    }
+                    int modeBloc = tour == 0 ? entree.getInt() : mode;
+                    String[] motsDuTour = new String[entree.getInt()];
+                    for (int i = 0; i < motsDuTour.length; i++) {
+                        byte[] octets = new byte[entree.getInt()];
+                        entree.get(octets);
+                        motsDuTour[i] = new String(octets, StandardCharsets.UTF_8);
+                    }
+                    long empreinte = entree.getLong();
+                    if (entree.position() <= debut) {
+                        break;
+                    }
+                    mode = modeBloc;
+                    mots.add(motsDuTour);
+                    empreintes.add(empreinte);
+                }
+            } catch (BufferUnderflowException | NegativeArraySizeException e) {
+                // dernier bloc incomplet (partie interrompue) : ignoré
+            }
+            if (mots.isEmpty()) {
+                throw new IOException("Session vide : " + fichier);
+            }
+            return new RejeuSession(graine, taille, nbCreatures, nbObjets, mode, mots.toArray(new String[0][]),
+                    empreintes.stream().mapToLong(Long::longValue).toArray());
+        }
+    }
+
+    // ================= GETTERS =================
+    /**
+     * @return le monde rejoué
+     */
+    public World getMonde() {
+        return monde;
+    }
+
+    /**
+     * @return le joueur rejoué, ou {@code null} pour une partie sans joueur
+     */
+    public Joueur getJoueur() {
+        return joueur;
+    }
+
+    /**
+     * @return le nombre de tours enregistrés
+     */
+    public int getNbTours() {
+        return motsParTour.length - 1;
+    }
+
+    /**
+     * @return le premier tour dont l'empreinte diffère de la partie
+     * enregistrée, ou -1 si le rejeu n'a pas divergé
+     */
+    public int getDivergence() {
+        return divergence;
+    }
+
+    // ================= REJEU =================
+    /**
+     * Rejoue les tours suivants, à pleine vitesse, jusqu'au tour donné ou
+     * jusqu'à la première divergence.
+     *
+     * @param jusquA numéro du dernier tour à rejouer (borné au nombre de tours
+     * enregistrés)
+     * @return les mesures des tours rejoués
+     */
+    public SimulationAutonome.Rapport rejouer(int jusquA) {
+        int fin = Math.min(jusquA, getNbTours());
+        long[] durees = new long[Math.max(0, fin - monde.getNbToursJoues())];
+        long misesAJour = 0;
+        int n = 0;
+        PrintStream sortie = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        long debut = System.nanoTime();
+        try {
+            while (divergence < 0 && monde.getNbToursJoues() < fin) {
+                int tour = monde.getNbToursJoues() + 1;
+                choix.commencer(motsParTour[tour]);
+                long debutTour = System.nanoTime();
+                misesAJour += monde.executerTour(joueur);
+                durees[n++] = System.nanoTime() - debutTour;
+                verifier(tour);
+            }
+        } finally {
+            System.setOut(sortie);
+        }
+        return new SimulationAutonome.Rapport(Arrays.copyOf(durees, n), System.nanoTime() - debut, misesAJour);
+    }
+
+    /**
+     * Compare le monde à la partie enregistrée à la fin d'un tour.
+     */
+    private void verifier(int tour) {
+        if (divergence < 0 && (!choix.estEpuisee() || monde.empreinte() != empreintes[tour])) {
+            divergence = tour;
+        }
+    }
+
+    /**
+     * Rejoue une session depuis la ligne de commande et affiche son rapport.
+     *
+     * @param args voir la description de la classe
+     * @throws IOException si un fichier ne peut pas être lu ou écrit
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Utilisation : RejeuSession session.bin [tour] [threads] [instantane.bin]");
+            return;
+        }
+        RejeuSession rejeu = charger(Path.of(args[0]));
+        int jusquA = args.length > 1 ? Integer.parseInt(args[1]) : rejeu.getNbTours();
+        int nbThreads = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        rejeu.getMonde().setParallelisme(nbThreads);
+
+        SimulationAutonome.Rapport rapport = rejeu.rejouer(jusquA);
+        System.out.println("Session : monde " + rejeu.taille + "x" + rejeu.taille + ", " + rejeu.nbCreatures
+                + " créatures, " + rejeu.nbObjets + " objets, graine " + rejeu.graine + ", "
+                + rejeu.getNbTours() + " tours enregistrés, " + nbThreads + " thread(s)");
+        System.out.println(rapport);
+        if (rejeu.getDivergence() >= 0) {
+            System.out.println("Divergence au tour " + rejeu.getDivergence());
+        } else {
+            System.out.println("Aucune divergence jusqu'au tour " + rejeu.getMonde().getNbToursJoues());
+        }
+        if (args.length > 3) {
+            InstantaneMonde.sauvegarder(rejeu.getMonde(), Path.of(args[3]));
+        }
+    }
+
+    /**
+     * Source des choix du joueur : les mots enregistrés pour le tour en
+     * cours. Une fois épuisés, le joueur ne joue plus de ce tour.
+     */
+    private static final class ChoixDuTour implements SourceCommandes {
+
+        private CommandesScript script = new CommandesScript(new String[0]);
+
+        void commencer(String[] mots) {
+            script = new CommandesScript(mots);
+        }
+
+        @Override
+        public int lireEntier() {
+            return script.lireEntier();
+        }
+
+        @Override
+        public String lireMot() {
+            return script.lireMot();
+        }
+
+        @Override
+        public boolean estEpuisee() {
+            return script.estEpuisee();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package org.centrale.objet.woe.projettp;
+
+import java.io.PrintStream;
+
+/**
+ * La classe {@code RenduFenetre} dessine la partie du monde visible par le
+ * héros.
+ * <p>
+ * Seules les {@code (2 × vision + 1)²} cases de la fenêtre sont lues, et
+ * elles le sont dans la {@link GrilleOccupation} : le coût de l'affichage ne
+ * dépend ni de la taille du monde ni du nombre d'éléments. Dans un monde
+ * dense, la grille tient à jour une couche de symboles au fil des
+ * déplacements, des morts et des ramassages ; la fenêtre n'a alors qu'à
+ * recopier un octet par case.
+ * </p>
+ *
+ * <p>
+ * Les cases de la fenêtre sont rangées dans un tableau réutilisé d'un tour à
+ * l'autre, ligne par ligne ; les cases hors du monde valent {@link #HORS_MONDE}.
+ * </p>
+ *
+ * @author srodr
+ */
+public class RenduFenetre {
+
+    // ================= ATTRIBUTS =================
+    /**
+     * Symbole des cases situées hors du monde
+     */
+    public static final char HORS_MONDE = '*';
+
+    /**
+     * Symbole du héros
+     */
+    public static final char HEROS = 'S';
+
+    /**
+     * Symboles de la fenêtre, indexés par {@code ligne * cote + colonne}
+     */
+    private char[] cases = new char[0];
+
+    /**
+     * Nombre de cases d'un côté de la fenêtre
+     */
+    private int cote;
+
+    /**
+     * Coordonnées du coin haut gauche de la fenêtre dans le monde
+     */
+    private int x0;
+    private int y0;
+
+    /**
+     * Texte de la fenêtre, réutilisé d'un affichage à l'autre
+     */
+    private final StringBuilder texte = new StringBuilder();
+
+    // ================= GETTERS =================
+    /**
+     * @return le nombre de cases d'un côté de la dernière fenêtre dessinée
+     */
+    public int getCote() {
+        return cote;
+    }
+
+    /**
+     * @return l'abscisse, dans le monde, de la première colonne
+     */
+    public int getX0() {
+        return x0;
+    }
+
+    /**
+     * @return l'ordonnée, dans le monde, de la première ligne
+     */
+    public int getY0() {
+        return y0;
+    }
+
+    /**
+     * Retourne le symbole d'une case de la dernière fenêtre dessinée.
+     *
+     * @param colonne colonne dans la fenêtre
+     * @param ligne ligne dans la fenêtre
+     * @return le symbole de la case
+     */
+    public char getCase(int colonne, int ligne) {
+        return cases[ligne * cote + colonne];
+    }
+
+    // ================= MÉTHODES =================
+    /**
+     * Dessine la fenêtre centrée sur le héros, de demi-côté sa distance de
+     * vision.
+     *
+     * @param grille grille d'occupation du monde
+     * @param hero héros du joueur
+     */
+    public void rasteriser(GrilleOccupation grille, Creature hero) {
+        int vision = hero.getDistanceVision();
+        int xHero = hero.getPos().getX();
+        int yHero = hero.getPos().getY();
+        cote = 2 * vision + 1;
+        x0 = xHero - vision;
+        y0 = yHero - vision;
+        if (cases.length != cote * cote) {
+            cases = new char[cote * cote];
+        }
+
+        int k = 0;
+        for (int y = y0; y < y0 + cote; y++) {
+            for (int x = x0; x < x0 + cote; x++) {
+                cases[k++] = grille.dansMonde(x, y) ? grille.getSymbole(x, y) : HORS_MONDE;
+            }
+        }
+        if (grille.dansMonde(xHero, yHero)) {
+            cases[vision * cote + vision] = HEROS;
+        }
+    }
+
+    /**
+     * Écrit la dernière fenêtre dessinée, en un seul appel, sous le titre
+     * « MONDE VISIBLE ». Chaque case du monde est suivie d'une espace ; les
+     * cases hors du monde ne le sont pas.
+     *
+     * @param sortie flux d'écriture
+     */
+    public void ecrire(PrintStream sortie) {
+        texte.setLength(0);
+        texte.append("\n=== MONDE VISIBLE ===\n");
+        int k = 0;
+        for (int ligne = 0; ligne < cote; ligne++) {
+            for (int colonne = 0; colonne < cote; colonne++) {
+                char c = cases[k++];
+                texte.append(c);
+                if (c != HORS_MONDE) {
+                    texte.append(' ');
+                }
+            }
+            texte.append('\n');
+        }
+        sortie.print(texte);
+    }
+}
@@ -0,0 +1,530 @@
+package org.centrale.objet.woe.projettp;
+
+import java.util.Arrays;
+
+/**
+ * La classe {@code ReserveCreatures} stocke les caractéristiques des créatures
+ * « en colonnes » : une case de chaque tableau primitif par créature.
+ * <p>
+ * Les points de vie, dégâts, parade, pourcentages, distances, état et
+ * coordonnées de toutes les créatures d'un monde sont ainsi rangés de façon
+ * contiguë en mémoire. Les parcours qui ne lisent qu'une colonne (par exemple
+ * la somme des points de vie) n'ont plus à suivre un pointeur vers chaque
+ * objet {@link Creature}.
+ * </p>
+ *
+ * <p>
+ * Chaque {@link Creature} n'est plus qu'une <em>vue</em> légère vers son
+ * emplacement : ses getters et setters lisent et écrivent dans la réserve.
+ * Pendant un chargement ({@link #ouvrirAccueil(int)}), les créatures sont
+ * construites directement dans la réserve du monde ; une créature créée hors
+ * d'un monde possède sa propre petite réserve. Dans les deux cas,
+ * {@link #inscrire(Creature)} la rattache à la réserve du monde.
+ * </p>
+ *
+ * <p>
+ * Une créature qui meurt n'est pas retirée tout de suite : son état passe à
+ * faux et son emplacement devient une « tombe », ce qui ne coûte rien pendant
+ * le tour, même si les morts se produisent dans plusieurs threads.
+ * {@link #compacter()}, appelée en fin de tour, supprime toutes les tombes en
+ * un seul balayage et resserre les emplacements vivants sans changer leur
+ * ordre.
+ * </p>
+ *
+ * <p>
+ * Comme les emplacements bougent au compactage, une créature se désigne de
+ * façon durable par une <em>poignée</em> ({@link #getPoignee(int)}) : un
+ * numéro de case dans une table d'indirection, accompagné d'un numéro de
+ * génération. La case d'une créature morte est réutilisée par une créature
+ * suivante, mais avec une génération différente : une ancienne poignée ne
+ * désigne alors plus rien ({@link #resoudre(long)} rend {@code null}) au lieu
+ * de désigner la nouvelle venue.
+ * </p>
+ *
+ * @author srodr
+ */
+public class ReserveCreatures {
+
+    // ================= ATTRIBUTS =================
+    private boolean[] etat;
+    private int[] ptVie;
+    private int[] degAtt;
+    private int[] ptPar;
+    private int[] pageAtt;
+    private int[] pagePar;
+    private int[] distAttMax;
+    private int[] distanceVision;
+    private int[] x;
+    private int[] y;
+
+    /**
+     * Créature associée à chaque emplacement
+     */
+    private Creature[] vues;
+
+    /**
+     * Case de la table des poignées associée à chaque emplacement
+     */
+    private int[] poignees;
+
+    // ================= POIGNÉES =================
+    /**
+     * Emplacement désigné par chaque case de poignée ({@code -1} : case
+     * libre)
+     */
+    private int[] emplacements = new int[0];
+
+    /**
+     * Génération actuelle de chaque case de poignée
+     */
+    private int[] generations = new int[0];
+
+    /**
+     * Nombre de cases de poignée déjà utilisées au moins une fois
+     */
+    private int nbPoignees;
+
+    /**
+     * Cases de poignée libérées, réutilisées en dernier libéré, premier servi
+     */
+    private int[] libres = new int[0];
+    private int nbLibres;
+
+    /**
+     * Nombre d'emplacements utilisés
+     */
+    private int taille;
+
+    /**
+     * Réserve qui reçoit directement les créatures construites par le thread
+     * courant pendant un chargement en masse ({@code null} : chaque créature
+     * construite reçoit sa propre réserve)
+     */
+    private static final ThreadLocal<ReserveCreatures> ACCUEIL = new ThreadLocal<>();
+
+    /**
+     * Tombe commune : emplacement unique, mort et sans points de vie, que lisent
+     * les créatures supprimées au compactage ({@link Creature#figer()}) ;
+     * elles n'y écrivent jamais
+     */
+    static final ReserveCreatures TOMBE = new ReserveCreatures(1);
+
+    static {
+        TOMBE.ajouter(false, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+    }
+
+    // ================= CONSTRUCTEURS =================
+    /**
+     * Construit une réserve vide de capacité initiale 16.
+     */
+    public ReserveCreatures() {
+        this(16);
+    }
+
+    /**
+     * Construit une réserve vide.
+     *
+     * @param capacite nombre de créatures prévu
+     */
+    public ReserveCreatures(int capacite) {
+        capacite = Math.max(1, capacite);
+        this.etat = new boolean[capacite];
+        this.ptVie = new int[capacite];
+        this.degAtt = new int[capacite];
+        this.ptPar = new int[capacite];
+        this.pageAtt = new int[capacite];
+        this.pagePar = new int[capacite];
+        this.distAttMax = new int[capacite];
+        this.distanceVision = new int[capacite];
+        this.x = new int[capacite];
+        this.y = new int[capacite];
+        this.vues = new Creature[capacite];
+        this.poignees = new int[capacite];
+        this.taille = 0;
+    }
+
+    // ================= GESTION DES EMPLACEMENTS =================
+    /**
+     * Fait construire les créatures suivantes du thread courant directement
+     * dans cette réserve, sans réserve intermédiaire à un emplacement (utilisé
+     * par {@link World} pour générer ses créatures et par
+     * {@link InstantaneMonde} pour les recréer). Chaque créature construite
+     * doit ensuite être inscrite ({@link #inscrire(Creature)}). À refermer par
+     * {@link #fermerAccueil()}.
+     *
+     * @param capacite nombre de créatures attendues
+     */
+    void ouvrirAccueil(int capacite) {
+        if (capacite > etat.length) {
+            agrandir(capacite);
+        }
+        if (capacite > emplacements.length) {
+            emplacements = Arrays.copyOf(emplacements, capacite);
+            generations = Arrays.copyOf(generations, capacite);
+        }
+        ACCUEIL.set(this);
+    }
+
+    /**
+     * Rend aux créatures construites ensuite leur propre réserve.
+     */
+    static void fermerAccueil() {
+        ACCUEIL.remove();
+    }
+
+    /**
+     * @return la réserve d'accueil du thread courant, ou {@code null}
+     */
+    static ReserveCreatures accueil() {
+        return ACCUEIL.get();
+    }
+
+    /**
+     * @return le nombre de créatures de la réserve (vivantes ou non)
+     */
+    public int size() {
+        return taille;
+    }
+
+    /**
+     * Ajoute une créature à la réserve : ses caractéristiques actuelles sont
+     * recopiées dans un nouvel emplacement et la créature devient une vue de
+     * cet emplacement. Une créature construite dans cette réserve (accueil)
+     * garde son emplacement, qui lui est seulement associé.
+     *
+     * @param c créature à inscrire
+     * @return l'indice de son emplacement
+     */
+    public int inscrire(Creature c) {
+        if (c.getReserve() == this) {
+            vues[c.getIndice()] = c;
+            return c.getIndice();
+        }
+        Point2D p = c.getPos();
+        int i = ajouter(c.isEtat(), c.getPtVie(), c.getDegAtt(), c.getPtPar(), c.getPageAtt(), c.getPagePar(),
+                c.getDistAttMax(), c.getDistanceVision(), p == null ? 0 : p.getX(), p == null ? 0 : p.getY());
+        vues[i] = c;
+        c.rattacher(this, i);
+        return i;
+    }
+
+    /**
+     * Réserve un emplacement initialisé avec les valeurs données. La
+     * créature n'y est associée qu'à son inscription.
+     *
+     * @return l'indice de l'emplacement
+     */
+    int ajouter(boolean e, int pVie, int dAtt, int pPar, int paAtt, int paPar, int dMax, int vision, int px, int py) {
+        if (taille == etat.length) {
+            agrandir(taille * 2);
+        }
+        int i = taille++;
+        poignees[i] = nouvellePoignee(i);
+        etat[i] = e;
+        ptVie[i] = pVie;
+        degAtt[i] = dAtt;
+        ptPar[i] = pPar;
+        pageAtt[i] = paAtt;
+        pagePar[i] = paPar;
+        distAttMax[i] = dMax;
+        distanceVision[i] = vision;
+        x[i] = px;
+        y[i] = py;
+        return i;
+    }
+
+    /**
+     * Double la capacité de toutes les colonnes.
+     */
+    private void agrandir(int capacite) {
+        etat = Arrays.copyOf(etat, capacite);
+        ptVie = Arrays.copyOf(ptVie, capacite);
+        degAtt = Arrays.copyOf(degAtt, capacite);
+        ptPar = Arrays.copyOf(ptPar, capacite);
+        pageAtt = Arrays.copyOf(pageAtt, capacite);
+        pagePar = Arrays.copyOf(pagePar, capacite);
+        distAttMax = Arrays.copyOf(distAttMax, capacite);
+        distanceVision = Arrays.copyOf(distanceVision, capacite);
+        x = Arrays.copyOf(x, capacite);
+        y = Arrays.copyOf(y, capacite);
+        vues = Arrays.copyOf(vues, capacite);
+        poignees = Arrays.copyOf(poignees, capacite);
+    }
+
+    /**
+     * Attribue une case de poignée à un emplacement, en réutilisant si
+     * possible une case libérée.
+     *
+     * @return la case attribuée
+     */
+    private int nouvellePoignee(int emplacement) {
+        int p;
+        if (nbLibres > 0) {
+            p = libres[--nbLibres];
+        } else {
+            if (nbPoignees == emplacements.length) {
+                int capacite = Math.max(16, 2 * nbPoignees);
+                emplacements = Arrays.copyOf(emplacements, capacite);
+                generations = Arrays.copyOf(generations, capacite);
+            }
+            p = nbPoignees++;
+        }
+        emplacements[p] = emplacement;
+        return p;
+    }
+
+    /**
+     * Libère une case de poignée : sa génération change, ce qui invalide
+     * toutes les poignées déjà distribuées pour cette case.
+     */
+    private void libererPoignee(int p) {
+        emplacements[p] = -1;
+        generations[p]++;
+        if (nbLibres == libres.length) {
+            libres = Arrays.copyOf(libres, Math.max(16, 2 * nbLibres));
+        }
+        libres[nbLibres++] = p;
+    }
+
+    // ================= COMPACTAGE =================
+    /**
+     * Supprime les emplacements des créatures mortes et resserre les autres,
+     * en un seul balayage qui conserve leur ordre.
+     * <p>
+     * Chaque créature déplacée est rattachée à son nouvel emplacement. Une
+     * créature morte est figée sur la {@link #TOMBE} : qui la référence encore
+     * la voit morte, à sa dernière position. Sa poignée devient invalide.
+     * </p>
+     * <p>
+     * À appeler entre deux tours, jamais pendant.
+     * </p>
+     *
+     * @return le nombre d'emplacements supprimés
+     */
+    public int compacter() {
+        int j = 0;
+        for (int i = 0; i < taille; i++) {
+            if (!etat[i]) {
+                libererPoignee(poignees[i]);
+                if (vues[i] != null) {
+                    vues[i].figer();
+                }
+                continue;
+            }
+            if (i != j) {
+                etat[j] = true;
+                ptVie[j] = ptVie[i];
+                degAtt[j] = degAtt[i];
+                ptPar[j] = ptPar[i];
+                pageAtt[j] = pageAtt[i];
+                pagePar[j] = pagePar[i];
+                distAttMax[j] = distAttMax[i];
+                distanceVision[j] = distanceVision[i];
+                x[j] = x[i];
+                y[j] = y[i];
+                vues[j] = vues[i];
+                poignees[j] = poignees[i];
+                emplacements[poignees[j]] = j;
+                if (vues[j] != null) {
+                    vues[j].rattacher(this, j);
+                }
+            }
+            j++;
+        }
+        int supprimes = taille - j;
+        Arrays.fill(vues, j, taille, null);
+        taille = j;
+        return supprimes;
+    }
+
+    // ================= AGRÉGATIONS =================
+    /**
+     * Somme les points de vie de toutes les créatures en parcourant une seule
+     * colonne contiguë.
+     *
+     * @return total des points de vie
+     */
+    public long sommePtVie() {
+        long total = 0;
+        int[] colonne = ptVie;
+        for (int i = 0; i < taille; i++) {
+            total += colonne[i];
+        }
+        return total;
+    }
+
+    /**
+     * Compte les créatures vivantes.
+     *
+     * @return nombre de créatures dont l'état est vrai
+     */
+    public int compterVivantes() {
+        int n = 0;
+        boolean[] colonne = etat;
+        for (int i = 0; i < taille; i++) {
+            if (colonne[i]) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Calcule une empreinte de toutes les colonnes, emplacement par
+     * emplacement : deux réserves de même empreinte ont, sauf collision, les
+     * mêmes créatures dans le même ordre.
+     *
+     * @return l'empreinte de la réserve
+     */
+    public long empreinte() {
+        final long m = 0x9E3779B97F4A7C15L;
+        long h = taille;
+        for (int i = 0; i < taille; i++) {
+            h = h * m + (etat[i] ? 1 : 0);
+            h = h * m + ptVie[i];
+            h = h * m + degAtt[i];
+            h = h * m + ptPar[i];
+            h = h * m + pageAtt[i];
+            h = h * m + pagePar[i];
+            h = h * m + distAttMax[i];
+            h = h * m + distanceVision[i];
+            h = h * m + x[i];
+            h = h * m + y[i];
+        }
+        return TablePositions.melanger(h);
+    }
+
+    // ================= ACCÈS PAR POIGNÉE =================
+    /**
+     * Retourne la poignée durable d'un emplacement : 32 bits de génération
+     * suivis de 32 bits de case.
+     *
+     * @param i indice de l'emplacement
+     * @return la poignée de la créature qui l'occupe
+     */
+    public long getPoignee(int i) {
+        int p = poignees[i];
+        return ((long) generations[p] << 32) | p;
+    }
+
+    /**
+     * Vérifie qu'une poignée désigne toujours une créature de la réserve.
+     *
+     * @param poignee poignée obtenue par {@link #getPoignee(int)}
+     * @return {@code false} si la créature a été supprimée au compactage
+     */
+    public boolean estValide(long poignee) {
+        int p = (int) poignee;
+        return p >= 0 && p < nbPoignees && generations[p] == (int) (poignee >>> 32) && emplacements[p] >= 0;
+    }
+
+    /**
+     * Retrouve l'emplacement actuel désigné par une poignée.
+     *
+     * @param poignee poignée obtenue par {@link #getPoignee(int)}
+     * @return l'indice de l'emplacement, ou -1 si la poignée n'est plus valide
+     */
+    public int emplacementDe(long poignee) {
+        return estValide(poignee) ? emplacements[(int) poignee] : -1;
+    }
+
+    /**
+     * Retrouve la créature désignée par une poignée.
+     *
+     * @param poignee poignée obtenue par {@link #getPoignee(int)}
+     * @return la créature, ou {@code null} si la poignée n'est plus valide
+     */
+    public Creature resoudre(long poignee) {
+        int i = emplacementDe(poignee);
+        return i < 0 ? null : vues[i];
+    }
+
+    // ================= ACCÈS PAR EMPLACEMENT =================
+    public Creature getVue(int i) {
+        return vues[i];
+    }
+
+    public boolean isEtat(int i) {
+        return etat[i];
+    }
+
+    public void setEtat(int i, boolean v) {
+        etat[i] = v;
+    }
+
+    public int getPtVie(int i) {
+        return ptVie[i];
+    }
+
+    public void setPtVie(int i, int v) {
+        ptVie[i] = v;
+    }
+
+    public int getDegAtt(int i) {
+        return degAtt[i];
+    }
+
+    public void setDegAtt(int i, int v) {
+        degAtt[i] = v;
+    }
+
+    public int getPtPar(int i) {
+        return ptPar[i];
+    }
+
+    public void setPtPar(int i, int v) {
+        ptPar[i] = v;
+    }
+
+    public int getPageAtt(int i) {
+        return pageAtt[i];
+    }
+
+    public void setPageAtt(int i, int v) {
+        pageAtt[i] = v;
+    }
+
+    public int getPagePar(int i) {
+        return pagePar[i];
+    }
+
+    public void setPagePar(int i, int v) {
+        pagePar[i] = v;
+    }
+
+    public int getDistAttMax(int i) {
+        return distAttMax[i];
+    }
+
+    public void setDistAttMax(int i, int v) {
+        distAttMax[i] = v;
+    }
+
+    public int getDistanceVision(int i) {
+        return distanceVision[i];
+    }
+
+    public void setDistanceVision(int i, int v) {
+        distanceVision[i] = v;
+    }
+
+    public int getX(int i) {
+        return x[i];
+    }
+
+    public int getY(int i) {
+        return y[i];
+    }
+
+    /**
+     * Met à jour les coordonnées d'un emplacement.
+     *
+     * @param i indice de l'emplacement
+     * @param px abscisse
+     * @param py ordonnée
+     */
+    public void setPosition(int i, int px, int py) {
+        x[i] = px;
+        y[i] = py;
+    }
+}
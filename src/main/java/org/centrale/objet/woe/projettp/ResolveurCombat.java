@@ -0,0 +1,168 @@
+package org.centrale.objet.woe.projettp;
+
+import java.util.SplittableRandom;
+
+/**
+ * La classe {@code ResolveurCombat} résout les échanges de coups entre
+ * créatures.
+ * <p>
+ * Un échange suit toujours les mêmes étapes, autrefois recopiées dans
+ * {@link Guerrier}, {@link Loup} et {@link Archer} : vérification que les deux
+ * créatures sont vivantes et à portée, jet d'attaque contre le pourcentage
+ * d'attaque de l'attaquant, puis, si le coup peut être paré, jet de parade
+ * contre le pourcentage de parade de la cible. Les dégâts sont confiés au
+ * {@link TamponCommandes} ; un coup raté est seulement journalisé.
+ * </p>
+ *
+ * <p>
+ * La portée est vérifiée sur la distance au carré, en entiers : une créature
+ * atteint toutes les cases de son carré de portée (coins compris), comme la
+ * zone où elle choisit ses cibles. Les jets sont tirés dans le flux aléatoire
+ * de l'attaquant, dans cet ordre. Un échange n'alloue rien.
+ * </p>
+ *
+ * <p>
+ * Chaque combattant ne fait plus que choisir ses règles (portée, dégâts,
+ * coup parable ou non) avant d'appeler {@link #engager}.
+ * {@link #resoudre(ReserveCreatures, int[], int[], int, SplittableRandom[], TamponCommandes, int[])}
+ * résout en un seul passage une série d'attaques au corps à corps préparée à
+ * l'avance, en lisant les caractéristiques directement dans les colonnes de
+ * la {@link ReserveCreatures}.
+ * </p>
+ *
+ * <p>
+ * Le tour du monde n'utilise pas ce passage en lot : chaque analyse tire
+ * dans le flux de sa créature le choix de son action puis, aussitôt, les
+ * jets du combat. Regrouper les combats du tour déplacerait ces jets et
+ * changerait les parties reproduites à partir d'une graine. Le lot sert aux
+ * bancs d'essai ({@code BenchCombat}) et aux simulations qui préparent
+ * elles-mêmes leurs paires d'attaques.
+ * </p>
+ *
+ * @author srodr
+ */
+public final class ResolveurCombat {
+
+    // ================= ATTRIBUTS =================
+    /**
+     * Issue d'un échange : attaquant ou cible mort, ou cible hors de portée
+     */
+    public static final int HORS_PORTEE = 0;
+
+    /**
+     * Issue d'un échange : jet d'attaque raté
+     */
+    public static final int RATE = 1;
+
+    /**
+     * Issue d'un échange : cible touchée de plein fouet
+     */
+    public static final int TOUCHE = 2;
+
+    /**
+     * Issue d'un échange : cible touchée, mais parade réussie
+     */
+    public static final int PARE = 3;
+
+    // ================= CONSTRUCTEUR =================
+    private ResolveurCombat() {
+    }
+
+    // ================= MÉTHODES =================
+    /**
+     * Indique si une cible est à portée : à une distance euclidienne d'au plus
+     * {@code portee * √2}, comparée au carré. Ce disque couvre tout le carré
+     * de Chebyshev de demi-côté {@code portee}.
+     *
+     * @param attaquant position de l'attaquant
+     * @param cible position de la cible
+     * @param portee portée de l'attaque, en cases
+     * @return {@code true} si la cible est à portée
+     */
+    public static boolean aPortee(Point2D attaquant, Point2D cible, int portee) {
+        return attaquant.distanceCarree(cible) <= 2 * portee * portee;
+    }
+
+    /**
+     * Résout un échange entre deux créatures.
+     *
+     * @param attaquant créature qui attaque
+     * @param cible créature attaquée
+     * @param portee portée de l'attaque, en cases
+     * @param degats dégâts infligés si le coup porte
+     * @param parable {@code true} si la cible peut tenter une parade
+     * @param alea flux aléatoire de l'attaquant
+     * @param commandes tampon qui recevra les dégâts
+     * @return l'issue de l'échange : {@link #HORS_PORTEE}, {@link #RATE},
+     * {@link #TOUCHE} ou {@link #PARE}
+     */
+    public static int engager(Creature attaquant, Creature cible, int portee, int degats, boolean parable,
+            SplittableRandom alea, TamponCommandes commandes) {
+        if (!attaquant.isEtat() || !cible.isEtat() || !aPortee(attaquant.getPos(), cible.getPos(), portee)) {
+            return HORS_PORTEE;
+        }
+        if (alea.nextInt(100) >= attaquant.getPageAtt()) {
+            JournalEvenements.combat(TypeEvenement.ECHEC, attaquant, cible);
+            return RATE;
+        }
+        if (parable && alea.nextInt(100) < cible.getPagePar()) {
+            // Parade réussie : les dégâts entament d'abord la parade
+            commandes.degats(attaquant, cible, degats, TypeEvenement.PARADE);
+            return PARE;
+        }
+        commandes.degats(attaquant, cible, degats, TypeEvenement.ATTAQUE);
+        return TOUCHE;
+    }
+
+    /**
+     * Résout une série d'attaques au corps à corps en un seul passage, avec
+     * les règles communes du {@link Guerrier} et du {@link Loup} : portée
+     * {@code distAttMax}, dégâts {@code degAtt}, coup parable.
+     * <p>
+     * La paire {@code i} oppose les emplacements {@code attaquants[i]} et
+     * {@code cibles[i]} de la réserve, dont l'état, les coordonnées et les
+     * pourcentages sont lus dans les colonnes, sans passer par les créatures.
+     * Ses jets sont tirés dans {@code aleas[i]} (en principe le flux de
+     * l'attaquant), dans le même ordre que {@link #engager} : le résultat est
+     * celui d'une suite d'appels à {@code combattre}. Dans un tour, les dégâts
+     * sont différés par le tampon ; hors tour, ils sont appliqués au fil du
+     * passage et une cible tuée n'est plus attaquée par les paires suivantes.
+     * </p>
+     *
+     * @param reserve réserve des combattants
+     * @param attaquants emplacement de l'attaquant de chaque paire
+     * @param cibles emplacement de la cible de chaque paire
+     * @param nbPaires nombre de paires à résoudre
+     * @param aleas flux aléatoire de chaque paire
+     * @param commandes tampon qui recevra les dégâts
+     * @param issues reçoit l'issue de chaque paire, ou {@code null}
+     * @return le nombre de paires dont la cible a été touchée ({@link #TOUCHE}
+     * ou {@link #PARE})
+     */
+    public static int resoudre(ReserveCreatures reserve, int[] attaquants, int[] cibles, int nbPaires,
+            SplittableRandom[] aleas, TamponCommandes commandes, int[] issues) {
+        int touches = 0;
+        for (int i = 0; i < nbPaires; i++) {
+            int a = attaquants[i];
+            int c = cibles[i];
+            int portee = reserve.getDistAttMax(a);
+            int issue;
+            if (!reserve.isEtat(a) || !reserve.isEtat(c) || Point2D.distanceCarree(reserve.getX(a), reserve.getY(a),
+                    reserve.getX(c), reserve.getY(c)) > 2 * portee * portee) {
+                issue = HORS_PORTEE;
+            } else if (aleas[i].nextInt(100) >= reserve.getPageAtt(a)) {
+                JournalEvenements.combat(TypeEvenement.ECHEC, reserve.getVue(a), reserve.getVue(c));
+                issue = RATE;
+            } else {
+                issue = aleas[i].nextInt(100) < reserve.getPagePar(c) ? PARE : TOUCHE;
+                commandes.degats(reserve.getVue(a), reserve.getVue(c), reserve.getDegAtt(a),
+                        issue == PARE ? TypeEvenement.PARADE : TypeEvenement.ATTAQUE);
+                touches++;
+            }
+            if (issues != null) {
+                issues[i] = issue;
+            }
+        }
+        return touches;
+    }
+}
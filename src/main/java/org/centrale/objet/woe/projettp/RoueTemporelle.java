@@ -0,0 +1,294 @@
+package org.centrale.objet.woe.projettp;
+
+import java.util.Arrays;
+
+/**
+ * La classe {@code RoueTemporelle} planifie la fin des effets temporaires du
+ * monde : effets des {@link ObjetUtilisable} portés par un
+ * {@link Personnage}, durée de vie des {@link NuageToxique}.
+ * <p>
+ * C'est une roue hiérarchique de {@value #NIVEAUX} niveaux de
+ * {@value #CASES} cases : une case du niveau 0 couvre un tour, une case du
+ * niveau {@code n} couvre {@code 64^n} tours. Une échéance est rangée au
+ * niveau le plus fin qui la contient depuis le tour courant ; quand le temps
+ * atteint une case d'un niveau supérieur, ses échéances sont redescendues
+ * d'un ou plusieurs niveaux. Chaque échéance est donc déplacée au plus
+ * {@value #NIVEAUX} fois, et avancer d'un tour ne touche que les échéances
+ * qui arrivent à terme : le coût ne dépend ni du nombre de personnages ni du
+ * nombre d'effets en cours.
+ * </p>
+ *
+ * <p>
+ * Les échéances sont rangées dans des tableaux parallèles et chaînées par
+ * indice, les emplacements libérés étant réutilisés : planifier ne crée aucun
+ * objet. Les échéances d'un même tour sont traitées dans l'ordre croissant
+ * des identifiants de leurs sujets, quel que soit l'ordre (éventuellement
+ * parallèle) dans lequel elles ont été planifiées.
+ * </p>
+ *
+ * @author srodr
+ */
+public class RoueTemporelle {
+
+    // ================= ATTRIBUTS =================
+    /**
+     * Nombre de niveaux de la roue
+     */
+    public static final int NIVEAUX = 4;
+
+    /**
+     * Nombre de cases par niveau
+     */
+    public static final int CASES = 64;
+
+    private static final int BITS = 6;
+    private static final int MASQUE = CASES - 1;
+
+    /**
+     * Fin de chaîne (et case vide)
+     */
+    private static final int AUCUNE = -1;
+
+    /**
+     * Traitement d'une échéance arrivée à terme.
+     */
+    @FunctionalInterface
+    public interface Expiration {
+
+        /**
+         * @param sujet effet ou élément arrivé à terme
+         * @param porteur personnage qui porte l'effet, ou {@code null} pour
+         * un élément du monde (nuage)
+         */
+        void expirer(ElementDeJeu sujet, Personnage porteur);
+    }
+
+    /**
+     * Lecture d'une échéance en attente.
+     */
+    @FunctionalInterface
+    public interface Visiteur {
+
+        /**
+         * @param sujet effet ou élément planifié
+         * @param porteur personnage qui porte l'effet, ou {@code null}
+         * @param echeance tour où il prendra fin
+         */
+        void visiter(ElementDeJeu sujet, Personnage porteur, long echeance);
+    }
+
+    /**
+     * Première échéance de chaque case, par niveau
+     */
+    private final int[][] tetes = new int[NIVEAUX][CASES];
+
+    /**
+     * Tour d'échéance de chaque emplacement
+     */
+    private long[] echeances = new long[64];
+
+    private ElementDeJeu[] sujets = new ElementDeJeu[64];
+    private Personnage[] porteurs = new Personnage[64];
+
+    /**
+     * Emplacement suivant dans la même case (ou dans la liste libre)
+     */
+    private int[] suivants = new int[64];
+
+    /**
+     * Premier emplacement libre
+     */
+    private int libre = AUCUNE;
+
+    /**
+     * Nombre d'emplacements déjà utilisés au moins une fois
+     */
+    private int nbEmplacements;
+
+    /**
+     * Nombre d'échéances en attente
+     */
+    private int nbEcheances;
+
+    /**
+     * Dernier tour traité
+     */
+    private long maintenant;
+
+    /**
+     * Clés de tri des échéances d'un tour : identifiant du sujet (32 bits de
+     * poids fort) puis emplacement
+     */
+    private long[] echues = new long[16];
+
+    // ================= CONSTRUCTEUR =================
+    /**
+     * Construit une roue vide, au tour 0.
+     */
+    public RoueTemporelle() {
+        for (int[] niveau : tetes) {
+            Arrays.fill(niveau, AUCUNE);
+        }
+    }
+
+    // ================= GETTERS =================
+    /**
+     * @return le dernier tour traité par {@link #avancer}
+     */
+    public long getMaintenant() {
+        return maintenant;
+    }
+
+    /**
+     * @return le nombre d'échéances en attente
+     */
+    public int getNbEcheances() {
+        return nbEcheances;
+    }
+
+    // ================= MÉTHODES =================
+    /**
+     * Place une roue vide au tour donné, avant d'y replanifier les échéances
+     * d'un monde rechargé.
+     *
+     * @param tour dernier tour traité
+     * @throws IllegalStateException si des échéances sont en attente
+     */
+    public void demarrer(long tour) {
+        if (nbEcheances > 0) {
+            throw new IllegalStateException("La roue contient encore " + nbEcheances + " échéances");
+        }
+        this.maintenant = tour;
+    }
+
+    /**
+     * Parcourt toutes les échéances en attente, dans un ordre quelconque.
+     *
+     * @param visiteur traitement de chaque échéance
+     */
+    public void parcourir(Visiteur visiteur) {
+        for (int[] niveau : tetes) {
+            for (int tete : niveau) {
+                for (int e = tete; e != AUCUNE; e = suivants[e]) {
+                    visiteur.visiter(sujets[e], porteurs[e], echeances[e]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Planifie la fin d'un effet ou d'un élément dans {@code duree} tours :
+     * une durée de 1 prend fin avec le tour en cours (peut être appelée par
+     * plusieurs threads).
+     *
+     * @param sujet effet ou élément à faire expirer
+     * @param porteur personnage qui porte l'effet, ou {@code null}
+     * @param duree durée en tours (au moins 1)
+     */
+    public synchronized void planifier(ElementDeJeu sujet, Personnage porteur, int duree) {
+        int e;
+        if (libre != AUCUNE) {
+            e = libre;
+            libre = suivants[e];
+        } else {
+            if (nbEmplacements == echeances.length) {
+                int capacite = 2 * echeances.length;
+                echeances = Arrays.copyOf(echeances, capacite);
+                sujets = Arrays.copyOf(sujets, capacite);
+                porteurs = Arrays.copyOf(porteurs, capacite);
+                suivants = Arrays.copyOf(suivants, capacite);
+            }
+            e = nbEmplacements++;
+        }
+        echeances[e] = maintenant + Math.max(1, duree);
+        sujets[e] = sujet;
+        porteurs[e] = porteur;
+        ranger(e);
+        nbEcheances++;
+    }
+
+    /**
+     * Avance le temps jusqu'au tour donné et traite, tour par tour, toutes
+     * les échéances atteintes. Chacune est traitée exactement une fois.
+     *
+     * @param tour tour atteint (les tours antérieurs sont ignorés)
+     * @param expiration traitement des échéances
+     * @return le nombre d'échéances traitées
+     */
+    public int avancer(long tour, Expiration expiration) {
+        int traitees = 0;
+        while (maintenant < tour) {
+            maintenant++;
+            // redescendre d'abord les niveaux supérieurs dont une case commence
+            for (int n = NIVEAUX - 1; n >= 1; n--) {
+                if ((maintenant & ((1L << (BITS * n)) - 1)) == 0) {
+                    redescendre(n, (int) (maintenant >>> (BITS * n)) & MASQUE);
+                }
+            }
+            traitees += echoir(expiration);
+        }
+        return traitees;
+    }
+
+    /**
+     * Range un emplacement dans la case de son échéance, au niveau le plus
+     * fin qui la contient.
+     */
+    private void ranger(int e) {
+        long delai = echeances[e] - maintenant;
+        int n = 0;
+        while (n < NIVEAUX - 1 && delai >= 1L << (BITS * (n + 1))) {
+            n++;
+        }
+        int c = (int) (Math.max(echeances[e], maintenant) >>> (BITS * n)) & MASQUE;
+        suivants[e] = tetes[n][c];
+        tetes[n][c] = e;
+    }
+
+    /**
+     * Vide une case d'un niveau supérieur en rangeant à nouveau ses
+     * échéances.
+     */
+    private void redescendre(int n, int c) {
+        int e = tetes[n][c];
+        tetes[n][c] = AUCUNE;
+        while (e != AUCUNE) {
+            int suivant = suivants[e];
+            ranger(e);
+            e = suivant;
+        }
+    }
+
+    /**
+     * Traite les échéances du tour courant, par identifiant de sujet
+     * croissant.
+     */
+    private int echoir(Expiration expiration) {
+        int c = (int) maintenant & MASQUE;
+        int n = 0;
+        for (int e = tetes[0][c]; e != AUCUNE; e = suivants[e]) {
+            if (n == echues.length) {
+                echues = Arrays.copyOf(echues, 2 * n);
+            }
+            echues[n++] = (sujets[e].getId() << 32) | e;
+        }
+        if (n == 0) {
+            return 0;
+        }
+        tetes[0][c] = AUCUNE;
+        Arrays.sort(echues, 0, n);
+
+        for (int k = 0; k < n; k++) {
+            int e = (int) echues[k];
+            ElementDeJeu sujet = sujets[e];
+            Personnage porteur = porteurs[e];
+            sujets[e] = null;
+            porteurs[e] = null;
+            suivants[e] = libre;
+            libre = e;
+            nbEcheances--;
+            expiration.expirer(sujet, porteur);
+        }
+        return n;
+    }
+}
@@ -0,0 +1,115 @@
+package org.centrale.objet.woe.projettp;
+
+import java.util.SplittableRandom;
+
+/**
+ * La classe {@code ServiceAleatoire} fournit tous les tirages aléatoires d'un
+ * monde à partir d'une seule graine.
+ * <p>
+ * Le monde utilise un flux de génération ({@link #generation()}) pour créer
+ * ses créatures et ses objets, puis donne à chaque élément son propre flux
+ * ({@link #flux(long)}), calculé uniquement à partir de la graine et de
+ * l'identifiant de l'élément. Ainsi :
+ * </p>
+ * <ul>
+ * <li>deux mondes créés avec la même graine se déroulent de la même façon ;</li>
+ * <li>les tirages d'un élément ne dépendent pas de l'ordre dans lequel les
+ * autres éléments tirent, ce qui garde les tours parallèles du
+ * {@link MoteurTuiles} reproductibles ;</li>
+ * <li>plus aucun {@code new Random()} n'est alloué et initialisé à chaque
+ * appel.</li>
+ * </ul>
+ * <p>
+ * Un {@link SplittableRandom} n'est pas partagé entre threads : chaque flux ne
+ * doit être utilisé que par l'élément qui le possède.
+ * </p>
+ *
+ * @author srodr
+ */
+public class ServiceAleatoire {
+
+    // ================= ATTRIBUTS =================
+    /**
+     * Flux des éléments créés hors d'un monde (tests, copies)
+     */
+    private static final SplittableRandom HORS_MONDE = new SplittableRandom();
+
+    /**
+     * Graine du monde
+     */
+    private final long graine;
+
+    /**
+     * Flux utilisé pour générer le monde
+     */
+    private final SplittableRandom generation;
+
+    // ================= CONSTRUCTEUR =================
+    /**
+     * Construit un service à partir d'une graine.
+     *
+     * @param graine graine du monde
+     */
+    public ServiceAleatoire(long graine) {
+        this.graine = graine;
+        this.generation = new SplittableRandom(graine);
+    }
+
+    // ================= MÉTHODES =================
+    /**
+     * @return la graine du monde
+     */
+    public long getGraine() {
+        return graine;
+    }
+
+    /**
+     * @return le flux utilisé pour générer le monde et ses éléments
+     */
+    public SplittableRandom generation() {
+        return generation;
+    }
+
+    /**
+     * Crée le flux propre à un élément du monde.
+     * <p>
+     * La graine et l'identifiant sont mélangés avant de créer le flux : deux
+     * identifiants voisins donnent des suites sans rapport entre elles.
+     * </p>
+     *
+     * @param id identifiant de l'élément
+     * @return un nouveau flux, toujours le même pour une graine et un
+     * identifiant donnés
+     */
+    public SplittableRandom flux(long id) {
+        return new SplittableRandom(TablePositions.melanger(graine ^ TablePositions.melanger(id)));
+    }
+
+    /**
+     * Crée le flux d'un élément repris à un tour donné, par exemple au
+     * chargement d'un {@link InstantaneMonde} : l'état exact d'un flux ne
+     * peut pas être sauvegardé, mais deux reprises du même instantané tirent
+     * les mêmes suites.
+     *
+     * @param id identifiant de l'élément
+     * @param tour nombre de tours déjà joués
+     * @return un nouveau flux, toujours le même pour une graine, un
+     * identifiant et un tour donnés
+     */
+    public SplittableRandom flux(long id, int tour) {
+        return tour == 0 ? flux(id) : new SplittableRandom(TablePositions.melanger(
+                graine ^ TablePositions.melanger(id ^ TablePositions.melanger(tour))));
+    }
+
+    /**
+     * Crée un flux pour un élément qui n'appartient (pas encore) à un monde.
+     * Ces flux ne sont pas reproductibles.
+     *
+     * @return un nouveau flux indépendant
+     */
+    public static SplittableRandom fluxHorsMonde() {
+        synchronized (HORS_MONDE) {
+            return HORS_MONDE.split();
+        }
+    }
+}
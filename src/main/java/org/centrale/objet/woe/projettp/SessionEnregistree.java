@@ -0,0 +1,232 @@
+package org.centrale.objet.woe.projettp;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * La classe {@code SessionEnregistree} enregistre une partie sous la forme la
+ * plus courte qui permette de la rejouer : la graine et les paramètres du
+ * monde, puis les choix du joueur, tour par tour.
+ * <p>
+ * Tout le reste est reproductible ({@link ServiceAleatoire}) : une
+ * {@link RejeuSession} recrée le même monde et lui redonne les mêmes choix,
+ * sans terminal et aussi vite que possible. Chaque tour est suivi de
+ * l'empreinte du monde ({@link World#empreinte()}) pour repérer le premier
+ * tour où le rejeu s'écarterait de la partie.
+ * </p>
+ *
+ * <p>
+ * Le fichier commence par l'en-tête {@code "WOER"}, la version, la graine, la
+ * taille du monde, le nombre de créatures et d'objets générés. Suit un bloc
+ * par tour, en petit-boutiste : numéro du tour (0 pour la création du
+ * joueur, suivi de la façon dont il a été créé), nombre de mots lus, chaque
+ * mot (longueur puis octets UTF-8), empreinte du monde à la fin du tour.
+ * Chaque bloc est écrit dans le fichier dès la fin de son tour.
+ * </p>
+ *
+ * @author srodr
+ */
+public final class SessionEnregistree {
+
+    // ================= ATTRIBUTS =================
+    /**
+     * Version du format
+     */
+    public static final int VERSION = 1;
+
+    static final byte[] MAGIQUE = {'W', 'O', 'E', 'R'};
+
+    /**
+     * Façon dont le joueur a été créé
+     */
+    static final int SANS_JOUEUR = 0;
+    static final int CHOIX_JOUEUR = 1;
+    static final int GUERRIER = 2;
+
+    private final World monde;
+    private final FileChannel canal;
+
+    /**
+     * Mots lus par le joueur depuis la fin du dernier tour
+     */
+    private final List<String> mots = new ArrayList<>();
+
+    private boolean creationEcrite;
+
+    // ================= CONSTRUCTEUR =================
+    private SessionEnregistree(World monde, FileChannel canal) {
+        this.monde = monde;
+        this.canal = canal;
+    }
+
+    /**
+     * Crée et peuple un monde dont la partie sera enregistrée.
+     *
+     * @param fichier fichier de la session, créé ou remplacé
+     * @param graine graine du monde
+     * @param taille dimension d'un côté du monde
+     * @param nbCreatures nombre de créatures générées
+     * @param nbObjets nombre d'objets générés
+     * @return la session, dont le monde est donné par {@link #getMonde()}
+     * @throws IOException si le fichier ne peut pas être créé
+     */
+    public static SessionEnregistree ouvrir(Path fichier, long graine, int taille, int nbCreatures, int nbObjets)
+            throws IOException {
+        FileChannel canal = FileChannel.open(fichier, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer entete = ByteBuffer.allocate(4 + 4 + 8 + 4 + 4 + 4).order(ByteOrder.LITTLE_ENDIAN);
+        entete.put(MAGIQUE).putInt(VERSION).putLong(graine).putInt(taille).putInt(nbCreatures).putInt(nbObjets);
+        ecrire(canal, entete);
+
+        World monde = new World(graine, taille);
+        monde.creerMondeAlea(nbCreatures, nbObjets);
+        SessionEnregistree session = new SessionEnregistree(monde, canal);
+        monde.setSession(session);
+        return session;
+    }
+
+    // ================= JOUEUR =================
+    /**
+     * @return le monde de la partie
+     */
+    public World getMonde() {
+        return monde;
+    }
+
+    /**
+     * Crée le joueur comme {@link World#choixJoueur(SourceCommandes)} : la
+     * classe et le nom du héros, puis toutes les actions, sont lus dans la
+     * source donnée et enregistrés.
+     *
+     * @param commandes source des choix du joueur (la console, en général)
+     * @return le joueur
+     */
+    public Joueur creerJoueur(SourceCommandes commandes) {
+        Joueur joueur = monde.choixJoueur(new Enregistreur(commandes));
+        ecrireCreation(CHOIX_JOUEUR);
+        return joueur;
+    }
+
+    /**
+     * Crée le joueur comme {@link World#creationJoueur(SourceCommandes)} :
+     * seules les actions sont lues dans la source et enregistrées.
+     *
+     * @param commandes source des choix du joueur
+     * @return le joueur
+     */
+    public Joueur creerGuerrier(SourceCommandes commandes) {
+        Joueur joueur = monde.creationJoueur(new Enregistreur(commandes));
+        ecrireCreation(GUERRIER);
+        return joueur;
+    }
+
+    // ================= ENREGISTREMENT =================
+    /**
+     * Écrit le bloc du tour qui s'achève (appelée par
+     * {@link World#executerTour(Joueur)}).
+     *
+     * @param monde monde de la partie
+     */
+    void terminerTour(World monde) {
+        if (!creationEcrite) {
+            ecrireCreation(SANS_JOUEUR);
+        }
+        ecrireBloc(monde.getNbToursJoues(), -1, monde.empreinte());
+    }
+
+    /**
+     * Ferme le fichier de la session et détache la session du monde.
+     *
+     * @throws IOException si le fichier ne peut pas être fermé
+     */
+    public void fermer() throws IOException {
+        monde.setSession(null);
+        try {
+            canal.force(false);
+        } finally {
+            canal.close();
+        }
+    }
+
+    /**
+     * Écrit le bloc de création du joueur (tour 0).
+     */
+    private void ecrireCreation(int mode) {
+        creationEcrite = true;
+        ecrireBloc(0, mode, monde.empreinte());
+    }
+
+    /**
+     * Écrit un bloc avec les mots lus depuis le bloc précédent.
+     */
+    private void ecrireBloc(int tour, int mode, long empreinte) {
+        byte[][] encodes = new byte[mots.size()][];
+        int taille = 4 + (mode >= 0 ? 4 : 0) + 4 + 8;
+        for (int i = 0; i < encodes.length; i++) {
+            encodes[i] = mots.get(i).getBytes(StandardCharsets.UTF_8);
+            taille += 4 + encodes[i].length;
+        }
+        ByteBuffer bloc = ByteBuffer.allocate(taille).order(ByteOrder.LITTLE_ENDIAN);
+        bloc.putInt(tour);
+        if (mode >= 0) {
+            bloc.putInt(mode);
+        }
+        bloc.putInt(encodes.length);
+        for (byte[] mot : encodes) {
+            bloc.putInt(mot.length).put(mot);
+        }
+        bloc.putLong(empreinte);
+        mots.clear();
+        try {
+            ecrire(canal, bloc);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void ecrire(FileChannel canal, ByteBuffer octets) throws IOException {
+        octets.flip();
+        while (octets.hasRemaining()) {
+            canal.write(octets);
+        }
+    }
+
+    /**
+     * Source qui retient chaque choix lu dans la source du joueur.
+     */
+    private final class Enregistreur implements SourceCommandes {
+
+        private final SourceCommandes source;
+
+        Enregistreur(SourceCommandes source) {
+            this.source = source;
+        }
+
+        @Override
+        public int lireEntier() {
+            int choix = source.lireEntier();
+            mots.add(Integer.toString(choix));
+            return choix;
+        }
+
+        @Override
+        public String lireMot() {
+            String mot = source.lireMot();
+            mots.add(mot);
+            return mot;
+        }
+
+        @Override
+        public boolean estEpuisee() {
+            return source.estEpuisee();
+        }
+    }
+}
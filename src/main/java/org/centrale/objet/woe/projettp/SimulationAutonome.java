@@ -0,0 +1,212 @@
+package org.centrale.objet.woe.projettp;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * La classe {@code SimulationAutonome} fait avancer un {@link World} pendant
+ * un nombre de tours donné, sans terminal : aucune carte n'est affichée,
+ * aucun choix n'est lu sur la console, et les messages des éléments sont
+ * écartés pendant la mesure.
+ * <p>
+ * Le joueur est absent, ou joue une suite de choix fixée à l'avance
+ * ({@link CommandesScript}). À la fin, la simulation donne le nombre de tours
+ * et de mises à jour d'éléments par seconde ainsi que la durée de chaque
+ * tour.
+ * </p>
+ *
+ * <p>
+ * Utilisation en ligne de commande (tous les arguments sont facultatifs) :
+ * </p>
+ * <pre>
+ * SimulationAutonome [tours] [taille] [creatures] [objets] [graine] [threads] ["choix du joueur"] [journal.bin]
+ * </pre>
+ * <p>
+ * Si un fichier est donné, les événements du monde y sont écrits par un
+ * {@link FichierEvenements} ; sinon le {@link JournalEvenements} reste
+ * désactivé.
+ * </p>
+ *
+ * @author srodr
+ */
+public class SimulationAutonome {
+
+    // ================= ATTRIBUTS =================
+    /**
+     * Monde simulé
+     */
+    private final World monde;
+
+    /**
+     * Joueur ({@code null} : monde sans joueur)
+     */
+    private final Joueur joueur;
+
+    // ================= CONSTRUCTEUR =================
+    /**
+     * Construit une simulation sur un monde déjà peuplé.
+     *
+     * @param monde monde à faire avancer
+     * @param joueur joueur, ou {@code null} pour un monde sans joueur
+     */
+    public SimulationAutonome(World monde, Joueur joueur) {
+        this.monde = monde;
+        this.joueur = joueur;
+    }
+
+    // ================= MÉTHODES =================
+    /**
+     * Exécute les tours en mesurant chacun d'eux.
+     * <p>
+     * La sortie standard est remplacée par un flux vide pendant l'exécution,
+     * puis rétablie.
+     * </p>
+     *
+     * @param nbTours nombre de tours à exécuter
+     * @return les mesures de la simulation
+     */
+    public Rapport executer(int nbTours) {
+        long[] durees = new long[nbTours];
+        long misesAJour = 0;
+        PrintStream sortie = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        long debut = System.nanoTime();
+        try {
+            for (int t = 0; t < nbTours; t++) {
+                long debutTour = System.nanoTime();
+                misesAJour += monde.executerTour(joueur);
+                durees[t] = System.nanoTime() - debutTour;
+            }
+        } finally {
+            System.setOut(sortie);
+        }
+        return new Rapport(durees, System.nanoTime() - debut, misesAJour);
+    }
+
+    /**
+     * Lance une simulation depuis la ligne de commande et affiche son
+     * rapport.
+     *
+     * @param args voir la description de la classe
+     * @throws IOException si le fichier du journal ne peut pas être créé
+     */
+    public static void main(String[] args) throws IOException {
+        int nbTours = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int taille = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int nbCreatures = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        int nbObjets = args.length > 3 ? Integer.parseInt(args[3]) : 500;
+        long graine = args.length > 4 ? Long.parseLong(args[4]) : 42L;
+        int nbThreads = args.length > 5 ? Integer.parseInt(args[5]) : 1;
+
+        World monde = new World(graine, taille);
+        monde.setParallelisme(nbThreads);
+        PrintStream sortie = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        Joueur joueur;
+        try {
+            monde.creerMondeAlea(nbCreatures, nbObjets);
+            joueur = args.length > 6 ? monde.creationJoueur(CommandesScript.depuisTexte(args[6])) : null;
+        } finally {
+            System.setOut(sortie);
+        }
+
+        if (args.length > 7) {
+            JournalEvenements.installer(new FichierEvenements(Path.of(args[7])));
+        }
+        Rapport rapport = new SimulationAutonome(monde, joueur).executer(nbTours);
+        JournalEvenements.fermer();
+        System.out.println("Monde " + taille + "x" + taille + ", " + nbCreatures + " créatures, "
+                + nbObjets + " objets, graine " + graine + ", " + nbThreads + " thread(s)");
+        System.out.println(rapport);
+        System.out.println("Créatures vivantes : " + monde.getReserve().compterVivantes());
+    }
+
+    // ================= RAPPORT =================
+    /**
+     * Mesures d'une simulation : durée totale, durée de chaque tour et
+     * nombre de mises à jour d'éléments.
+     */
+    public static class Rapport {
+
+        private final long[] dureesTours;
+        private final long dureeTotale;
+        private final long misesAJour;
+
+        Rapport(long[] dureesTours, long dureeTotale, long misesAJour) {
+            this.dureesTours = dureesTours;
+            this.dureeTotale = dureeTotale;
+            this.misesAJour = misesAJour;
+        }
+
+        /**
+         * @return le nombre de tours exécutés
+         */
+        public int getNbTours() {
+            return dureesTours.length;
+        }
+
+        /**
+         * @return la durée de chaque tour, en nanosecondes
+         */
+        public long[] getDureesTours() {
+            return dureesTours.clone();
+        }
+
+        /**
+         * @return la durée totale, en nanosecondes
+         */
+        public long getDureeTotale() {
+            return dureeTotale;
+        }
+
+        /**
+         * @return le nombre total d'éléments mis à jour
+         */
+        public long getMisesAJour() {
+            return misesAJour;
+        }
+
+        /**
+         * @return le nombre de tours par seconde
+         */
+        public double toursParSeconde() {
+            return dureeTotale == 0 ? 0 : dureesTours.length * 1e9 / dureeTotale;
+        }
+
+        /**
+         * @return le nombre de mises à jour d'éléments par seconde
+         */
+        public double misesAJourParSeconde() {
+            return dureeTotale == 0 ? 0 : misesAJour * 1e9 / dureeTotale;
+        }
+
+        /**
+         * Durée d'un tour au centile donné.
+         *
+         * @param centile centile entre 0 et 100
+         * @return la durée, en nanosecondes
+         */
+        public long centile(double centile) {
+            if (dureesTours.length == 0) {
+                return 0;
+            }
+            long[] triees = dureesTours.clone();
+            Arrays.sort(triees);
+            int i = (int) Math.ceil(centile / 100.0 * triees.length) - 1;
+            return triees[Math.max(0, Math.min(i, triees.length - 1))];
+        }
+
+        @Override
+        public String toString() {
+            double moyenne = dureesTours.length == 0 ? 0 : (double) dureeTotale / dureesTours.length;
+            return String.format(
+                    "%d tours en %.3f s : %.1f tours/s, %.0f mises à jour/s%n"
+                    + "Durée par tour (ms) : moyenne %.3f, min %.3f, médiane %.3f, p99 %.3f, max %.3f",
+                    dureesTours.length, dureeTotale / 1e9, toursParSeconde(), misesAJourParSeconde(),
+                    moyenne / 1e6, centile(0) / 1e6, centile(50) / 1e6, centile(99) / 1e6, centile(100) / 1e6);
+        }
+    }
+}
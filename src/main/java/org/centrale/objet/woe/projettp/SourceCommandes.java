@@ -0,0 +1,32 @@
+package org.centrale.objet.woe.projettp;
+
+/**
+ * Source des choix du {@link Joueur} : la console pour une partie
+ * interactive, ou une suite de choix enregistrée pour une simulation sans
+ * terminal.
+ *
+ * @author srodr
+ */
+public interface SourceCommandes {
+
+    /**
+     * Lit le prochain choix du joueur.
+     *
+     * @return le numéro choisi
+     * @throws java.util.NoSuchElementException s'il n'y a plus de choix
+     */
+    public int lireEntier();
+
+    /**
+     * Lit le prochain mot du joueur (par exemple le nom de son héros).
+     *
+     * @return le mot saisi
+     * @throws java.util.NoSuchElementException s'il n'y a plus de choix
+     */
+    public String lireMot();
+
+    /**
+     * @return {@code true} si la source ne fournira plus aucun choix
+     */
+    public boolean estEpuisee();
+}
@@ -0,0 +1,247 @@
+package org.centrale.objet.woe.projettp;
+
+import java.util.Arrays;
+
+/**
+ * La classe {@code TablePositions} associe une valeur à une case du monde,
+ * repérée par ses coordonnées empaquetées dans un {@code long}.
+ * <p>
+ * C'est une table à adressage ouvert (sondage linéaire) sur deux tableaux
+ * primitifs : aucune entrée n'est allouée par insertion, contrairement à un
+ * {@code HashMap<Point2D, V>} qui crée un nœud et un {@link Point2D} par case.
+ * La clé est brassée par une fonction de mélange 64 bits avant d'être réduite
+ * à la capacité (puissance de deux), ce qui évite les collisions massives de
+ * l'ancien {@code 31 * x + y} dès que le monde dépasse 31 cases de côté.
+ * </p>
+ *
+ * <p>
+ * Une case vide est signalée par une valeur {@code null} : on ne peut donc pas
+ * associer {@code null} à une clé. La suppression décale les entrées
+ * suivantes, sans marqueur de tombe, pour que les sondages restent courts.
+ * </p>
+ *
+ * @param <V> type des valeurs associées aux cases
+ * @author srodr
+ */
+public class TablePositions<V> {
+
+    // ================= ATTRIBUTS =================
+    /**
+     * Taux de remplissage maximal avant agrandissement
+     */
+    private static final float CHARGE_MAX = 0.5f;
+
+    /**
+     * Clés empaquetées
+     */
+    private long[] cles;
+
+    /**
+     * Valeurs associées ({@code null} = emplacement libre)
+     */
+    private Object[] valeurs;
+
+    /**
+     * Nombre d'entrées
+     */
+    private int taille;
+
+    /**
+     * Capacité moins un (masque de réduction)
+     */
+    private int masque;
+
+    // ================= CONSTRUCTEURS =================
+    /**
+     * Construit une table vide de capacité initiale 16.
+     */
+    public TablePositions() {
+        this(16);
+    }
+
+    /**
+     * Construit une table vide dimensionnée pour un nombre d'entrées attendu.
+     *
+     * @param attendues nombre d'entrées attendu
+     */
+    public TablePositions(int attendues) {
+        int capacite = Integer.highestOneBit(Math.max(2, (int) (attendues / CHARGE_MAX)) - 1) << 1;
+        this.cles = new long[capacite];
+        this.valeurs = new Object[capacite];
+        this.masque = capacite - 1;
+        this.taille = 0;
+    }
+
+    // ================= CLÉS =================
+    /**
+     * Empaquette des coordonnées dans une clé.
+     *
+     * @param x abscisse
+     * @param y ordonnée
+     * @return clé {@code x} sur les 32 bits de poids fort, {@code y} sur les
+     * 32 bits de poids faible
+     */
+    public static long cle(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Fonction de mélange 64 bits (finaliseur de SplitMix64).
+     *
+     * @param k valeur à mélanger
+     * @return valeur mélangée, dont tous les bits dépendent de tous les bits
+     * de {@code k}
+     */
+    public static long melanger(long k) {
+        k = (k ^ (k >>> 30)) * 0xBF58476D1CE4E5B9L;
+        k = (k ^ (k >>> 27)) * 0x94D049BB133111EBL;
+        return k ^ (k >>> 31);
+    }
+
+    // ================= MÉTHODES =================
+    /**
+     * @return le nombre d'entrées de la table
+     */
+    public int size() {
+        return taille;
+    }
+
+    /**
+     * @return la capacité actuelle (nombre d'emplacements)
+     */
+    public int capacite() {
+        return cles.length;
+    }
+
+    /**
+     * Vérifie si une clé est présente.
+     *
+     * @param cle clé empaquetée
+     * @return {@code true} si la clé a une valeur associée
+     */
+    public boolean contains(long cle) {
+        return get(cle) != null;
+    }
+
+    /**
+     * Retourne la valeur associée à une clé.
+     *
+     * @param cle clé empaquetée
+     * @return la valeur, ou {@code null} si absente
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long cle) {
+        int i = (int) melanger(cle) & masque;
+        Object v;
+        while ((v = valeurs[i]) != null) {
+            if (cles[i] == cle) {
+                return (V) v;
+            }
+            i = (i + 1) & masque;
+        }
+        return null;
+    }
+
+    /**
+     * Associe une valeur à une clé, en remplaçant l'éventuelle valeur
+     * précédente.
+     *
+     * @param cle clé empaquetée
+     * @param valeur valeur non nulle
+     * @return la valeur précédente, ou {@code null}
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long cle, V valeur) {
+        if (valeur == null) {
+            throw new IllegalArgumentException("Valeur nulle interdite dans TablePositions");
+        }
+        int i = (int) melanger(cle) & masque;
+        Object v;
+        while ((v = valeurs[i]) != null) {
+            if (cles[i] == cle) {
+                valeurs[i] = valeur;
+                return (V) v;
+            }
+            i = (i + 1) & masque;
+        }
+        cles[i] = cle;
+        valeurs[i] = valeur;
+        if (++taille > cles.length * CHARGE_MAX) {
+            agrandir();
+        }
+        return null;
+    }
+
+    /**
+     * Retire une clé de la table.
+     *
+     * @param cle clé empaquetée
+     * @return la valeur retirée, ou {@code null} si absente
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long cle) {
+        int i = (int) melanger(cle) & masque;
+        Object v;
+        while ((v = valeurs[i]) != null) {
+            if (cles[i] == cle) {
+                decaler(i);
+                taille--;
+                return (V) v;
+            }
+            i = (i + 1) & masque;
+        }
+        return null;
+    }
+
+    /**
+     * Vide la table sans réduire sa capacité.
+     */
+    public void clear() {
+        Arrays.fill(valeurs, null);
+        taille = 0;
+    }
+
+    /**
+     * Comble le trou laissé en {@code libre} en remontant les entrées
+     * suivantes de la même grappe qui peuvent l'occuper.
+     */
+    private void decaler(int libre) {
+        int i = libre;
+        while (true) {
+            i = (i + 1) & masque;
+            if (valeurs[i] == null) {
+                break;
+            }
+            int ideal = (int) melanger(cles[i]) & masque;
+            // l'entrée peut remonter si son emplacement idéal n'est pas
+            // strictement entre le trou et sa position actuelle
+            if (((i - ideal) & masque) >= ((i - libre) & masque)) {
+                cles[libre] = cles[i];
+                valeurs[libre] = valeurs[i];
+                libre = i;
+            }
+        }
+        valeurs[libre] = null;
+    }
+
+    /**
+     * Double la capacité et réinsère toutes les entrées.
+     */
+    private void agrandir() {
+        long[] anciennesCles = cles;
+        Object[] anciennesValeurs = valeurs;
+        cles = new long[anciennesCles.length * 2];
+        valeurs = new Object[anciennesCles.length * 2];
+        masque = cles.length - 1;
+        for (int j = 0; j < anciennesCles.length; j++) {
+            if (anciennesValeurs[j] != null) {
+                int i = (int) melanger(anciennesCles[j]) & masque;
+                while (valeurs[i] != null) {
+                    i = (i + 1) & masque;
+                }
+                cles[i] = anciennesCles[j];
+                valeurs[i] = anciennesValeurs[j];
+            }
+        }
+    }
+}
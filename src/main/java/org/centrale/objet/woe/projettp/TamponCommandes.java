@@ -0,0 +1,267 @@
+package org.centrale.objet.woe.projettp;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * La classe {@code TamponCommandes} diffère les effets des analyses d'un tour
+ * sur les autres éléments : dégâts, morts qui en découlent et retraits
+ * d'objets.
+ * <p>
+ * Pendant une phase ouverte ({@link #ouvrir()}), un combattant ou le joueur
+ * n'écrit rien chez sa cible : il enregistre une commande dans des tableaux
+ * parallèles. Aucune liste du monde n'est donc modifiée pendant qu'une autre
+ * analyse la parcourt, et les analyses exécutées en parallèle par le
+ * {@link MoteurTuiles} ne se partagent que ce tampon.
+ * </p>
+ *
+ * <p>
+ * {@link #resoudre()} applique ensuite toutes les commandes en un seul
+ * balayage. Elles sont regroupées par cible (identifiant croissant), puis,
+ * pour une même cible, rangées par identifiant d'auteur ; les commandes d'un
+ * même auteur gardent leur ordre d'émission. Le résultat ne dépend donc pas de
+ * l'ordre d'arrivée des commandes. Les dégâts d'une cible sont appliqués un à
+ * un dans cet ordre ; la cible meurt dès que ses points de vie sont épuisés,
+ * une seule fois, et les dégâts suivants sur elle sont ignorés.
+ * </p>
+ *
+ * <p>
+ * Phase fermée (hors d'un tour, bancs d'essai), chaque commande est appliquée
+ * immédiatement.
+ * </p>
+ *
+ * @author srodr
+ */
+public class TamponCommandes {
+
+    // ================= ATTRIBUTS =================
+    /**
+     * Type de commande réservé au retrait d'un objet (les dégâts utilisent le
+     * rang de leur {@link TypeEvenement})
+     */
+    private static final int RETRAIT = -1;
+
+    /**
+     * Grille du monde, mise à jour à la résolution
+     */
+    private final GrilleOccupation grille;
+
+    /**
+     * Type de chaque commande : rang d'un {@link TypeEvenement} pour des
+     * dégâts, {@link #RETRAIT} pour un retrait d'objet
+     */
+    private int[] types;
+
+    private ElementDeJeu[] auteurs;
+    private ElementDeJeu[] cibles;
+
+    /**
+     * Dégâts infligés
+     */
+    private int[] montants;
+
+    /**
+     * Liste d'où retirer l'objet ({@code null} : grille seulement)
+     */
+    private Collection<?>[] listes;
+
+    /**
+     * Clés de tri : identifiant de la cible (32 bits de poids fort) puis
+     * numéro de la commande (32 bits de poids faible)
+     */
+    private long[] cles;
+
+    /**
+     * Nombre de commandes enregistrées
+     */
+    private int nbCommandes;
+
+    /**
+     * Indique si les commandes sont différées
+     */
+    private boolean ouvert;
+
+    // ================= CONSTRUCTEUR =================
+    /**
+     * Construit un tampon fermé avec une capacité initiale de 64 commandes.
+     *
+     * @param grille grille du monde
+     */
+    public TamponCommandes(GrilleOccupation grille) {
+        this.grille = grille;
+        this.types = new int[64];
+        this.auteurs = new ElementDeJeu[64];
+        this.cibles = new ElementDeJeu[64];
+        this.montants = new int[64];
+        this.listes = new Collection<?>[64];
+        this.cles = new long[64];
+    }
+
+    // ================= MÉTHODES =================
+    /**
+     * Ouvre le tampon : les commandes suivantes seront différées.
+     */
+    public void ouvrir() {
+        this.nbCommandes = 0;
+        this.ouvert = true;
+    }
+
+    /**
+     * @return {@code true} si les commandes sont actuellement différées
+     */
+    public boolean estOuvert() {
+        return ouvert;
+    }
+
+    /**
+     * @return le nombre de commandes en attente
+     */
+    public int getNbCommandes() {
+        return nbCommandes;
+    }
+
+    /**
+     * Inflige des dégâts à une créature.
+     *
+     * @param auteur élément qui attaque
+     * @param cible créature touchée
+     * @param montant dégâts infligés
+     * @param type {@link TypeEvenement#PARADE} si les dégâts entament d'abord
+     * les points de parade de la cible, {@link TypeEvenement#ATTAQUE} ou
+     * {@link TypeEvenement#NUAGE} s'ils touchent directement ses points de vie
+     */
+    public void degats(ElementDeJeu auteur, Creature cible, int montant, TypeEvenement type) {
+        if (ouvert) {
+            enregistrer(type.ordinal(), auteur, cible, montant, null);
+        } else {
+            appliquer(type.ordinal(), auteur, cible, montant, null);
+        }
+    }
+
+    /**
+     * Retire un objet de la grille et, si elle est donnée, de la liste des
+     * objets du monde.
+     *
+     * @param o objet retiré
+     * @param objets liste des objets du monde, ou {@code null}
+     */
+    public void retirerObjet(Objet o, Collection<Objet> objets) {
+        if (ouvert) {
+            enregistrer(RETRAIT, null, o, 0, objets);
+        } else {
+            appliquer(RETRAIT, null, o, 0, objets);
+        }
+    }
+
+    /**
+     * Ajoute une commande (peut être appelée par plusieurs threads).
+     */
+    private synchronized void enregistrer(int type, ElementDeJeu auteur, ElementDeJeu cible, int montant, Collection<?> liste) {
+        if (nbCommandes == types.length) {
+            int capacite = types.length * 2;
+            types = Arrays.copyOf(types, capacite);
+            auteurs = Arrays.copyOf(auteurs, capacite);
+            cibles = Arrays.copyOf(cibles, capacite);
+            montants = Arrays.copyOf(montants, capacite);
+            listes = Arrays.copyOf(listes, capacite);
+            cles = Arrays.copyOf(cles, capacite);
+        }
+        types[nbCommandes] = type;
+        auteurs[nbCommandes] = auteur;
+        cibles[nbCommandes] = cible;
+        montants[nbCommandes] = montant;
+        listes[nbCommandes] = liste;
+        nbCommandes++;
+    }
+
+    /**
+     * Applique toutes les commandes en attente dans un ordre déterministe,
+     * puis ferme le tampon.
+     *
+     * @return le nombre de commandes appliquées
+     */
+    public int resoudre() {
+        int n = nbCommandes;
+
+        // 1. Regroupement par cible
+        for (int i = 0; i < n; i++) {
+            cles[i] = (cibles[i].getId() << 32) | i;
+        }
+        Arrays.sort(cles, 0, n);
+
+        // 2. Dans chaque groupe, tri stable par auteur (insertion : les
+        // groupes ne comptent que quelques attaquants)
+        int debut = 0;
+        while (debut < n) {
+            long cible = cles[debut] >>> 32;
+            int fin = debut + 1;
+            while (fin < n && (cles[fin] >>> 32) == cible) {
+                fin++;
+            }
+            for (int k = debut + 1; k < fin; k++) {
+                long cle = cles[k];
+                long auteur = idAuteur((int) cle);
+                int j = k - 1;
+                while (j >= debut && idAuteur((int) cles[j]) > auteur) {
+                    cles[j + 1] = cles[j];
+                    j--;
+                }
+                cles[j + 1] = cle;
+            }
+            debut = fin;
+        }
+
+        // 3. Application
+        ouvert = false;
+        for (int k = 0; k < n; k++) {
+            int i = (int) cles[k];
+            appliquer(types[i], auteurs[i], cibles[i], montants[i], listes[i]);
+        }
+
+        Arrays.fill(auteurs, 0, n, null);
+        Arrays.fill(cibles, 0, n, null);
+        Arrays.fill(listes, 0, n, null);
+        nbCommandes = 0;
+        return n;
+    }
+
+    /**
+     * Identifiant de l'auteur d'une commande (0 pour un retrait).
+     */
+    private long idAuteur(int i) {
+        return auteurs[i] == null ? 0 : auteurs[i].getId();
+    }
+
+    /**
+     * Applique une commande.
+     */
+    private void appliquer(int type, ElementDeJeu auteur, ElementDeJeu cible, int montant, Collection<?> liste) {
+        if (type == RETRAIT) {
+            grille.retirer(cible);
+            if (liste != null) {
+                liste.remove(cible);
+            }
+            return;
+        }
+
+        Creature c = (Creature) cible;
+        if (!c.isEtat()) {
+            return; // déjà tuée par une commande précédente
+        }
+        if (type == TypeEvenement.PARADE.ordinal() && c.getPtPar() > 0) {
+            int reste = c.getPtPar() - montant;
+            if (reste <= 0) {
+                c.setPtPar(0);
+                c.setPtVie(c.getPtVie() + reste);
+            } else {
+                c.setPtPar(reste);
+            }
+        } else {
+            c.setPtVie(c.getPtVie() - montant);
+        }
+        JournalEvenements.combat(TypeEvenement.deRang(type), auteur, c);
+        if (c.getPtVie() <= 0) {
+            c.mourir(grille);
+        }
+    }
+}
@@ -130,10 +130,17 @@ public class TestWoE {
         
         
         World w= new World();
+        JournalEvenements.installer(new ConsoleEvenements(w::nomDe));
         w.creerMondeAlea();
         Joueur moi = w.creationJoueur();
+        EcranAnsi ecran = EcranAnsi.terminalCompatible() ? new EcranAnsi(System.out) : null;
+        w.setEcran(ecran);
         w.afficheWorld(moi);
         w.tourDeJour(15, moi);
+        JournalEvenements.fermer();
+        if (ecran != null) {
+            ecran.fermer();
+        }
         //w.demonstrationErreursJava();
     
     }
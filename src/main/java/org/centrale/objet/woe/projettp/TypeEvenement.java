@@ -0,0 +1,70 @@
+package org.centrale.objet.woe.projettp;
+
+/**
+ * Types d'événements enregistrés par le {@link JournalEvenements}.
+ * <p>
+ * Chaque événement porte un acteur, une cible éventuelle (identifiants
+ * {@link ElementDeJeu#getId()}), une valeur et une case ; le sens de ces
+ * champs dépend du type.
+ * </p>
+ *
+ * @author srodr
+ */
+public enum TypeEvenement {
+
+    /**
+     * Début d'un tour ; valeur = numéro du tour
+     */
+    TOUR,
+    /**
+     * L'acteur arrive sur la case (x, y)
+     */
+    DEPLACEMENT,
+    /**
+     * L'acteur n'a trouvé aucune case libre autour de lui
+     */
+    BLOCAGE,
+    /**
+     * L'acteur touche la cible ; valeur = points de vie restants de la cible
+     */
+    ATTAQUE,
+    /**
+     * La cible pare l'attaque de l'acteur ; valeur = points de vie restants
+     */
+    PARADE,
+    /**
+     * L'attaque de l'acteur sur la cible échoue
+     */
+    ECHEC,
+    /**
+     * Le nuage (acteur) empoisonne la cible ; valeur = points de vie restants
+     */
+    NUAGE,
+    /**
+     * L'acteur meurt en (x, y)
+     */
+    MORT,
+    /**
+     * L'acteur ramasse l'objet cible en (x, y)
+     */
+    RAMASSAGE,
+    /**
+     * L'effet cible porté par l'acteur prend fin, ou le nuage (acteur et
+     * cible) se dissipe en (x, y)
+     */
+    EXPIRATION;
+
+    /**
+     * Types indexés par leur rang, pour relire un événement stocké sous forme
+     * d'entier sans allouer de tableau
+     */
+    private static final TypeEvenement[] PAR_RANG = values();
+
+    /**
+     * @param rang rang du type ({@link #ordinal()})
+     * @return le type correspondant
+     */
+    public static TypeEvenement deRang(int rang) {
+        return PAR_RANG[rang];
+    }
+}
@@ -31,7 +31,7 @@ public class World {
 
     public ArrayList<Creature> ListCreature;
 
-    public LinkedList<Objet> ListObjets;
+    public CoucheObjets ListObjets;
     
     public ArrayList<Analyze> ListAnalyze; 
     
@@ -40,32 +40,159 @@ public class World {
 
     // ================= POSITIONS =================
     /**
-     * Ensemble des positions occupées pour éviter les superpositions
+     * Grille d’occupation des cases pour éviter les superpositions
      */
-    private final Set<Point2D> positionsOccupees;
+    private GrilleOccupation grille;
+
+    /**
+     * Caractéristiques de toutes les créatures du monde, rangées en colonnes
+     */
+    private ReserveCreatures reserve;
+
+    /**
+     * Moteur qui exécute les analyses du tour tuile par tuile
+     */
+    private MoteurTuiles moteur;
+
+    /**
+     * Échéancier des effets temporaires et de la durée de vie des nuages
+     */
+    private RoueTemporelle roue;
+
+    /**
+     * Traitement des échéances de la roue (créé une seule fois)
+     */
+    private final RoueTemporelle.Expiration expiration = this::expirer;
+
+    /**
+     * Nombre de nuages dissipés depuis le dernier compactage
+     */
+    private int nuagesDissipes;
+
+    /**
+     * Fenêtre affichée autour du héros, réutilisée d’un tour à l’autre
+     */
+    private final RenduFenetre rendu = new RenduFenetre();
+
+    /**
+     * Terminal ANSI où la fenêtre est mise à jour sur place ({@code null} :
+     * la fenêtre est écrite à la suite sur la sortie standard)
+     */
+    private EcranAnsi ecran;
+
+    /**
+     * Journal des changements de chaque tour ({@code null} : aucun)
+     */
+    private JournalTours journal;
+
+    /**
+     * Enregistrement de la partie en cours ({@code null} : aucun)
+     */
+    private SessionEnregistree session;
+
+    // ================= ALÉATOIRE =================
+    /**
+     * Source de tous les tirages aléatoires du monde
+     */
+    private ServiceAleatoire alea;
+
+    /**
+     * Dernier identifiant attribué à un élément du monde
+     */
+    private long dernierId;
+
+    /**
+     * Éléments du monde rangés par identifiant (l’élément d’identifiant
+     * {@code i} est à l’indice {@code i - 1})
+     */
+    private ArrayList<ElementDeJeu> elementsParId;
+
+    /**
+     * Nombre de tours déjà exécutés
+     */
+    private int nbToursJoues;
+
+    /**
+     * Héros du joueur ({@code null} : monde sans joueur)
+     */
+    private Personnage heros;
 
     // ================= CONSTRUCTEUR =================
     /**
      * Constructeur par défaut. Initialise les personnages principaux avec des
-     * valeurs de base et l’ensemble des positions occupées.
+     * valeurs de base et la grille d’occupation. La graine aléatoire est tirée
+     * de l’horloge.
      */
     public World() {
-        positionsOccupees = new HashSet<>();
-        TAILLE_MONDE = 20;
+        this(System.nanoTime());
+    }
+
+    /**
+     * Construit un monde reproductible : deux mondes de même graine génèrent
+     * les mêmes éléments et se déroulent de la même façon.
+     *
+     * @param graine graine de tous les tirages aléatoires du monde
+     */
+    public World(long graine) {
+        this(graine, 20);
+    }
+
+    /**
+     * Construit un monde reproductible d’une taille donnée.
+     *
+     * @param graine graine de tous les tirages aléatoires du monde
+     * @param taille dimension d’un côté du monde
+     */
+    public World(long graine, int taille) {
+        TAILLE_MONDE = taille;
+        alea = new ServiceAleatoire(graine);
+        dernierId = 0;
+        elementsParId = new ArrayList<>();
+        nbToursJoues = 0;
+        reserve = new ReserveCreatures();
+        moteur = new MoteurTuiles();
+        roue = new RoueTemporelle();
+        nouvelleGrille();
         this.ListElementJeu = new ArrayList<>(); 
         this.ListAnalyze = new ArrayList<>();
         this.ListCreature = new ArrayList<>();
-        this.ListObjets = new LinkedList<>();
 
     }
 
+    /**
+     * Installe une grille vide de la taille du monde, reliée à la roue
+     * temporelle, et la liste d’objets qu’elle porte.
+     */
+    private void nouvelleGrille() {
+        grille = new GrilleOccupation(TAILLE_MONDE);
+        grille.setRoue(roue);
+        this.ListObjets = grille.getObjets();
+        Point2D.preparerCache(TAILLE_MONDE);
+    }
+
     // ================= MÉTHODES =================
+    /**
+     * Crée le joueur en lui demandant sur la console la classe et le nom de
+     * son héros.
+     *
+     * @return le joueur, son héros placé dans le monde
+     */
     public Joueur creationJoueur() {
-        Random rand = new Random();
-        Joueur moi = new Joueur();
+        return choixJoueur(new CommandesConsole());
+    }
+
+    /**
+     * Crée le joueur en lisant la classe et le nom de son héros dans une
+     * source de choix, qui fournit ensuite les actions du joueur.
+     *
+     * @param commandes source des choix du joueur
+     * @return le joueur, son héros placé dans le monde
+     */
+    public Joueur choixJoueur(SourceCommandes commandes) {
+        SplittableRandom rand = alea.generation();
+        Joueur moi = new Joueur(commandes);
         String nom;
         int election;
-        Scanner sc = new Scanner(System.in);
         boolean choixValide;
 
         do {
@@ -76,7 +203,7 @@ public class World {
             System.out.println("2 - Archer");
             System.out.println("3 - Choix aléatoire");
 
-            election = sc.nextInt();
+            election = commandes.lireEntier();
 
             if (election == 3) {
                 election = rand.nextInt(2) + 1; // 1 ou 2 aléatoirement
@@ -84,7 +211,7 @@ public class World {
             }
 
             System.out.println("Choisissez le nom de votre personnage : ");
-            nom = sc.next();
+            nom = commandes.lireMot();
 
             switch (election) {
                 case 1 -> {
@@ -98,6 +225,10 @@ public class World {
                     int dMax = 1;
                     int distanceVision = 5;
                     moi.hero = new Guerrier(nom, etat, pVie, dAtt, pPar, paAtt, paPar, p, dMax, distanceVision);
+                    heros = moi.hero;
+                    enregistrer(moi.hero);
+                    reserve.inscrire(moi.hero);
+                    grille.placer(moi.hero);
                     moi.hero.affiche();
                 }
 
@@ -115,6 +246,10 @@ public class World {
 
                     moi.hero = new Archer(nom, etatArcher, pVieArcher, dAttArcher, pParArcher,
                             paAttArcher, paParArcher, pArcher, dMaxArcher, distanceVisionArcher, nbFleches);
+                    heros = moi.hero;
+                    enregistrer(moi.hero);
+                    reserve.inscrire(moi.hero);
+                    grille.placer(moi.hero);
                     moi.hero.affiche();
                 }
 
@@ -129,6 +264,26 @@ public class World {
         return moi;
     }
 
+    /**
+     * Crée sans interaction un joueur dont le héros est un guerrier aux
+     * caractéristiques tirées dans le flux de génération du monde.
+     *
+     * @param commandes source des choix du joueur (par exemple un script)
+     * @return le joueur, son héros placé dans le monde
+     */
+    public Joueur creationJoueur(SourceCommandes commandes) {
+        SplittableRandom rand = alea.generation();
+        Joueur moi = new Joueur(commandes);
+        Point2D p = positionAleatoire(rand);
+        moi.hero = new Guerrier("Heros", true, rand.nextInt(101) + 50, rand.nextInt(21) + 10,
+                rand.nextInt(21) + 5, rand.nextInt(51) + 50, rand.nextInt(51) + 30, p, 1, 5);
+        heros = moi.hero;
+        enregistrer(moi.hero);
+        reserve.inscrire(moi.hero);
+        grille.placer(moi.hero);
+        return moi;
+    }
+
     /**
      * Place aléatoirement les protagonistes du monde dans un espace 2D.
      * <p>
@@ -137,9 +292,19 @@ public class World {
      * </p>
      */
     public void creerMondeAlea() {
-        Random rand = new Random();
-        generationCreatures(40, rand, this.ListCreature);
-        generationObjets(40, rand, this.ListObjets);
+        creerMondeAlea(40, 40);
+    }
+
+    /**
+     * Place aléatoirement un nombre donné de créatures et d’objets.
+     *
+     * @param nbCreatures nombre de créatures à générer
+     * @param nbObjets nombre d’objets à générer
+     */
+    public void creerMondeAlea(int nbCreatures, int nbObjets) {
+        SplittableRandom rand = alea.generation();
+        generationCreatures(nbCreatures, rand, this.ListCreature);
+        generationObjets(nbObjets, rand, this.ListObjets);
         for(ElementDeJeu item: this.ListElementJeu){
             if(item instanceof Analyze analyze){
                 this.ListAnalyze.add(analyze);
@@ -155,23 +320,35 @@ public class World {
      * @param rand générateur de nombres aléatoires
      * @param collectionCreature collection où ajouter les créatures
      */
-    private void generationCreatures(int maxCreatures, Random rand, Collection<Creature> collectionCreature) {
-        for (int i = 0; i < maxCreatures; i++) {
-            Point2D cPoint = positionAleatoire(rand);
-            int randint = rand.nextInt(2);
-            int id = i + 1;
-            switch (randint) {
-                case 0 -> {
-                    Creature nCreature = GenerationP(id, cPoint);
-                    collectionCreature.add(nCreature);
-                    this.ListElementJeu.add(nCreature);
-                }   
-                case 1-> {
-                    Creature nCreature = GenerationM(id, cPoint);
-                    collectionCreature.add(nCreature);
-                    this.ListElementJeu.add(nCreature);
+    private void generationCreatures(int maxCreatures, SplittableRandom rand, Collection<Creature> collectionCreature) {
+        // les créatures sont construites directement dans la réserve du monde
+        reserve.ouvrirAccueil(reserve.size() + maxCreatures);
+        try {
+            for (int i = 0; i < maxCreatures; i++) {
+                Point2D cPoint = positionAleatoire(rand);
+                int randint = rand.nextInt(2);
+                int id = i + 1;
+                switch (randint) {
+                    case 0 -> {
+                        Creature nCreature = GenerationP(id, cPoint, rand);
+                        enregistrer(nCreature);
+                        reserve.inscrire(nCreature);
+                        grille.placer(nCreature);
+                        collectionCreature.add(nCreature);
+                        this.ListElementJeu.add(nCreature);
+                    }   
+                    case 1-> {
+                        Creature nCreature = GenerationM(id, cPoint, rand);
+                        enregistrer(nCreature);
+                        reserve.inscrire(nCreature);
+                        grille.placer(nCreature);
+                        collectionCreature.add(nCreature);
+                        this.ListElementJeu.add(nCreature);
+                    }
                 }
             }
+        } finally {
+            ReserveCreatures.fermerAccueil();
         }
     }
 
@@ -182,201 +359,557 @@ public class World {
      * @param rand générateur de nombres aléatoires
      * @param collectionObjet collection où ajouter les objets
      */
-    private void generationObjets(int maxObjets, Random rand, Collection<Objet> collectionObjet) {
+    private void generationObjets(int maxObjets, SplittableRandom rand, Collection<Objet> collectionObjet) {
         for (int i = 0; i < maxObjets; i++) {
             int id = i + 1;
             Point2D cPoint = positionAleatoire(rand);
-            Objet nObjet = GenerationO(id, cPoint);
+            Objet nObjet = GenerationO(id, cPoint, rand);
+            enregistrer(nObjet);
+            grille.placer(nObjet);
             collectionObjet.add(nObjet);
             this.ListElementJeu.add(nObjet);      
+            if (nObjet instanceof NuageToxique nuage) {
+                roue.planifier(nuage, null, nuage.getDuree());
+            }
         }
     }
 
     /**
      * Génère une position libre non encore occupée.
+     * <p>
+     * La case n’est pas réservée : l’appelant doit placer l’élément créé sur
+     * la grille avant de demander une nouvelle position.
+     * </p>
      *
      * @param rand générateur aléatoire
      * @return une position Point2D unique dans le monde
      */
-    private Point2D positionAleatoire(Random rand) {
-        Point2D p;
+    private Point2D positionAleatoire(SplittableRandom rand) {
+        int x, y;
         do {
-            int x = rand.nextInt(TAILLE_MONDE);
-            int y = rand.nextInt(TAILLE_MONDE);
-            p = new Point2D(x, y);
-        } while (positionsOccupees.contains(p));
-        positionsOccupees.add(p);
-        return p;
+            x = rand.nextInt(TAILLE_MONDE);
+            y = rand.nextInt(TAILLE_MONDE);
+        } while (grille.estOccupee(x, y));
+        return Point2D.of(x, y);
     }
 
     /**
-     * Retourne l’ensemble des positions actuellement occupées dans le monde.
+     * Donne à un élément son identifiant et son flux aléatoire.
      *
-     * @return ensemble des positions occupées
+     * @param e élément qui entre dans le monde
      */
-    public Set<Point2D> getPositionsOccupees() {
-        return positionsOccupees;
+    private void enregistrer(ElementDeJeu e) {
+        dernierId++;
+        e.enregistrer(dernierId, alea.flux(dernierId));
+        elementsParId.add(e);
     }
 
     /**
-     * Effectue une simulation de plusieurs tours : à chaque tour, tous les
-     * personnages se déplacent aléatoirement.
+     * Retrouve le nom d’un élément à partir de son identifiant ; sert de
+     * résolveur aux consommateurs du {@link JournalEvenements}.
      *
-     * @param nbTours nombre de tours à exécuter
-     * @param moi
+     * @param id identifiant de l’élément
+     * @return son nom, ou {@code "#id"} s’il est inconnu
      */
-    public void tourDeJour(int nbTours, Joueur moi) {
-    for (int t = 0; t < nbTours; t++) {
-        System.out.println("===== TOUR " + (t + 1) + " =====");
+    public String nomDe(long id) {
+        ElementDeJeu e = elementDe(id);
+        return e != null ? e.getNom() : "#" + id;
+    }
 
-        // Le joueur analyse son environnement et agit
-        moi.analyzer(this.positionsOccupees, this.ListCreature, this.ListObjets, TAILLE_MONDE);
+    /**
+     * Retrouve un élément à partir de son identifiant.
+     *
+     * @param id identifiant de l’élément
+     * @return l’élément, ou {@code null} s’il est inconnu
+     */
+    public ElementDeJeu elementDe(long id) {
+        if (id >= 1 && id <= elementsParId.size()) {
+            return elementsParId.get((int) (id - 1));
+        }
+        return null;
+    }
 
-        // Chaque créature effectue son propre tour d’analyse
-        for (Analyze e : this.ListAnalyze) {
-            if (e != null) { // seulement les créatures vivantes
-                e.analyzer(this.positionsOccupees, this.ListCreature, this.ListObjets, TAILLE_MONDE);
-            }
+    /**
+     * @return le héros du joueur, ou {@code null} pour un monde sans joueur
+     */
+    public Personnage getHeros() {
+        return heros;
+    }
+
+    /**
+     * @return le nombre de tours déjà exécutés
+     */
+    public int getNbToursJoues() {
+        return nbToursJoues;
+    }
+
+    /**
+     * @return le dernier identifiant attribué à un élément du monde
+     */
+    long getDernierId() {
+        return dernierId;
+    }
+
+    // ================= RESTAURATION =================
+    /**
+     * Replace les compteurs d’un monde rechargé (appelé par
+     * {@link InstantaneMonde}) avant d’y remettre ses éléments.
+     *
+     * @param dernierId dernier identifiant attribué
+     * @param nbToursJoues nombre de tours déjà exécutés
+     */
+    void restaurerCompteurs(long dernierId, int nbToursJoues) {
+        this.dernierId = dernierId;
+        this.nbToursJoues = nbToursJoues;
+        this.roue.demarrer(nbToursJoues);
+        etendreIdentifiants(dernierId);
+    }
+
+    /**
+     * Réserve les identifiants attribués jusqu’à {@code dernierId}, avant d’y
+     * remettre des éléments rechargés.
+     *
+     * @param dernierId dernier identifiant attribué
+     */
+    void etendreIdentifiants(long dernierId) {
+        this.dernierId = Math.max(this.dernierId, dernierId);
+        this.elementsParId.ensureCapacity((int) dernierId);
+        while (elementsParId.size() < dernierId) {
+            elementsParId.add(null);
         }
+    }
 
-        // Mise à jour de l’affichage du monde
-        afficheWorld(moi);
+    /**
+     * Remet dans le monde un élément rechargé sous son identifiant
+     * d’origine, avec un flux aléatoire repris au tour courant.
+     *
+     * @param e élément rechargé
+     * @param id son identifiant
+     */
+    void restaurer(ElementDeJeu e, long id) {
+        e.enregistrer(id, alea.flux(id, nbToursJoues));
+        elementsParId.set((int) (id - 1), e);
     }
-}
 
     /**
-     * Affiche l’état complet du monde (personnages, monstres et objets
-     * principaux).
+     * Remet une créature vivante dans la réserve et sur la grille.
      *
-     * @param moi
+     * @param c créature rechargée
      */
-    public void afficheWorld(Joueur moi) {
-        int taille = TAILLE_MONDE;
-        char[][] monde = new char[taille][taille];
+    void restaurerCreature(Creature c) {
+        if (c.isEtat()) {
+            reserve.inscrire(c);
+            grille.placer(c);
+        }
+    }
 
-        // 1️⃣ Initialiser le monde avec des cases vides
-        for (int i = 0; i < taille; i++) {
-            for (int j = 0; j < taille; j++) {
-                monde[i][j] = '.';
+    /**
+     * Désigne le héros d’un monde rechargé.
+     *
+     * @param heros héros du joueur
+     */
+    void restaurerHeros(Personnage heros) {
+        this.heros = heros;
+    }
+
+    /**
+     * Reconstruit la liste des éléments à analyser à partir des éléments du
+     * monde, comme à la génération.
+     */
+    void restaurerAnalyses() {
+        ListAnalyze.clear();
+        for (ElementDeJeu item : ListElementJeu) {
+            if (item instanceof Analyze analyze) {
+                ListAnalyze.add(analyze);
             }
         }
+    }
 
-        // 2️⃣ Placer toutes les créatures du monde
-        if (ListCreature != null) {
-            for (Creature c : ListCreature) {
-                if (c != null && c.getPos() != null) {
-                    placerDansMonde(monde, c, getSymbolePourCreature(c));
-                }
-            }
+    /**
+     * Rejoue le retrait d’un objet du monde : ramassage, ou dissipation d’un
+     * nuage.
+     *
+     * @param o objet retiré
+     */
+    void rejouerRetrait(Objet o) {
+        if (o instanceof NuageToxique nuage) {
+            nuage.dissiper(grille);
+            nuagesDissipes++;
+        } else {
+            grille.retirer(o);
+            ListObjets.remove(o);
         }
+    }
 
-        // 3️⃣ Placer tous les objets du monde
-        if (ListObjets != null) {
-            for (Objet o : ListObjets) {
-                if (o != null && o.getPos() != null) {
-                    placerDansMonde(monde, o, getSymbolePourObjet(o));
-                }
+    /**
+     * Termine un tour rejoué : les échéances atteintes sont retirées de la
+     * roue sans être traitées (leurs effets figurent déjà dans le journal),
+     * puis les éléments retirés quittent les listes.
+     *
+     * @param tour numéro du tour rejoué
+     */
+    void terminerRejeu(int tour) {
+        roue.avancer(tour, (sujet, porteur) -> {
+        });
+        nbToursJoues = tour;
+        compacter();
+    }
+
+    /**
+     * Donne à chaque élément le flux aléatoire qu’il aurait en étant rechargé
+     * d’un instantané pris au tour courant.
+     */
+    void reprendreFlux() {
+        for (ElementDeJeu e : elementsParId) {
+            if (e != null) {
+                restaurer(e, e.getId());
             }
         }
+    }
 
-        // 4️⃣ Placer le héros (joueur)
-        placerDansMonde(monde, moi.hero, 'S');
+    /**
+     * @return le service qui fournit les tirages aléatoires du monde
+     */
+    public ServiceAleatoire getAlea() {
+        return alea;
+    }
 
-        // 5️⃣ Afficher la zone visible selon la vision du héros
-        afficherZoneVisible(monde, moi.hero);
+    /**
+     * Retourne la grille d’occupation des cases du monde.
+     *
+     * @return grille d’occupation
+     */
+    public GrilleOccupation getGrille() {
+        return grille;
+    }
 
-        // 6️⃣ Afficher les statistiques du héros
-        System.out.println();
-        System.out.println("=== STATS DU HÉROS ===");
-        moi.hero.affiche();
-        System.out.println("=======================");
+    /**
+     * Retourne l’échéancier des effets temporaires du monde.
+     *
+     * @return échéancier du monde
+     */
+    public RoueTemporelle getRoue() {
+        return roue;
     }
 
     /**
-     * Méthode pour placer un élément sur la carte
+     * Retourne la réserve contenant les caractéristiques des créatures du
+     * monde.
+     *
+     * @return réserve des créatures
      */
-    private void placerDansMonde(char[][] monde, ElementDeJeu element, char symbole) {
-        int x = element.getPos().getX();
-        int y = element.getPos().getY();
+    public ReserveCreatures getReserve() {
+        return reserve;
+    }
 
-        if (x >= 0 && x < monde[0].length && y >= 0 && y < monde.length) {
-            monde[y][x] = symbole;
-        }
+    /**
+     * Choisit l’écran ANSI sur lequel la carte est mise à jour sur place.
+     *
+     * @param ecran écran à utiliser, ou {@code null} pour écrire la carte à
+     * la suite sur la sortie standard
+     */
+    public void setEcran(EcranAnsi ecran) {
+        this.ecran = ecran;
     }
 
     /**
-     * Détermine le symbole d'une créature selon son type
+     * Branche le journal qui enregistre les changements de chaque tour.
+     *
+     * @param journal journal ouvert sur ce monde, ou {@code null} pour ne plus
+     * rien enregistrer
+     * @see JournalTours#ouvrir(World, java.nio.file.Path)
      */
-    private char getSymbolePourCreature(Creature c) {
-        if (c instanceof Archer) {
-            return 'A';
-        }
-        if (c instanceof Guerrier) {
-            return 'G';
-        }
-        if (c instanceof Loup) {
-            return 'W';
+    public void setJournal(JournalTours journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Branche l’enregistrement des choix du joueur, terminé à chaque fin de
+     * tour.
+     *
+     * @param session enregistrement de la partie, ou {@code null}
+     */
+    public void setSession(SessionEnregistree session) {
+        this.session = session;
+    }
+
+    /**
+     * Choisit le nombre de threads utilisés pour les analyses du tour. Les
+     * threads du moteur précédent sont arrêtés.
+     *
+     * @param nbThreads nombre de threads (1 : exécution en série)
+     */
+    public void setParallelisme(int nbThreads) {
+        MoteurTuiles ancien = this.moteur;
+        this.moteur = MoteurTuiles.avecThreads(nbThreads);
+        ancien.fermer();
+    }
+
+    /**
+     * Ajoute à un tampon les créatures vivantes d’un type donné situées dans
+     * une zone d’effet (carré, disque ou losange) autour d’une position,
+     * position comprise.
+     *
+     * @param <T> type des créatures recherchées
+     * @param forme forme de la zone
+     * @param centre centre de la zone
+     * @param rayon rayon de la zone
+     * @param type classe des créatures retenues
+     * @param resultat tampon fourni par l’appelant
+     * @return le nombre de créatures ajoutées
+     * @see GrilleOccupation#creaturesDansZone
+     */
+    public <T extends Creature> int creaturesDansZone(FormeZone forme, Point2D centre, int rayon, Class<T> type,
+            List<? super T> resultat) {
+        return grille.creaturesDansZone(forme, centre.getX(), centre.getY(), rayon, type, resultat);
+    }
+
+    /**
+     * Retourne les créatures situées dans le carré de Chebyshev de rayon
+     * {@code rayon} autour d’une position (position exclue).
+     *
+     * @param centre centre de la recherche
+     * @param rayon demi-côté du carré
+     * @return créatures trouvées
+     */
+    public List<Creature> creaturesDansCarre(Point2D centre, int rayon) {
+        List<Creature> resultat = new ArrayList<>();
+        grille.creaturesDansCarre(centre.getX(), centre.getY(), rayon, resultat);
+        return resultat;
+    }
+
+    /**
+     * Retourne les créatures situées à une distance euclidienne au plus égale
+     * à {@code rayon} d’une position (position exclue).
+     *
+     * @param centre centre de la recherche
+     * @param rayon rayon du disque
+     * @return créatures trouvées
+     */
+    public List<Creature> creaturesDansRayon(Point2D centre, int rayon) {
+        List<Creature> resultat = new ArrayList<>();
+        grille.creaturesDansRayon(centre.getX(), centre.getY(), rayon, resultat);
+        return resultat;
+    }
+
+    /**
+     * Retourne les {@code k} créatures les plus proches d’une position, de la
+     * plus proche à la plus éloignée (position exclue).
+     *
+     * @param centre centre de la recherche
+     * @param k nombre de voisins recherchés
+     * @return créatures trouvées
+     */
+    public List<Creature> kPlusProches(Point2D centre, int k) {
+        List<Creature> resultat = new ArrayList<>();
+        grille.kPlusProches(centre.getX(), centre.getY(), k, TAILLE_MONDE, resultat);
+        return resultat;
+    }
+
+    /**
+     * Effectue une simulation de plusieurs tours : à chaque tour, tous les
+     * personnages se déplacent aléatoirement.
+     * <p>
+     * Les déplacements aléatoires proposés pendant le tour sont collectés par
+     * la {@link PhaseDeplacement} de la grille puis résolus tous ensemble
+     * avant l’affichage.
+     * </p>
+     *
+     * @param nbTours nombre de tours à exécuter
+     * @param moi
+     */
+    public void tourDeJour(int nbTours, Joueur moi) {
+    for (int t = 0; t < nbTours; t++) {
+        System.out.println("===== TOUR " + (t + 1) + " =====");
+
+        executerTour(moi);
+
+        // Mise à jour de l’affichage du monde, une fois les événements du
+        // tour écrits
+        JournalEvenements.vider();
+        afficheWorld(moi);
+    }
+}
+
+    /**
+     * Exécute un seul tour, sans affichage de la carte : analyse du joueur,
+     * analyse de tous les éléments, puis résolution des déplacements.
+     *
+     * @param moi joueur, ou {@code null} pour un monde sans joueur
+     * @return le nombre d’éléments mis à jour pendant le tour
+     */
+    public int executerTour(Joueur moi) {
+        int misesAJour = 0;
+        nbToursJoues++;
+        JournalEvenements.tour(nbToursJoues);
+
+        // Le joueur analyse son environnement et agit (ses résultats sont
+        // écrits avant la suite du tour)
+        TamponCommandes commandes = this.grille.getCommandes();
+        if (moi != null) {
+            commandes.ouvrir();
+            moi.analyzer(this.grille, this.ListCreature, this.ListObjets, TAILLE_MONDE);
+            commandes.resoudre();
+            JournalEvenements.vider();
+            misesAJour++;
         }
-        if (c instanceof Paysan) {
-            return 'P';
+
+        // Chaque créature effectue son propre tour d’analyse
+        // (les déplacements, dégâts et retraits d’objets sont seulement
+        // enregistrés, les tuiles éloignées sont traitées en parallèle)
+        PhaseDeplacement phase = this.grille.getPhaseDeplacement();
+        phase.ouvrir();
+        commandes.ouvrir();
+        misesAJour += moteur.executer(this.ListAnalyze, this.grille, this.ListCreature, this.ListObjets, TAILLE_MONDE);
+
+        // Application des dégâts et des morts, puis de tous les déplacements
+        // du tour en un seul balayage (les morts ne bougent pas)
+        commandes.resoudre();
+        phase.resoudre(this.grille);
+
+        // Fin des effets et des nuages arrivés à terme ce tour-ci (seules
+        // les échéances du tour sont lues)
+        roue.avancer(nbToursJoues, expiration);
+
+        // Enregistrement des changements du tour, avant que les morts ne
+        // quittent les listes
+        if (journal != null) {
+            journal.noterTour(this);
         }
-        if (c instanceof Lapin) {
-            return 'L';
+
+        // Suppression des créatures mortes et des nuages dissipés
+        compacter();
+
+        // Choix du joueur et empreinte du tour
+        if (session != null) {
+            session.terminerTour(this);
         }
-        return 'C'; // par défaut : "C" pour "Créature"
+        return misesAJour;
     }
 
     /**
-     * Détermine le symbole d’un objet selon son type
+     * Retire d’un coup toutes les créatures mortes et tous les nuages
+     * dissipés du monde.
+     * <p>
+     * Une créature qui meurt pendant le tour n’est que marquée morte
+     * ({@link Creature#mourir(GrilleOccupation)}). La réserve supprime
+     * d’abord ses emplacements morts ; s’il y en avait, ou si des nuages se
+     * sont dissipés, chaque liste du monde est ensuite filtrée en un seul
+     * balayage, sans changer l’ordre des survivants. Le coût ne dépend pas du
+     * nombre de retraits. Les trous laissés par les objets ramassés sont
+     * refermés de la même façon.
+     * </p>
+     *
+     * @return le nombre de créatures retirées
      */
-    private char getSymbolePourObjet(Objet o) {
-        if (o instanceof PotionSoin) {
-            return 'O';
+    public int compacter() {
+        ListObjets.compacter();
+        int morts = reserve.compacter();
+        if (morts > 0) {
+            ListCreature.removeIf(c -> !c.isEtat());
         }
-        if (o instanceof Nourriture) {
-            return 'N';
+        if (morts > 0 || nuagesDissipes > 0) {
+            ListAnalyze.removeIf(World::estRetire);
+            ListElementJeu.removeIf(World::estRetire);
+            nuagesDissipes = 0;
         }
-        if (o instanceof Epee) {
-            return 'E';
+        return morts;
+    }
+
+    /**
+     * Calcule l’empreinte de l’état du monde : tour, identifiants attribués,
+     * colonnes de la réserve, objets posés et possessions du héros. Deux
+     * déroulements de la même partie ont la même empreinte à chaque tour ; la
+     * première différence signale une divergence.
+     *
+     * @return l’empreinte du monde
+     */
+    public long empreinte() {
+        final long m = 0x9E3779B97F4A7C15L;
+        long h = TablePositions.melanger(nbToursJoues ^ TablePositions.melanger(dernierId));
+        h = h * m + reserve.empreinte();
+        for (Objet o : ListObjets) {
+            h = h * m + o.getId();
+            h = h * m + o.getPos().getX();
+            h = h * m + o.getPos().getY();
         }
-        if (o instanceof NuageToxique) {
-            return 'X';
+        if (heros != null) {
+            h = h * m + heros.getId();
+            for (Objet o : heros.getInventaire()) {
+                h = h * m + o.getId();
+            }
+            h = h * m + heros.getInventaire().size();
+            for (ObjetUtilisable effet : heros.getEffetsActifs()) {
+                h = h * m + ((ElementDeJeu) effet).getId();
+            }
         }
-        return '?'; // objet inconnu
+        return TablePositions.melanger(h);
     }
 
     /**
-     * Affiche uniquement la zone visible autour du héros
+     * Indique si un élément a quitté le monde pendant le tour : créature
+     * morte ou nuage dissipé.
      */
-    private void afficherZoneVisible(char[][] monde, Creature hero) {
-        int vision = hero.getDistanceVision();
-        int xHero = hero.getPos().getX();
-        int yHero = hero.getPos().getY();
-
-        System.out.println("\n=== MONDE VISIBLE ===");
+    private static boolean estRetire(Object e) {
+        return (e instanceof Creature c && !c.isEtat()) || (e instanceof NuageToxique n && !n.estActif());
+    }
 
-        for (int y = yHero - vision; y <= yHero + vision; y++) {
-            for (int x = xHero - vision; x <= xHero + vision; x++) {
-                if (y >= 0 && y < monde.length && x >= 0 && x < monde[0].length) {
-                    System.out.print(monde[y][x] + " ");
-                } else {
-                    System.out.print("*"); // bordure hors du monde
-                }
+    /**
+     * Traite une échéance de la roue : fin d’un effet porté par un
+     * personnage, ou dissipation d’un nuage. L’effet d’un personnage mort
+     * n’est pas retiré : ses caractéristiques ne doivent plus changer (une
+     * créature supprimée lit la tombe commune de la réserve).
+     *
+     * @param sujet effet ou nuage arrivé à terme
+     * @param porteur personnage qui porte l’effet, ou {@code null}
+     */
+    private void expirer(ElementDeJeu sujet, Personnage porteur) {
+        if (porteur != null && sujet instanceof ObjetUtilisable effet) {
+            if (porteur.isEtat()) {
+                porteur.terminerEffet(effet);
             }
-            System.out.println();
+        } else if (sujet instanceof NuageToxique nuage) {
+            nuage.dissiper(grille);
+            nuagesDissipes++;
         }
     }
 
+    /**
+     * Affiche la partie du monde visible par le héros, puis ses
+     * statistiques.
+     * <p>
+     * Seules les cases à portée de vision sont lues, dans la grille
+     * d’occupation : le coût ne dépend pas de la taille du monde.
+     * </p>
+     *
+     * @param moi
+     */
+    public void afficheWorld(Joueur moi) {
+        // 1️⃣ Dessiner et afficher la zone visible selon la vision du héros
+        rendu.rasteriser(grille, moi.hero);
+        if (ecran != null) {
+            ecran.afficher(rendu);
+        } else {
+            rendu.ecrire(System.out);
+        }
+
+        // 2️⃣ Afficher les statistiques du héros
+        System.out.println();
+        System.out.println("=== STATS DU HÉROS ===");
+        moi.hero.affiche();
+        System.out.println("=======================");
+    }
+
     /**
      * Génère un personnage aléatoire (Archer, Paysan ou Guerrier).
      *
      * @param id identifiant du personnage
      * @param p position dans le monde
+     * @param rand flux de génération du monde
      * @return une instance de Personnage
      */
-    private Personnage GenerationP(int id, Point2D p) {
-        Random randomGen = new Random();
-        int randint = randomGen.nextInt(3);
+    private Personnage GenerationP(int id, Point2D p, SplittableRandom rand) {
+        int randint = rand.nextInt(3);
         return switch (randint) {
             case 0 ->
                 new Archer("Archer " + id, true, 100, 80, 20, 80, 50, p, 2, 5, 10);
@@ -394,10 +927,10 @@ public class World {
      *
      * @param id identifiant du monstre
      * @param p position dans le monde
+     * @param rand flux de génération du monde
      * @return une instance de Monstre
      */
-    private Monstre GenerationM(int id, Point2D p) {
-        Random rand = new Random();
+    private Monstre GenerationM(int id, Point2D p, SplittableRandom rand) {
         int randint = rand.nextInt(2);
         return switch (randint) {
             case 0 ->
@@ -416,10 +949,10 @@ public class World {
      *
      * @param id identifiant de l’objet
      * @param p position dans le monde
+     * @param rand flux de génération du monde
      * @return une instance d’Objet
      */
-    private Objet GenerationO(int id, Point2D p) {
-        Random rand = new Random();
+    private Objet GenerationO(int id, Point2D p, SplittableRandom rand) {
         int randint = rand.nextInt(7);
         return switch (randint) {
             case 0 ->
@@ -427,13 +960,13 @@ public class World {
             case 1 ->
                 new Epee("Epe " + id, "Epee en acier", p, 15, Epee.Etat.NONE);
             case 2 ->
-                new Nourriture(Nourriture.Nourritures.ALCOHOOL, "Alcohool", "tres fort", p);
+                new Nourriture(Nourriture.Nourritures.ALCOHOOL, "Alcohool", "tres fort", p, rand);
             case 3 ->
-                new Nourriture(Nourriture.Nourritures.LEGUMBRE, "Legumbre", "Bon sante", p);
+                new Nourriture(Nourriture.Nourritures.LEGUMBRE, "Legumbre", "Bon sante", p, rand);
             case 4 ->
-                new Nourriture(Nourriture.Nourritures.BOISSONRICHE, "Boisson riche", "????", p);
+                new Nourriture(Nourriture.Nourritures.BOISSONRICHE, "Boisson riche", "????", p, rand);
             case 5 ->
-                new Nourriture(Nourriture.Nourritures.POMMEDOR, "Pomme d'or", "OMG", p);
+                new Nourriture(Nourriture.Nourritures.POMMEDOR, "Pomme d'or", "OMG", p, rand);
             case 6 ->
                 new NuageToxique("NuageT " + id, "Tres fort", p, rand.nextInt(10) + 1, rand.nextInt(3) + 1, rand.nextInt(11) + 1);
             default ->
@@ -474,6 +1007,17 @@ public class World {
         System.out.println("==================");
     }
 
+    /**
+     * Calcule et affiche le total des points de vie des créatures du monde en
+     * parcourant la colonne des points de vie de la réserve.
+     */
+    private void affichePointDeVieParReserve() {
+        long ptVieTotal = reserve.sommePtVie();
+        System.out.println("====== TOTAL POINTS DE VIE =====");
+        System.out.println("Points de vie total : " + ptVieTotal);
+        System.out.println("==================");
+    }
+
     /**
      * Crée un laboratoire de test pour comparer les temps d’exécution entre
      * différentes structures de données (List, Set, etc.).
@@ -483,17 +1027,24 @@ public class World {
      * <ol>
      * <li>Basée sur la taille de la collection (accès indexé si List).</li>
      * <li>Basée sur les itérateurs Java.</li>
+     * <li>Basée sur la colonne des points de vie de la
+     * {@link ReserveCreatures}.</li>
      * </ol>
      * </p>
      *
      * @param collection collection utilisée pour stocker les créatures
      * @param iteration
+     * @deprecated un seul appel chronométré, sans préchauffage et entouré
+     * d’affichages, ne donne pas de mesure fiable ; utiliser les benchmarks
+     * JMH du profil Maven {@code jmh} ({@code BenchPointsDeVie} et suivants).
      */
+    @Deprecated
     public void creationLabDeMondePourComparerDesTemps(Collection<Creature> collection, int iteration) {
-        Random rand = new Random();
+        SplittableRandom rand = alea.generation();
         System.out.println("=== Type de collection utilisee : " + collection.getClass().getSimpleName() + " ===");
 
         this.TAILLE_MONDE = 1000;
+        nouvelleGrille();
         int populationInitiale = 100;
 
         System.out.println("""
@@ -509,6 +1060,8 @@ public class World {
 
         for (int i = 0; i < iteration; i++) {
             collection.clear();
+            grille.vider();
+            reserve = new ReserveCreatures(populationInitiale);
             long startNs, startMs, endMs, endNs;
 
             System.out.println();
@@ -538,6 +1091,16 @@ public class World {
             System.out.println("Temps dexecution : " + (endMs - startMs) + " millisecondes\n");
             System.out.println("Temps dexecution : " + (endNs - startNs) + " nanosecondes\n");
 
+            // Calcul par colonne de la réserve
+            System.out.println("--- Calcul du total des points de vie (methode par reserve) ---");
+            startNs = System.nanoTime();
+            startMs = System.currentTimeMillis();
+            affichePointDeVieParReserve();
+            endMs = System.currentTimeMillis();
+            endNs = System.nanoTime();
+            System.out.println("Temps dexecution : " + (endMs - startMs) + " millisecondes\n");
+            System.out.println("Temps dexecution : " + (endNs - startNs) + " nanosecondes\n");
+
             populationInitiale *= 10; // Augmentation exponentielle
         }
     }
@@ -549,7 +1112,7 @@ public class World {
      * @param creatures liste des créatures
      * @param objets liste des objets
      */
-    private void afficheListes(List<Creature> creatures, List<Objet> objets) {
+    private void afficheListes(List<Creature> creatures, Collection<Objet> objets) {
         Map<Class<?>, Integer> counter = new HashMap<>();
         System.out.println("\n===== LISTE DES CREATURES =====");
         for (Creature c : creatures) {
@@ -0,0 +1,84 @@
+package org.centrale.objet.woe.projettp;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Version vectorielle (API {@code jdk.incubator.vector}) de
+ * {@link Point2D#selectionnerDansCarre(int, int, int[], int[], int, int, int, int[])}.
+ * <p>
+ * Les coordonnées sont chargées par blocs de la largeur préférée du
+ * processeur (8 entiers en AVX2, 16 en AVX-512) ; la distance de Chebyshev de
+ * tout le bloc est comparée au rayon en une instruction, et le masque obtenu
+ * donne directement les indices retenus. Les cases restantes, moins
+ * nombreuses qu'un bloc, sont testées une à une.
+ * </p>
+ *
+ * <p>
+ * Cette classe n'est compilée qu'avec le profil Maven {@code vectoriel}, et
+ * {@link AcquisitionCibles} ne la charge, par son nom, que si le module
+ * incubateur est présent : sans lui, la référence à {@code IntVector} ne
+ * serait pas résolue.
+ * </p>
+ *
+ * @author srodr
+ */
+final class SelectionVectorielle implements AcquisitionCibles.NoyauSelection {
+
+    // ================= ATTRIBUTS =================
+    private static final VectorSpecies<Integer> ESPECE = IntVector.SPECIES_PREFERRED;
+
+    // ================= CONSTRUCTEUR =================
+    /**
+     * Construit le noyau (appelé par réflexion par {@link AcquisitionCibles}).
+     */
+    SelectionVectorielle() {
+    }
+
+    // ================= MÉTHODES =================
+    /**
+     * Retient les indices des cases situées dans le carré de Chebyshev de
+     * demi-côté {@code rayon} autour de l'origine, dans l'ordre croissant.
+     *
+     * @param ox abscisse de l'origine
+     * @param oy ordonnée de l'origine
+     * @param xs abscisses des cases
+     * @param ys ordonnées des cases
+     * @param debut premier indice testé
+     * @param fin indice suivant le dernier indice testé
+     * @param rayon demi-côté du carré
+     * @param indices reçoit les indices retenus
+     * @return le nombre d'indices retenus
+     */
+    @Override
+    public int selectionnerDansCarre(int ox, int oy, int[] xs, int[] ys, int debut, int fin, int rayon,
+            int[] indices) {
+        IntVector vx = IntVector.broadcast(ESPECE, ox);
+        IntVector vy = IntVector.broadcast(ESPECE, oy);
+        int largeur = ESPECE.length();
+        int borne = debut + ESPECE.loopBound(fin - debut);
+        int k = 0;
+        int i = debut;
+        for (; i < borne; i += largeur) {
+            IntVector dx = IntVector.fromArray(ESPECE, xs, i).sub(vx).abs();
+            IntVector dy = IntVector.fromArray(ESPECE, ys, i).sub(vy).abs();
+            VectorMask<Integer> dedans = dx.max(dy).compare(VectorOperators.LE, rayon);
+            if (!dedans.anyTrue()) {
+                continue;
+            }
+            long bits = dedans.toLong();
+            while (bits != 0) {
+                indices[k++] = i + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+        }
+        for (; i < fin; i++) {
+            if (Point2D.distanceChebyshev(ox, oy, xs[i], ys[i]) <= rayon) {
+                indices[k++] = i;
+            }
+        }
+        return k;
+    }
+}